@@ -23,10 +23,20 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
 
 import repicea.io.REpiceaFileFilter.FileType;
 import repicea.io.javacsv.CSVReader;
+import repicea.io.javacsv.CharsetDetector;
+import repicea.io.javacsv.MappedCSVReader;
 import repicea.io.javadbf.DBFReader;
+import repicea.io.javasql.DatabaseConnectionManager;
 import repicea.io.javasql.SQLReader;
 
 /**
@@ -39,21 +49,28 @@ public abstract class FormatReader<H extends FormatHeader> implements Closeable
 
 	public static final String NOT_USING_FILES = "%%%NotUsingFiles%%%";
 	
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+	
+	private static boolean memoryMappedCSVEnabled = false;
+	
 	private final String filename;
 	private H header;
 	private final boolean isSystemResource;
 	protected int linePointer;
 	protected boolean isClosed;
+	private Object[] currentRecord;
+	private int[] projectedFieldIndices;
+	private boolean[] projection;
 	
 	/**
-	 * General constructor for files.
+	 * General constructor for files. The JDBC URLs are also accepted.
 	 * @param filename the filename.
 	 * @throws IOException if an I/O error has occurred
 	 */
 	protected FormatReader(String filename) throws IOException {
 		this.filename = filename;
 		File file = new File(filename);
-		if (file.exists()) {
+		if (DatabaseConnectionManager.isJDBCUrl(filename) || file.exists()) {
 			isSystemResource = false;
 		} else {			// then try to load it as a resource
 			InputStream in = getInputStream();
@@ -84,7 +101,8 @@ public abstract class FormatReader<H extends FormatHeader> implements Closeable
 	
 	
 	/**
-	 * This method opens the stream depending on its nature (a resource or a file)
+	 * This method opens the stream depending on its nature (a resource or a file). Gzip-compressed 
+	 * files are decompressed on the fly.
 	 * @return an InputStream instance
 	 * @throws IOException if an I/O error has occurred
 	 */
@@ -95,9 +113,37 @@ public abstract class FormatReader<H extends FormatHeader> implements Closeable
 		} else {
 			in = new FileInputStream(getFilename());
 		}
+		if (isCompressed()) {
+			in = new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+		}
 		return in;
 	}
 
+	/**
+	 * This method opens a channel on the file. The channel is a FileChannel instance if the file is 
+	 * an uncompressed file on disk. Otherwise, it relies on the stream provided by the {@link #openStream()} 
+	 * method.
+	 * @return a ReadableByteChannel instance
+	 * @throws IOException if an I/O error has occurred
+	 */
+	protected final ReadableByteChannel openChannel() throws IOException {
+		if (isSystemResource() || isCompressed()) {
+			return Channels.newChannel(openStream());
+		} else {
+			return FileChannel.open(Paths.get(getFilename()), StandardOpenOption.READ);
+		}
+	}
+
+	/**
+	 * Indicate whether the file is gzip-compressed. The positions in the stream do not match 
+	 * those in the file in such a case.
+	 * @return a boolean
+	 * @see REpiceaFileFilter#isGzipCompressed(String)
+	 */
+	protected final boolean isCompressed() {
+		return REpiceaFileFilter.isGzipCompressed(getFilename());
+	}
+
 	/**
 	 * Indicate whether the reader is at the beginning of the file or the stream.
 	 * @return a boolean
@@ -119,6 +165,18 @@ public abstract class FormatReader<H extends FormatHeader> implements Closeable
 		return getHeader().getNumberOfRecords();
 	}
 
+	/**
+	 * Provide an estimate of the number of records. <p>
+	 * 
+	 * This method is meant for progress reporting. By default, it returns the exact number 
+	 * of records. Derived classes for which counting the records is expensive can 
+	 * override this method.
+	 * @return an integer
+	 */
+	public int getEstimatedRecordCount() {
+		return getRecordCount();
+	}
+
 	/**
 	 * This method returns the field information provided by the header.
 	 * @param fieldIndex the index of the field
@@ -154,18 +212,186 @@ public abstract class FormatReader<H extends FormatHeader> implements Closeable
 	public abstract Object[] nextRecord(int skipThisNumberOfLines) throws IOException;
 	
 	/**
-	 * This method selects the appropriate FormatReader class.
+	 * Move the cursor to the next record. <p>
+	 * 
+	 * The values of the record are then retrieved through the getDouble, getInt, getString
+	 * and isNull methods. Unlike the nextRecord method, the derived classes can decode these
+	 * values directly into primitives without creating any object. 
+	 * @return false if the end of the file has been reached or true otherwise
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public boolean advance() throws IOException {
+		return advance(0);
+	}
+	
+	/**
+	 * Skip some lines and then move the cursor to the next record.
+	 * @param skipThisNumberOfLines the number of lines to skip before reading the observation
+	 * @return false if the end of the file has been reached or true otherwise
+	 * @throws IOException if an I/O error has occurred
+	 * @see #advance()
+	 */
+	public boolean advance(int skipThisNumberOfLines) throws IOException {
+		currentRecord = nextRecord(skipThisNumberOfLines);
+		return currentRecord != null;
+	}
+	
+	/**
+	 * Provide a value of the record reached by the last call to the advance method. 
+	 * @param fieldIndex the index of the field
+	 * @return an Object instance or null if the record does not have this field
+	 */
+	protected Object getValue(int fieldIndex) {
+		if (currentRecord == null) {
+			throw new IllegalStateException("There is no current record! The advance method must be called first.");
+		}
+		return fieldIndex < currentRecord.length ? currentRecord[fieldIndex] : null;
+	}
+	
+	/**
+	 * Indicate whether a value of the current record is missing. Null values and the strings
+	 * that stand for missing values (e.g. empty string, "." or "NA") are considered as missing.
+	 * @param fieldIndex the index of the field
+	 * @return a boolean
+	 * @throws IOException if an I/O error has occurred
+	 * @see #advance()
+	 * @see NumericFieldParser#isMissing(CharSequence)
+	 */
+	public boolean isNull(int fieldIndex) throws IOException {
+		Object value = getValue(fieldIndex);
+		return value == null || (value instanceof CharSequence && NumericFieldParser.isMissing((CharSequence) value));
+	}
+	
+	/**
+	 * Provide a value of the current record as a double. Both the dot and the comma 
+	 * are accepted as decimal separator.
+	 * @param fieldIndex the index of the field
+	 * @return a double or NaN if the value is missing
+	 * @throws IOException if an I/O error has occurred
+	 * @throws NumberFormatException if the value is not a number
+	 * @see #advance()
+	 */
+	public double getDouble(int fieldIndex) throws IOException {
+		if (isNull(fieldIndex)) {
+			return Double.NaN;
+		} 
+		Object value = getValue(fieldIndex);
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		} else {
+			return NumericFieldParser.parseDouble(value.toString());
+		}
+	}
+
+	/**
+	 * Provide a value of the current record as an integer. Decimals are truncated.
+	 * @param fieldIndex the index of the field
+	 * @return an integer or 0 if the value is missing
+	 * @throws IOException if an I/O error has occurred
+	 * @throws NumberFormatException if the value is not a number
+	 * @see #advance()
+	 */
+	public int getInt(int fieldIndex) throws IOException {
+		if (isNull(fieldIndex)) {
+			return 0;
+		} 
+		Object value = getValue(fieldIndex);
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		} else {
+			return NumericFieldParser.parseInt(value.toString());
+		}
+	}
+	
+	/**
+	 * Provide a value of the current record as a String.
+	 * @param fieldIndex the index of the field
+	 * @return a String or null if the value is null
+	 * @throws IOException if an I/O error has occurred
+	 * @see #advance()
+	 */
+	public String getString(int fieldIndex) throws IOException {
+		Object value = getValue(fieldIndex);
+		return value == null ? null : value.toString();
+	}
+	
+	/**
+	 * Restrict the fields that are decoded. <p>
+	 * 
+	 * The records keep all the fields, but the values of the fields that are not in the projection are
+	 * set to null. The readers can then skip their decoding. Readers that do not support projections 
+	 * provide all the values. The projection should be set before reading the records. 
+	 * @param fieldIndices the indices of the fields to be decoded or null to decode all the fields. 
+	 * Negative indices are ignored.
+	 */
+	public void setProjection(int[] fieldIndices) {
+		if (fieldIndices == null) {
+			projectedFieldIndices = null;
+			projection = null;
+		} else {
+			projectedFieldIndices = fieldIndices.clone();
+			projection = new boolean[getFieldCount()];
+			for (int fieldIndex : fieldIndices) {
+				if (fieldIndex >= 0 && fieldIndex < projection.length) {
+					projection[fieldIndex] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indicate whether a field is decoded.
+	 * @param fieldIndex the index of the field
+	 * @return a boolean
+	 * @see #setProjection(int[])
+	 */
+	public boolean isProjected(int fieldIndex) {
+		return projection == null || (fieldIndex < projection.length && projection[fieldIndex]);
+	}
+	
+	/**
+	 * Provide the projection.
+	 * @return the indices of the fields to be decoded or null if all the fields are to be decoded
+	 * @see #setProjection(int[])
+	 */
+	public int[] getProjection() {
+		return projectedFieldIndices == null ? null : projectedFieldIndices.clone();
+	}
+	
+	/**
+	 * Provide the projection as a mask.
+	 * @return an array of booleans whose elements are true for the fields to be decoded or null if all 
+	 * the fields are to be decoded
+	 * @see #setProjection(int[])
+	 */
+	protected boolean[] getProjectionMask() {return projection;}
+	
+	/**
+	 * This method selects the appropriate FormatReader class. The CSV and DBF files can be 
+	 * gzip-compressed (e.g. "data.csv.gz"). A JDBC URL followed by a table (e.g. "jdbc:hsqldb:file:data/inventory", "plots")
+	 * is read through the SQLReader class.
 	 * @param fileSpec a list of specification for the file to open (e.g. the filename, the table, etc...)
 	 * @return a FormatReader instance
 	 * @throws IOException if an I/O error has occurred
 	 */
 	public static FormatReader createFormatReader(String... fileSpec) throws IOException {
 		try {
+			if (DatabaseConnectionManager.isJDBCUrl(fileSpec[0])) {
+				return new SQLReader(fileSpec[0], fileSpec[1]);
+			}
 			FileType f = REpiceaFileFilter.getFileType(fileSpec[0]);
 			if (f == FileType.DBF) {
 				return new DBFReader(fileSpec[0]);
 			} else if (f == FileType.CSV) {
+				if (memoryMappedCSVEnabled && new File(fileSpec[0]).exists() && !REpiceaFileFilter.isGzipCompressed(fileSpec[0])) {
+					Charset charset = CharsetDetector.detect(fileSpec[0]);
+					if (MappedCSVReader.isCharsetSupported(charset)) {
+						return new MappedCSVReader(fileSpec[0], charset);
+					}
+				} 
 				return new CSVReader(fileSpec[0]);
+			} else if (REpiceaFileFilter.isGzipCompressed(fileSpec[0])) {
+				throw new IOException("Only the CSV and DBF files can be read from a compressed file!");
 			} else if (f == FileType.ACCDB || f == FileType.MDB) {
 				return new SQLReader(fileSpec[0], fileSpec[1]);
 			} else {
@@ -176,6 +402,23 @@ public abstract class FormatReader<H extends FormatHeader> implements Closeable
 		}
 	}
 	
+	/**
+	 * Enable or disable the memory-mapped reader for CSV files. <p>
+	 * 
+	 * When enabled, the {@link #createFormatReader(String...)} method returns a MappedCSVReader
+	 * instance for the CSV files on disk. The resources are still read through the CSVReader class.
+	 * By default, this option is disabled.
+	 * @param enabled a boolean
+	 */
+	public static void setMemoryMappedCSVEnabled(boolean enabled) {memoryMappedCSVEnabled = enabled;}
+	
+	/**
+	 * Indicate whether the memory-mapped reader is used for CSV files.
+	 * @return a boolean
+	 * @see #setMemoryMappedCSVEnabled(boolean)
+	 */
+	public static boolean isMemoryMappedCSVEnabled() {return memoryMappedCSVEnabled;}
+	
 	/**
 	 * This method returns the header of the file that is to be read.
 	 * @return a FormatHeader instance
@@ -205,6 +448,7 @@ public abstract class FormatReader<H extends FormatHeader> implements Closeable
 	@Override
 	public final void close() {
 		isClosed = true;
+		currentRecord = null;
 		closeInternalStream();
 	}
 	
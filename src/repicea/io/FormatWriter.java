@@ -26,6 +26,7 @@ import java.util.List;
 import repicea.io.REpiceaFileFilter.FileType;
 import repicea.io.javacsv.CSVWriter;
 import repicea.io.javadbf.DBFWriter;
+import repicea.io.javasql.DatabaseConnectionManager;
 import repicea.io.javasql.SQLWriter;
 
 
@@ -48,10 +49,23 @@ public abstract class FormatWriter<H extends FormatHeader> implements Closeable
 	protected FormatWriter() {}
 	
 	protected FormatWriter(File outputFile, boolean append) throws IOException {
+		if (REpiceaFileFilter.isGzipCompressed(outputFile.getName())) {
+			throw new IOException("Compressed files can be read but they cannot be written: " + outputFile.getAbsolutePath());
+		}
 		this.outputFilename = outputFile.getAbsolutePath();
 		this.appendFile = append;
 	}
 	
+	/**
+	 * Constructor for writers whose output is not a file, e.g. a database identified by a JDBC URL.
+	 * @param outputUrl the URL of the output
+	 * @param append true if the output is to be appended or false otherwise
+	 */
+	protected FormatWriter(String outputUrl, boolean append) {
+		this.outputFilename = outputUrl;
+		this.appendFile = append;
+	}
+	
 	/**
 	 * This method returns the header of the output file.
 	 * @return a FormatHeader instance
@@ -125,7 +139,8 @@ public abstract class FormatWriter<H extends FormatHeader> implements Closeable
 	
 	
 	/**
-	 * This method selects the appropriate FormatWriter class.
+	 * This method selects the appropriate FormatWriter class. A JDBC URL followed by a table
+	 * is written through the SQLWriter class.
 	 * @param append true if the file is to be appended or false otherwise
 	 * @param fileSpec a series of string, the first being at least the name of the output file, the second can be the table if exporting in a database for example
 	 * @return a FormatWriter instance
@@ -133,6 +148,9 @@ public abstract class FormatWriter<H extends FormatHeader> implements Closeable
 	 */
 	public static FormatWriter<? extends FormatHeader<? extends FormatField>> createFormatWriter(boolean append, String... fileSpec) throws IOException {
 		try {
+			if (DatabaseConnectionManager.isJDBCUrl(fileSpec[0])) {
+				return new SQLWriter(fileSpec[0], fileSpec[1], append);
+			}
 			FileType f = REpiceaFileFilter.getFileType(fileSpec[0]);
 			if (f == FileType.DBF) {
 				return new DBFWriter(new File(fileSpec[0]), append);
@@ -0,0 +1,228 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * The NumericFieldFormatter class writes numbers as ASCII digits directly into an array of bytes. <p>
+ * 
+ * The number is right-aligned in a fixed-width field, which is padded with spaces on the left. The 
+ * output is the same as that of a DecimalFormat instance with the "#####.00" pattern, i.e. a fixed 
+ * number of decimals, a dot as decimal separator, no grouping, no leading zero before the separator and 
+ * the HALF_EVEN rounding. As with the former textPadding approach, a number that is larger than the field 
+ * is truncated on the right. <p>
+ * 
+ * The usual values are formatted without creating any object. The DecimalFormat instance is still used for 
+ * the values that are very close to a tie, very large values, NaN, infinities or a default locale whose 
+ * digits are not ASCII. An instance is not thread safe.
+ * @author Mathieu Fortin - October 2026
+ */
+public final class NumericFieldFormatter {
+
+	private static final int MAX_DECIMALS = 15;
+	
+	/*
+	 * Below this limit, the unit in the last place of the scaled value is 0.5 or less so that the rounding 
+	 * can be determined from its fractional part.
+	 */
+	private static final double MAX_SCALED_VALUE = 1L << 52;
+	
+	private static final long[] POWERS_OF_TEN = new long[19];
+	static {
+		POWERS_OF_TEN[0] = 1L;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+		}
+	}
+	
+	private final int width;
+	private final int decimals;
+	private final DecimalFormat fallbackFormat;
+	private final boolean isAsciiLocale;
+
+	/**
+	 * Constructor.
+	 * @param width the number of bytes of the field
+	 * @param decimals the number of decimals
+	 */
+	public NumericFieldFormatter(int width, int decimals) {
+		if (width < 1 || decimals < 0) {
+			throw new IllegalArgumentException("The width must be strictly positive and the number of decimals cannot be negative!");
+		}
+		this.width = width;
+		this.decimals = decimals;
+		fallbackFormat = createDecimalFormat(width, decimals);
+		DecimalFormatSymbols symbols = fallbackFormat.getDecimalFormatSymbols();
+		isAsciiLocale = symbols.getZeroDigit() == '0' && symbols.getMinusSign() == '-';
+	}
+
+	/**
+	 * Create the DecimalFormat instance that is equivalent to a formatter.
+	 * @param width the number of bytes of the field
+	 * @param decimals the number of decimals
+	 * @return a DecimalFormat instance
+	 */
+	public static DecimalFormat createDecimalFormat(int width, int decimals) {
+		int sizeWholePart = width - (decimals > 0 ? decimals + 1 : 0);
+		StringBuilder format = new StringBuilder(width);
+		for (int i = 0; i < sizeWholePart; i++) {
+			format.append("#");
+		}
+		if (decimals > 0) {
+			format.append(".");
+			for (int i = 0; i < decimals; i++) {
+				format.append("0");
+			}
+		}
+		DecimalFormat df = new DecimalFormat(format.toString());
+		DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+		symbols.setDecimalSeparator('.');		// force decimal separator to be '.'
+		df.setDecimalFormatSymbols(symbols);
+		return df;
+	}
+	
+	/**
+	 * Provide the width of the field.
+	 * @return an integer
+	 */
+	public int getWidth() {return width;}
+	
+	/**
+	 * Provide the number of decimals.
+	 * @return an integer
+	 */
+	public int getDecimals() {return decimals;}
+	
+	/**
+	 * Write a double into the field.
+	 * @param value the value to be written
+	 * @param dest the destination array
+	 * @param offset the index of the first byte of the field in the array
+	 */
+	public void format(double value, byte[] dest, int offset) {
+		if (isAsciiLocale && decimals <= MAX_DECIMALS) {
+			boolean negative = Double.doubleToRawLongBits(value) < 0;		// -0.0 is formatted as -0 by DecimalFormat
+			double absoluteValue = Math.abs(value);
+			double scaledValue = absoluteValue * POWERS_OF_TEN[decimals];
+			if (scaledValue < MAX_SCALED_VALUE && !isCloseToTie(scaledValue)) {		// this is false for NaN and infinities
+				writeDigits(round(scaledValue), negative, dest, offset);
+				return;
+			}
+		}
+		writeFallback(fallbackFormat.format(value), dest, offset);
+	}
+	
+	/**
+	 * Write a long into the field. The decimals are all zeros.
+	 * @param value the value to be written
+	 * @param dest the destination array
+	 * @param offset the index of the first byte of the field in the array
+	 */
+	public void format(long value, byte[] dest, int offset) {
+		if (isAsciiLocale && decimals <= MAX_DECIMALS) {
+			long limit = (long) MAX_SCALED_VALUE / POWERS_OF_TEN[decimals];
+			if (value < limit && value > -limit) {
+				writeDigits(Math.abs(value) * POWERS_OF_TEN[decimals], value < 0, dest, offset);
+				return;
+			}
+		}
+		writeFallback(fallbackFormat.format(value), dest, offset);
+	}
+
+	private void writeFallback(String str, byte[] dest, int offset) {
+		byte[] bytes = (str.length() > width ? str.substring(0, width) : str).getBytes(StandardCharsets.ISO_8859_1);
+		int length = Math.min(bytes.length, width);
+		int padding = width - length;
+		for (int i = 0; i < padding; i++) {
+			dest[offset + i] = ' ';
+		}
+		System.arraycopy(bytes, 0, dest, offset + padding, length);
+	}
+	
+	/*
+	 * The DecimalFormat class rounds the shortest decimal representation of the double, which is 
+	 * not always on the same side of a tie as the exact value of the double. The values 
+	 * whose scaled value is within a few ulps of a tie are then left to the DecimalFormat instance. 
+	 */
+	private static boolean isCloseToTie(double scaledValue) {
+		double fractionalPart = scaledValue - Math.floor(scaledValue);
+		return Math.abs(fractionalPart - 0.5) <= 4 * Math.ulp(scaledValue);
+	}
+	
+	private static long round(double scaledValue) {
+		double integerPart = Math.floor(scaledValue);
+		long rounded = (long) integerPart;
+		if (scaledValue - integerPart > 0.5) {
+			rounded++;
+		}
+		return rounded;
+	}
+	
+	/*
+	 * The digits are written from the right. The digits beyond the width are dropped so that the number is 
+	 * truncated on the right as the former textPadding approach did.
+	 */
+	private void writeDigits(long scaledValue, boolean negative, byte[] dest, int offset) {
+		long integerPart = scaledValue / POWERS_OF_TEN[decimals];
+		long fractionalPart = scaledValue % POWERS_OF_TEN[decimals];
+		int numberOfIntegerDigits = integerPart == 0 ? (decimals == 0 ? 1 : 0) : numberOfDigits(integerPart);
+		int length = (negative ? 1 : 0) + numberOfIntegerDigits + (decimals > 0 ? decimals + 1 : 0);
+		int end = offset + Math.max(length, width);	// the index after the last byte if the field were large enough
+		int limit = offset + width;
+		int p = end;
+		for (int i = 0; i < decimals; i++) {
+			p = put(dest, p, limit, (byte) ('0' + fractionalPart % 10));
+			fractionalPart /= 10;
+		}
+		if (decimals > 0) {
+			p = put(dest, p, limit, (byte) '.');
+		}
+		for (int i = 0; i < numberOfIntegerDigits; i++) {
+			p = put(dest, p, limit, (byte) ('0' + integerPart % 10));
+			integerPart /= 10;
+		}
+		if (negative) {
+			p = put(dest, p, limit, (byte) '-');
+		}
+		while (p > offset) {
+			dest[--p] = ' ';
+		}
+	}
+	
+	private static int put(byte[] dest, int p, int limit, byte b) {
+		p--;
+		if (p < limit) {
+			dest[p] = b;
+		}
+		return p;
+	}
+	
+	private static int numberOfDigits(long value) {
+		int n = 1;
+		while (n < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[n]) {
+			n++;
+		}
+		return n;
+	}
+	
+}
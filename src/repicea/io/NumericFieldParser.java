@@ -0,0 +1,415 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The NumericFieldParser class parses numbers directly from the characters or the bytes of a field. <p>
+ *
+ * The usual decimal notation (e.g. "-12.345") is parsed without creating any object. Both the dot 
+ * and the comma are accepted as decimal separator. The results are the same as those of the former 
+ * Double.parseDouble(str.replace(",", ".")) approach, which is still used for the other notations 
+ * (e.g. exponents or long mantissas). <p>
+ * 
+ * An empty field, a dot or the NA string (in any case) stands for a missing value. Leading and trailing 
+ * whitespaces are ignored except for the empty field, i.e. a field that contains only whitespaces is not 
+ * considered as missing.
+ * @author Mathieu Fortin - October 2026
+ */
+public final class NumericFieldParser {
+
+	/*
+	 * A mantissa below this limit and a power of ten up to 10^22 are both exact doubles. Their quotient 
+	 * is then correctly rounded.
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1d;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10d;
+		}
+	}
+
+	/*
+	 * Same as above for floats, whose powers of ten are exact up to 10^10.
+	 */
+	private static final int MAX_EXACT_FLOAT_MANTISSA = 1 << 24;
+	private static final float[] FLOAT_POWERS_OF_TEN = new float[11];
+	static {
+		FLOAT_POWERS_OF_TEN[0] = 1f;
+		for (int i = 1; i < FLOAT_POWERS_OF_TEN.length; i++) {
+			FLOAT_POWERS_OF_TEN[i] = FLOAT_POWERS_OF_TEN[i - 1] * 10f;
+		}
+	}
+	
+	/*
+	 * An integer can be truncated from the digits if the value with its decimals is exactly 
+	 * represented by a double. Otherwise, the double could be rounded up to the next integer.
+	 */
+	private static final int MAX_INTEGER_DIGITS = 15;
+
+	private NumericFieldParser() {}
+
+	/**
+	 * Check if the field stands for a missing value.
+	 * @param seq a CharSequence instance
+	 * @return a boolean
+	 */
+	public static boolean isMissing(CharSequence seq) {
+		return isMissing(seq, 0, seq.length());
+	}
+	
+	/**
+	 * Check if a range of characters stands for a missing value.
+	 * @param seq a CharSequence instance
+	 * @param start the index of the first character
+	 * @param end the index after the last character
+	 * @return a boolean
+	 */
+	public static boolean isMissing(CharSequence seq, int start, int end) {
+		if (start == end) {
+			return true;
+		}
+		while (start < end && seq.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && seq.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (end - start == 1) {
+			return seq.charAt(start) == '.';
+		} else if (end - start == 2) {
+			char c0 = seq.charAt(start);
+			char c1 = seq.charAt(start + 1);
+			return (c0 == 'N' || c0 == 'n') && (c1 == 'A' || c1 == 'a');
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Check if a range of ASCII bytes stands for a missing value.
+	 * @param bytes an array of bytes
+	 * @param start the index of the first byte
+	 * @param end the index after the last byte
+	 * @return a boolean
+	 */
+	public static boolean isMissing(byte[] bytes, int start, int end) {
+		if (start == end) {
+			return true;
+		}
+		while (start < end && isWhitespace(bytes[start])) {
+			start++;
+		}
+		while (end > start && isWhitespace(bytes[end - 1])) {
+			end--;
+		}
+		if (end - start == 1) {
+			return bytes[start] == '.';
+		} else if (end - start == 2) {
+			byte b0 = bytes[start];
+			byte b1 = bytes[start + 1];
+			return (b0 == 'N' || b0 == 'n') && (b1 == 'A' || b1 == 'a');
+		} else {
+			return false;
+		}
+	}
+	
+	private static boolean isWhitespace(byte b) {
+		return b <= ' ' && b >= 0;
+	}
+	
+	/**
+	 * Parse a double from a CharSequence instance.
+	 * @param seq a CharSequence instance
+	 * @return a double
+	 * @throws NumberFormatException if the characters do not represent a number
+	 */
+	public static double parseDouble(CharSequence seq) {
+		return parseDouble(seq, 0, seq.length());
+	}
+	
+	/**
+	 * Parse a double from a range of characters.
+	 * @param seq a CharSequence instance
+	 * @param start the index of the first character
+	 * @param end the index after the last character
+	 * @return a double
+	 * @throws NumberFormatException if the characters do not represent a number
+	 */
+	public static double parseDouble(CharSequence seq, int start, int end) {
+		while (start < end && seq.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && seq.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int i = start;
+		boolean negative = false;
+		if (i < end && (seq.charAt(i) == '-' || seq.charAt(i) == '+')) {
+			negative = seq.charAt(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int scale = 0;
+		boolean hasDigits = false;
+		boolean hasSeparator = false;
+		for (; i < end; i++) {
+			char c = seq.charAt(i);
+			if (c >= '0' && c <= '9' && mantissa < MAX_EXACT_MANTISSA) {
+				mantissa = mantissa * 10 + (c - '0');
+				hasDigits = true;
+				if (hasSeparator) {
+					scale++;
+				}
+			} else if ((c == '.' || c == ',') && !hasSeparator) {
+				hasSeparator = true;
+			} else {		// then the fast path does not apply
+				return parseWithDouble(seq.subSequence(start, end).toString());
+			}
+		}
+		if (hasDigits && mantissa < MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length) {
+			double value = mantissa / POWERS_OF_TEN[scale];
+			return negative ? -value : value;
+		} else {
+			return parseWithDouble(seq.subSequence(start, end).toString());
+		}
+	}
+	
+	/**
+	 * Parse a double from a range of ASCII bytes.
+	 * @param bytes an array of bytes
+	 * @param start the index of the first byte
+	 * @param end the index after the last byte
+	 * @return a double
+	 * @throws NumberFormatException if the bytes do not represent a number
+	 */
+	public static double parseDouble(byte[] bytes, int start, int end) {
+		while (start < end && isWhitespace(bytes[start])) {
+			start++;
+		}
+		while (end > start && isWhitespace(bytes[end - 1])) {
+			end--;
+		}
+		int i = start;
+		boolean negative = false;
+		if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int scale = 0;
+		boolean hasDigits = false;
+		boolean hasSeparator = false;
+		for (; i < end; i++) {
+			byte b = bytes[i];
+			if (b >= '0' && b <= '9' && mantissa < MAX_EXACT_MANTISSA) {
+				mantissa = mantissa * 10 + (b - '0');
+				hasDigits = true;
+				if (hasSeparator) {
+					scale++;
+				}
+			} else if ((b == '.' || b == ',') && !hasSeparator) {
+				hasSeparator = true;
+			} else {		// then the fast path does not apply
+				return parseWithDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+			}
+		}
+		if (hasDigits && mantissa < MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length) {
+			double value = mantissa / POWERS_OF_TEN[scale];
+			return negative ? -value : value;
+		} else {
+			return parseWithDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+		}
+	}
+
+	/**
+	 * Parse a float from a range of ASCII bytes. The result is the same as that of 
+	 * Float.parseFloat, which is not always the case when casting the double.
+	 * @param bytes an array of bytes
+	 * @param start the index of the first byte
+	 * @param end the index after the last byte
+	 * @return a float
+	 * @throws NumberFormatException if the bytes do not represent a number
+	 */
+	public static float parseFloat(byte[] bytes, int start, int end) {
+		while (start < end && isWhitespace(bytes[start])) {
+			start++;
+		}
+		while (end > start && isWhitespace(bytes[end - 1])) {
+			end--;
+		}
+		int i = start;
+		boolean negative = false;
+		if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i] == '-';
+			i++;
+		}
+		int mantissa = 0;
+		int scale = 0;
+		boolean hasDigits = false;
+		boolean hasSeparator = false;
+		for (; i < end; i++) {
+			byte b = bytes[i];
+			if (b >= '0' && b <= '9' && mantissa < MAX_EXACT_FLOAT_MANTISSA) {
+				mantissa = mantissa * 10 + (b - '0');
+				hasDigits = true;
+				if (hasSeparator) {
+					scale++;
+				}
+			} else if ((b == '.' || b == ',') && !hasSeparator) {
+				hasSeparator = true;
+			} else {		// then the fast path does not apply
+				return parseWithFloat(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+			}
+		}
+		if (hasDigits && mantissa < MAX_EXACT_FLOAT_MANTISSA && scale < FLOAT_POWERS_OF_TEN.length) {
+			float value = mantissa / FLOAT_POWERS_OF_TEN[scale];
+			return negative ? -value : value;
+		} else {
+			return parseWithFloat(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+		}
+	}
+
+	/**
+	 * Parse an integer from a CharSequence instance. The decimals are truncated. 
+	 * @param seq a CharSequence instance
+	 * @return an integer
+	 * @throws NumberFormatException if the characters do not represent a number
+	 */
+	public static int parseInt(CharSequence seq) {
+		return parseInt(seq, 0, seq.length());
+	}
+	
+	/**
+	 * Parse an integer from a range of characters. The decimals are truncated. The digits are 
+	 * accumulated directly into an integer unless the number is too long. 
+	 * @param seq a CharSequence instance
+	 * @param start the index of the first character
+	 * @param end the index after the last character
+	 * @return an integer
+	 * @throws NumberFormatException if the characters do not represent a number
+	 */
+	public static int parseInt(CharSequence seq, int start, int end) {
+		int i = start;
+		while (i < end && seq.charAt(i) <= ' ') {
+			i++;
+		}
+		int last = end;
+		while (last > i && seq.charAt(last - 1) <= ' ') {
+			last--;
+		}
+		boolean negative = false;
+		if (i < last && (seq.charAt(i) == '-' || seq.charAt(i) == '+')) {
+			negative = seq.charAt(i) == '-';
+			i++;
+		}
+		long value = 0;
+		int numberOfDigits = 0;
+		boolean hasSeparator = false;
+		for (; i < last; i++) {
+			char c = seq.charAt(i);
+			if (c >= '0' && c <= '9' && numberOfDigits < MAX_INTEGER_DIGITS) {
+				if (!hasSeparator) {
+					value = value * 10 + (c - '0');
+				}
+				numberOfDigits++;
+			} else if ((c == '.' || c == ',') && !hasSeparator) {
+				hasSeparator = true;
+			} else {		// then the fast path does not apply
+				return (int) parseDouble(seq, start, end);
+			}
+		}
+		if (numberOfDigits > 0) {
+			return truncate(negative ? -value : value);
+		} else {
+			return (int) parseDouble(seq, start, end);
+		}
+	}
+	
+	/**
+	 * Parse an integer from a range of ASCII bytes. The decimals are truncated.
+	 * @param bytes an array of bytes
+	 * @param start the index of the first byte
+	 * @param end the index after the last byte
+	 * @return an integer
+	 * @throws NumberFormatException if the bytes do not represent a number
+	 */
+	public static int parseInt(byte[] bytes, int start, int end) {
+		int i = start;
+		while (i < end && isWhitespace(bytes[i])) {
+			i++;
+		}
+		int last = end;
+		while (last > i && isWhitespace(bytes[last - 1])) {
+			last--;
+		}
+		boolean negative = false;
+		if (i < last && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i] == '-';
+			i++;
+		}
+		long value = 0;
+		int numberOfDigits = 0;
+		boolean hasSeparator = false;
+		for (; i < last; i++) {
+			byte b = bytes[i];
+			if (b >= '0' && b <= '9' && numberOfDigits < MAX_INTEGER_DIGITS) {
+				if (!hasSeparator) {
+					value = value * 10 + (b - '0');
+				}
+				numberOfDigits++;
+			} else if ((b == '.' || b == ',') && !hasSeparator) {
+				hasSeparator = true;
+			} else {		// then the fast path does not apply
+				return (int) parseDouble(bytes, start, end);
+			}
+		}
+		if (numberOfDigits > 0) {
+			return truncate(negative ? -value : value);
+		} else {
+			return (int) parseDouble(bytes, start, end);
+		}
+	}
+
+	/*
+	 * Same as the cast of a double into an integer: the values beyond the range of integers are saturated.
+	 */
+	private static int truncate(long value) {
+		if (value > Integer.MAX_VALUE) {
+			return Integer.MAX_VALUE;
+		} else if (value < Integer.MIN_VALUE) {
+			return Integer.MIN_VALUE;
+		} else {
+			return (int) value;
+		}
+	}
+	
+	private static double parseWithDouble(String str) {
+		return Double.parseDouble(str.replace(",", "."));
+	}
+
+	private static float parseWithFloat(String str) {
+		return Float.parseFloat(str.replace(",", "."));
+	}
+	
+}
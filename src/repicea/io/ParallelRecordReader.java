@@ -0,0 +1,82 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+/**
+ * The ParallelRecordReader interface ensures the reader can parse its records on several threads. <p>
+ *
+ * The records are split into chunks that are parsed on the workers of a fork-join pool. Each record is
+ * converted on the worker through a RecordConverter instance. The converted records are then passed to
+ * a RecordConsumer instance, either in the order of the file or as soon as they are converted.
+ * @author Mathieu Fortin - October 2026
+ */
+public interface ParallelRecordReader {
+
+	/**
+	 * Convert a record on a worker thread.
+	 * @param <T> the type of the converted record
+	 */
+	@FunctionalInterface
+	public interface RecordConverter<T> {
+
+		/**
+		 * Convert a record. This method is called on the worker threads and must be thread safe.
+		 * @param record the record as returned by the nextRecord method
+		 * @param recordIndex the index of the record (0 is the first record)
+		 * @return the converted record
+		 * @throws Exception if the record cannot be converted
+		 */
+		public T convert(Object[] record, int recordIndex) throws Exception;
+	}
+
+	/**
+	 * Consume the converted records.
+	 * @param <T> the type of the converted record
+	 */
+	@FunctionalInterface
+	public interface RecordConsumer<T> {
+
+		/**
+		 * Consume a converted record.
+		 * @param convertedRecord the converted record
+		 * @param recordIndex the index of the record (0 is the first record)
+		 * @throws Exception if an error has occurred
+		 */
+		public void consume(T convertedRecord, int recordIndex) throws Exception;
+	}
+
+	/**
+	 * Read all the records in parallel. <p>
+	 *
+	 * If the ordered argument is true, the consumer is called on the current thread in the order
+	 * of the file. An exception thrown by the converter is then rethrown once the previous records
+	 * have been consumed. Otherwise, the consumer is called on the worker threads as soon as a record
+	 * is converted and it must be thread safe. The position of the reader is not affected by this
+	 * method.
+	 * @param <T> the type of the converted record
+	 * @param converter a RecordConverter instance
+	 * @param consumer a RecordConsumer instance
+	 * @param ordered true to consume the records in the order of the file
+	 * @throws Exception the first exception thrown by the converter or the consumer, or an IOException
+	 * if an I/O error has occurred
+	 */
+	public <T> void readRecordsInParallel(RecordConverter<T> converter, RecordConsumer<T> consumer, boolean ordered) throws Exception;
+
+}
@@ -110,6 +110,11 @@ public class REpiceaFileFilter extends FileFilter implements ExtendedFileFilter
 	public final static REpiceaFileFilter XLSX = new REpiceaFileFilter(".xlsx", FileType.XLSX);
 	
 	
+	/**
+	 * The extension of gzip-compressed files.
+	 */
+	public final static String GZIP_EXTENSION = ".gz";
+	
 	private String extension;
 	private FileType fileType;
 	
@@ -140,18 +145,33 @@ public class REpiceaFileFilter extends FileFilter implements ExtendedFileFilter
 	
 	
 	/**
-	 * This static method returns the file type of a filename string
+	 * This static method returns the file type of a filename string. The .gz extension of 
+	 * gzip-compressed files is ignored (e.g. the file type of "data.csv.gz" is CSV).
 	 * @param filename a String that contains the filename
 	 * @return a FileType enum instance
+	 * @see #isGzipCompressed(String)
 	 */
 	public static FileType getFileType(String filename) {
+		String lowerCaseFilename = filename.toLowerCase();
+		if (isGzipCompressed(filename)) {
+			lowerCaseFilename = lowerCaseFilename.substring(0, lowerCaseFilename.length() - GZIP_EXTENSION.length());
+		}
 		for (FileType fileType : FileType.values()) {
-			if (filename.toLowerCase().endsWith(fileType.name().toLowerCase())) {
+			if (lowerCaseFilename.endsWith(fileType.name().toLowerCase())) {
 				return fileType;
 			}
 		}
 		return FileType.UNKNOWN;
 	}
 
+	/**
+	 * This static method checks if a filename string has the .gz extension of gzip-compressed files.
+	 * @param filename a String that contains the filename
+	 * @return a boolean
+	 */
+	public static boolean isGzipCompressed(String filename) {
+		return filename.toLowerCase().endsWith(GZIP_EXTENSION);
+	}
+
 	
 }
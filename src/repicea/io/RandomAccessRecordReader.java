@@ -0,0 +1,59 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+import java.io.IOException;
+
+/**
+ * The RandomAccessRecordReader interface ensures the reader can fetch a record from its index
+ * without reading the previous records. <p>
+ *
+ * A reader is not thread safe. Several readers can however be opened on the same file through the
+ * {@link #openNewReader()} method so that different sets of records can be read concurrently.
+ * @author Mathieu Fortin - October 2026
+ */
+public interface RandomAccessRecordReader {
+
+	/**
+	 * Indicate whether the records can actually be fetched without reading the previous records. This
+	 * is typically not the case for compressed files and resources. The {@link #readRecord(int)} method 
+	 * still works but it reads the file sequentially.
+	 * @return a boolean
+	 */
+	public boolean isRandomAccessSupported();
+
+	/**
+	 * Read a particular record. The sequential reading then goes on from the next record.
+	 * @param recordIndex the index of the record (0 is the first record)
+	 * @return the record as returned by the nextRecord method or null if the index is beyond the 
+	 * last record
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public Object[] readRecord(int recordIndex) throws IOException;
+
+	/**
+	 * Open another reader on the same file. The new reader has its own channel and it has the 
+	 * same settings as this reader (e.g. the projection).
+	 * @return a FormatReader instance that also implements this interface
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public FormatReader<?> openNewReader() throws IOException;
+
+}
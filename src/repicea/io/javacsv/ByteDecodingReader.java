@@ -0,0 +1,166 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ByteDecodingReader class decodes the bytes of an InputStream instance into characters. <p>
+ * 
+ * It replaces the InputStreamReader class for UTF-8 and the single-byte charsets that are ASCII compatible.
+ * The ASCII bytes are converted directly into characters. The other bytes are decoded through a CharsetDecoder 
+ * instance into a reused CharBuffer instance. As in the InputStreamReader class, the malformed input is replaced.
+ * @author Mathieu Fortin - October 2026
+ */
+class ByteDecodingReader extends Reader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final InputStream in;
+	private final CharsetDecoder decoder;
+	private final boolean isLatin1;
+	private final byte[] bytes = new byte[BUFFER_SIZE];
+	private final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);		// the bytes between the position and the limit are not decoded yet
+	private final CharBuffer charBuffer = CharBuffer.allocate(BUFFER_SIZE);		// the characters between the position and the limit are not read yet
+	private boolean endOfStream;
+
+	/**
+	 * Constructor.
+	 * @param in the InputStream instance 
+	 * @param charset a charset for which the {@link #isCharsetSupported(Charset)} method returns true
+	 */
+	ByteDecodingReader(InputStream in, Charset charset) {
+		if (!isCharsetSupported(charset)) {
+			throw new IllegalArgumentException("The charset " + charset.name() + " is not supported by the ByteDecodingReader class!");
+		}
+		this.in = in;
+		decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		isLatin1 = charset.equals(StandardCharsets.ISO_8859_1);
+		byteBuffer.limit(0);
+		charBuffer.limit(0);
+	}
+
+	/**
+	 * Check if the bytes of the charset that are not ASCII are never part of a sequence that 
+	 * contains ASCII bytes. This is the case of UTF-8 and the single-byte charsets that are ASCII compatible.
+	 * @param charset a Charset instance
+	 * @return a boolean
+	 */
+	static boolean isCharsetSupported(Charset charset) {
+		if (charset.equals(StandardCharsets.UTF_8)) {
+			return true;
+		} else {
+			return charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1f && MappedCSVReader.isCharsetSupported(charset);
+		}
+	}
+	
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		int n = 0;
+		while (n < len) {
+			if (charBuffer.hasRemaining()) {
+				int numberOfChars = Math.min(len - n, charBuffer.remaining());
+				charBuffer.get(cbuf, off + n, numberOfChars);
+				n += numberOfChars;
+				continue;
+			}
+			if (!byteBuffer.hasRemaining()) {
+				if (n > 0 || !fill()) {		// no blocking if some characters have been read already
+					break;
+				}
+			}
+			int p = byteBuffer.position();
+			int limit = byteBuffer.limit();
+			while (n < len && p < limit) {		// ASCII fast path
+				byte b = bytes[p];
+				if (b < 0 && !isLatin1) {
+					break;
+				}
+				cbuf[off + n++] = (char) (b & 0xFF);
+				p++;
+			}
+			byteBuffer.position(p);
+			if (n < len && p < limit) {
+				decodeNonASCIIBytes();
+			}
+		}
+		return n == 0 ? -1 : n;
+	}
+
+	/*
+	 * Decode the bytes up to the next ASCII byte. Since ASCII bytes cannot be part of a sequence, the sequences
+	 * are complete unless they reach the end of the buffer.
+	 */
+	private void decodeNonASCIIBytes() throws IOException {
+		int limit = byteBuffer.limit();
+		int end = byteBuffer.position();
+		while (end < limit && bytes[end] < 0) {
+			end++;
+		}
+		boolean isComplete = end < limit || endOfStream;
+		byteBuffer.limit(end);
+		charBuffer.clear();
+		decoder.decode(byteBuffer, charBuffer, isComplete);
+		if (isComplete) {
+			decoder.flush(charBuffer);
+			decoder.reset();
+		}
+		byteBuffer.limit(limit);
+		charBuffer.flip();
+		if (!charBuffer.hasRemaining() && !isComplete) {		// then the last sequence requires more bytes
+			fill();
+		}
+	}
+	
+	/*
+	 * Read more bytes after those that are not decoded yet. Return false if the end of the stream has been reached.
+	 */
+	private boolean fill() throws IOException {
+		if (endOfStream) {
+			return false;
+		}
+		byteBuffer.compact();
+		int read = in.read(bytes, byteBuffer.position(), byteBuffer.remaining());
+		if (read == -1) {
+			endOfStream = true;
+		} else {
+			byteBuffer.position(byteBuffer.position() + read);
+		}
+		byteBuffer.flip();
+		return read != -1;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
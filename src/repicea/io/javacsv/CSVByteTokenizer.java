@@ -0,0 +1,302 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The CSVByteTokenizer class splits the records of a CSV file directly in a byte buffer. <p>
+ *
+ * The tokenizer only records the boundaries of the fields. The fields are decoded on demand. It
+ * assumes the charset of the file is ASCII compatible, i.e. the delimiter, the quote and the line
+ * terminators are single bytes that cannot be part of a multi-byte character. <p>
+ *
+ * A field that starts with a quote ends with a quote followed by the delimiter or a line terminator.
+ * Within such a field, the delimiter and line terminators are part of the value and two consecutive
+ * quotes stand for a single quote. Any other quote is kept as is, which is consistent with the
+ * CSVTokenizer class.
+ * @author Mathieu Fortin - October 2026
+ */
+class CSVByteTokenizer {
+
+	/**
+	 * Returned by the tokenize method when the record is not complete within the limit.
+	 */
+	static final int INCOMPLETE = -1;
+
+	private static final byte QUOTE = '"';
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+
+	private final byte[] delimiter;
+
+	private int[] fieldStarts;
+	private int[] fieldEnds;
+	private boolean[] escapedQuotes;
+	private int numberOfFields;
+
+	private final Charset charset;
+	private final boolean isLatin1;
+	private char[] charBuffer = new char[256];
+	private byte[] byteBuffer = new byte[256];
+
+	/**
+	 * Constructor.
+	 * @param delimiter the field delimiter
+	 * @param charset the charset of the bytes, which must be ASCII compatible
+	 * @param expectedNumberOfFields the expected number of fields for sizing the internal arrays
+	 */
+	CSVByteTokenizer(String delimiter, Charset charset, int expectedNumberOfFields) {
+		if (delimiter == null || delimiter.isEmpty()) {
+			throw new IllegalArgumentException("The delimiter must have at least one character!");
+		}
+		this.delimiter = delimiter.getBytes(charset);
+		this.charset = charset;
+		isLatin1 = charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII);
+		int capacity = Math.max(expectedNumberOfFields, 8);
+		fieldStarts = new int[capacity];
+		fieldEnds = new int[capacity];
+		escapedQuotes = new boolean[capacity];
+	}
+
+	/**
+	 * Tokenize the record that starts at the given position. <p>
+	 *
+	 * An empty line is a record without any field.
+	 * @param buffer the ByteBuffer instance, which is accessed through absolute positions only
+	 * @param position the position of the first byte of the record
+	 * @param limit the position after the last byte available
+	 * @param endOfData true if there is no byte after the limit
+	 * @param recordFields true to record the boundaries of the fields or false to skip the record
+	 * @return the position of the next record or INCOMPLETE if more bytes are needed
+	 * @throws IOException if a quoted field is not closed at the end of the data
+	 */
+	int tokenize(ByteBuffer buffer, int position, int limit, boolean endOfData, boolean recordFields) throws IOException {
+		numberOfFields = 0;
+		int p = position;
+		if (p < limit) {
+			int endOfLine = matchEndOfLine(buffer, p, limit, endOfData);
+			if (endOfLine == INCOMPLETE) {
+				return INCOMPLETE;
+			} else if (endOfLine > 0) {		// empty line
+				return p + endOfLine;
+			}
+		}
+		while (true) {
+			int start;
+			int end;
+			boolean escaped = false;
+			if (p < limit && buffer.get(p) == QUOTE) {		// quoted field
+				start = ++p;
+				while (true) {
+					if (p >= limit) {
+						if (endOfData) {
+							throw new IOException("A quoted field has been opened but there is no closing!");
+						} else {
+							return INCOMPLETE;
+						}
+					}
+					if (buffer.get(p) == QUOTE) {
+						if (p + 1 >= limit && !endOfData) {
+							return INCOMPLETE;
+						} else if (p + 1 < limit && buffer.get(p + 1) == QUOTE) {		// escaped quote
+							escaped = true;
+							p += 2;
+							continue;
+						}
+						int status = isEndOfField(buffer, p + 1, limit, endOfData);
+						if (status == INCOMPLETE) {
+							return INCOMPLETE;
+						} else if (status == 1) {
+							end = p++;
+							break;
+						}
+					}
+					p++;
+				}
+			} else {
+				start = p;
+				while (true) {
+					int status = isEndOfField(buffer, p, limit, endOfData);
+					if (status == INCOMPLETE) {
+						return INCOMPLETE;
+					} else if (status == 1) {
+						end = p;
+						break;
+					}
+					p++;
+				}
+			}
+			if (recordFields) {
+				addField(start, end, escaped);
+			}
+			if (p >= limit) {		// end of data since the status would have been INCOMPLETE otherwise
+				return p;
+			}
+			int endOfLine = matchEndOfLine(buffer, p, limit, endOfData);
+			if (endOfLine == INCOMPLETE) {
+				return INCOMPLETE;
+			} else if (endOfLine > 0) {
+				return p + endOfLine;
+			} else {		// then it is a delimiter
+				p += delimiter.length;
+			}
+		}
+	}
+
+	/*
+	 * Return 1 if the position is at a delimiter, a line terminator or the end of the data, 0 if it is not,
+	 * or INCOMPLETE if this cannot be determined within the limit.
+	 */
+	private int isEndOfField(ByteBuffer buffer, int p, int limit, boolean endOfData) {
+		if (p >= limit) {
+			return endOfData ? 1 : INCOMPLETE;
+		}
+		byte b = buffer.get(p);
+		if (b == LINE_FEED || b == CARRIAGE_RETURN) {
+			return 1;
+		}
+		if (b == delimiter[0]) {
+			for (int i = 1; i < delimiter.length; i++) {
+				if (p + i >= limit) {
+					return endOfData ? 0 : INCOMPLETE;
+				} else if (buffer.get(p + i) != delimiter[i]) {
+					return 0;
+				}
+			}
+			return 1;
+		}
+		return 0;
+	}
+
+	/*
+	 * Return the length of the line terminator at this position, 0 if there is no line terminator or
+	 * INCOMPLETE if it cannot be determined within the limit.
+	 */
+	private static int matchEndOfLine(ByteBuffer buffer, int p, int limit, boolean endOfData) {
+		byte b = buffer.get(p);
+		if (b == LINE_FEED) {
+			return 1;
+		} else if (b == CARRIAGE_RETURN) {
+			if (p + 1 < limit) {
+				return buffer.get(p + 1) == LINE_FEED ? 2 : 1;
+			} else {
+				return endOfData ? 1 : INCOMPLETE;
+			}
+		} else {
+			return 0;
+		}
+	}
+
+	private void addField(int start, int end, boolean escaped) {
+		if (numberOfFields == fieldStarts.length) {
+			int newCapacity = fieldStarts.length * 2;
+			int[] newStarts = new int[newCapacity];
+			int[] newEnds = new int[newCapacity];
+			boolean[] newEscapedQuotes = new boolean[newCapacity];
+			System.arraycopy(fieldStarts, 0, newStarts, 0, numberOfFields);
+			System.arraycopy(fieldEnds, 0, newEnds, 0, numberOfFields);
+			System.arraycopy(escapedQuotes, 0, newEscapedQuotes, 0, numberOfFields);
+			fieldStarts = newStarts;
+			fieldEnds = newEnds;
+			escapedQuotes = newEscapedQuotes;
+		}
+		fieldStarts[numberOfFields] = start;
+		fieldEnds[numberOfFields] = end;
+		escapedQuotes[numberOfFields] = escaped;
+		numberOfFields++;
+	}
+
+	/**
+	 * Provide the number of fields in the last tokenized record.
+	 * @return an integer
+	 */
+	int getNumberOfFields() {return numberOfFields;}
+
+	/**
+	 * Provide the position of the first byte of a field.
+	 * @param i the index of the field
+	 * @return an integer
+	 */
+	int getFieldStart(int i) {return fieldStarts[i];}
+
+	/**
+	 * Provide the position after the last byte of a field.
+	 * @param i the index of the field
+	 * @return an integer
+	 */
+	int getFieldEnd(int i) {return fieldEnds[i];}
+
+	/**
+	 * Indicate whether the field contains escaped quotes, i.e. two consecutive quotes.
+	 * @param i the index of the field
+	 * @return a boolean
+	 */
+	boolean hasEscapedQuotes(int i) {return escapedQuotes[i];}
+
+	/**
+	 * Decode a field of the last tokenized record.
+	 * @param buffer the ByteBuffer instance that was tokenized
+	 * @param i the index of the field
+	 * @return a String
+	 */
+	String getField(ByteBuffer buffer, int i) {
+		String field = decode(buffer, fieldStarts[i], fieldEnds[i]);
+		return escapedQuotes[i] ? field.replace("\"\"", "\"") : field;
+	}
+
+	/**
+	 * Decode a sequence of bytes. <p>
+	 *
+	 * ASCII bytes are converted directly. The charset is used only if the sequence contains other bytes.
+	 * @param buffer a ByteBuffer instance
+	 * @param start the position of the first byte
+	 * @param end the position after the last byte
+	 * @return a String
+	 */
+	String decode(ByteBuffer buffer, int start, int end) {
+		int length = end - start;
+		if (length > charBuffer.length) {
+			charBuffer = new char[Math.max(length, charBuffer.length * 2)];
+		}
+		for (int i = 0; i < length; i++) {
+			byte b = buffer.get(start + i);
+			if (b < 0 && !isLatin1) {
+				return decodeWithCharset(buffer, start, length);
+			}
+			charBuffer[i] = (char) (b & 0xFF);
+		}
+		return new String(charBuffer, 0, length);
+	}
+
+	private String decodeWithCharset(ByteBuffer buffer, int start, int length) {
+		if (length > byteBuffer.length) {
+			byteBuffer = new byte[Math.max(length, byteBuffer.length * 2)];
+		}
+		for (int i = 0; i < length; i++) {
+			byteBuffer[i] = buffer.get(start + i);
+		}
+		return new String(byteBuffer, 0, length, charset);
+	}
+
+}
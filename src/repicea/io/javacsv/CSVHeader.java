@@ -20,6 +20,7 @@ package repicea.io.javacsv;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +33,8 @@ import repicea.io.FormatHeader;
  */
 public class CSVHeader extends FormatHeader<CSVField> {
 	
+	protected static final int UNKNOWN_NUMBER_OF_RECORDS = -1;
+	
 	private String token = ";";			// default value
 	
 	protected CSVHeader(String token) {
@@ -48,6 +51,15 @@ public class CSVHeader extends FormatHeader<CSVField> {
 		this(null);
 	}
 
+	/**
+	 * Read the field names from the first line of the file. <p>
+	 * 
+	 * Only the first line is consumed so that the reader is left at the beginning of the 
+	 * first record. The number of records is set as unknown and it can be computed later 
+	 * on through the {@link #countRecords(Reader)} method.
+	 * @param bufferedReader a BufferedReader instance located at the beginning of the file
+	 * @throws IOException if the file has no header or if a field name is not valid
+	 */
 	protected void read(BufferedReader bufferedReader) throws IOException {
 		String firstLine = bufferedReader.readLine();
 
@@ -84,17 +96,38 @@ public class CSVHeader extends FormatHeader<CSVField> {
 			}
 
 			setFieldList(fields);
-
-			int numberOfLines = 0;
-			while (bufferedReader.readLine() != null) {
-				numberOfLines++;
-			}
-			setNumberOfRecords(numberOfLines);
-			bufferedReader.close();
+			setNumberOfRecords(UNKNOWN_NUMBER_OF_RECORDS);
 		} 
-		
 	}
 
+	/**
+	 * Count the remaining records in the reader and set the number of records accordingly. <p>
+	 * 
+	 * The records are skipped through a CSVTokenizer instance so that the count is consistent with the 
+	 * records read by the CSVReader class. No String instance is created. The reader is closed afterwards.
+	 * @param reader a Reader instance located at the beginning of the first record
+	 * @throws IOException if an I/O error has occurred
+	 */
+	protected void countRecords(Reader reader) throws IOException {
+		CSVTokenizer tokenizer = new CSVTokenizer(reader, token);
+		try {
+			int numberOfRecords = 0;
+			while (tokenizer.skipRecord()) {
+				numberOfRecords++;
+			}
+			setNumberOfRecords(numberOfRecords);
+		} finally {
+			tokenizer.close();
+		}
+	}
+	
+	/**
+	 * Indicate whether the number of records has been computed.
+	 * @return a boolean
+	 */
+	protected boolean isNumberOfRecordsKnown() {
+		return getNumberOfRecords() != UNKNOWN_NUMBER_OF_RECORDS;
+	}
 	
 	protected String getToken() {return token;}
 	
@@ -0,0 +1,355 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import repicea.io.ParallelRecordReader.RecordConsumer;
+import repicea.io.ParallelRecordReader.RecordConverter;
+
+/**
+ * The CSVParallelScanner class parses the records of a CSV file on the workers of the common 
+ * fork-join pool. <p>
+ * 
+ * The file is split into byte ranges. On a worker, the start of each range is moved forward to the next 
+ * record boundary through a short scan that keeps track of the quotes. The records that start within the 
+ * range are then tokenized and decoded. Since a range may start within a quoted field that contains a
+ * line terminator, the ranges are checked in the order of the file: the start of a range must be the end 
+ * of the previous one. Otherwise, the range is parsed again from the right position. <p>
+ * 
+ * Once a range has been checked, the index of its first record is known and its records are converted 
+ * on a worker. The number of ranges in progress is bounded so that the memory usage does not depend on 
+ * the size of the file. No index of the records is needed.
+ * @author Mathieu Fortin - October 2026
+ */
+class CSVParallelScanner<T> {
+
+	private static final byte QUOTE = '"';
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final int SLACK = 64 * 1024;		// for the last record of a range, which can end after the range
+	private static final int RESYNC_BUFFER_SIZE = 8 * 1024;
+
+	private final String filename;
+	private final Charset charset;
+	private final String token;
+	private final int numberOfFields;
+	private final boolean[] projection;
+	private final long dataStart;
+	private final RecordConverter<T> converter;
+	private final RecordConsumer<T> consumer;
+	private final boolean ordered;
+	private final int bytesPerChunk;
+	
+	private volatile boolean cancelled;
+
+	private FileChannel channel;
+	private long fileSize;
+	private int maxChunksInProgress;
+	private final Deque<ForkJoinTask<ParsedChunk>> chunksBeingParsed = new ArrayDeque<ForkJoinTask<ParsedChunk>>();
+	private final Deque<ForkJoinTask<ConvertedChunk>> chunksBeingConverted = new ArrayDeque<ForkJoinTask<ConvertedChunk>>();
+	private long expectedStart;
+	private int numberOfRecords;
+	
+	/*
+	 * The decoded records of a byte range. 
+	 */
+	private static class ParsedChunk {
+		final long start;
+		final long nominalEnd;
+		final List<Object[]> records = new ArrayList<Object[]>();
+		long end;
+		boolean hasTooManyFields;
+		
+		ParsedChunk(long start, long nominalEnd) {
+			this.start = start;
+			this.nominalEnd = nominalEnd;
+		}
+	}
+	
+	/*
+	 * The result of the conversion of a chunk. In ordered mode, the converted records are kept until they are consumed. 
+	 */
+	private class ConvertedChunk {
+		final int firstRecord;
+		final Object[] convertedRecords;
+		int numberOfConvertedRecords;
+		Exception failure;
+		
+		ConvertedChunk(int firstRecord, int numberOfRecords) {
+			this.firstRecord = firstRecord;
+			convertedRecords = ordered ? new Object[numberOfRecords] : null;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 * @param filename the CSV file
+	 * @param charset the charset of the file, which must be ASCII compatible
+	 * @param token the field delimiter
+	 * @param numberOfFields the number of fields in the header
+	 * @param projection the fields to be decoded or null to decode them all
+	 * @param dataStart the offset of the first record, i.e. after the header
+	 * @param converter the converter
+	 * @param consumer the consumer
+	 * @param ordered true to consume the records in the order of the file
+	 * @param bytesPerChunk the size of the byte ranges
+	 */
+	CSVParallelScanner(String filename, Charset charset, String token, int numberOfFields, boolean[] projection, long dataStart,
+			RecordConverter<T> converter, RecordConsumer<T> consumer, boolean ordered, int bytesPerChunk) {
+		this.filename = filename;
+		this.charset = charset;
+		this.token = token;
+		this.numberOfFields = numberOfFields;
+		this.projection = projection;
+		this.dataStart = dataStart;
+		this.converter = converter;
+		this.consumer = consumer;
+		this.ordered = ordered;
+		this.bytesPerChunk = bytesPerChunk;
+	}
+
+	/**
+	 * Parse all the records.
+	 * @return the number of records
+	 * @throws Exception the first exception thrown by the converter or the consumer
+	 */
+	int scan() throws Exception {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		maxChunksInProgress = 2 * pool.getParallelism();
+		expectedStart = dataStart;
+		numberOfRecords = 0;
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			this.channel = channel;
+			fileSize = channel.size();
+			for (long nominalStart = dataStart; nominalStart < fileSize; nominalStart += bytesPerChunk) {
+				if (chunksBeingParsed.size() >= maxChunksInProgress) {
+					completeParsing(chunksBeingParsed.removeFirst());
+				}
+				final long start = nominalStart;
+				final long nominalEnd = Math.min(fileSize, nominalStart + bytesPerChunk);
+				chunksBeingParsed.addLast(pool.submit(() -> parseFromNextBoundary(start, nominalEnd)));
+			}
+			while (!chunksBeingParsed.isEmpty()) {
+				completeParsing(chunksBeingParsed.removeFirst());
+			}
+			while (!chunksBeingConverted.isEmpty()) {
+				completeConversion(chunksBeingConverted.removeFirst());
+			}
+			return numberOfRecords;
+		} catch (Exception e) {
+			cancelled = true;
+			for (ForkJoinTask<?> task : chunksBeingParsed) {
+				task.cancel(false);
+			}
+			for (ForkJoinTask<?> task : chunksBeingConverted) {
+				task.cancel(false);
+			}
+			throw e;
+		}
+	}
+
+	private static <C> C getResult(ForkJoinTask<C> task) throws Exception {
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else {
+				throw e;
+			}
+		}
+	}
+	
+	/*
+	 * Check that the chunk starts where the previous one ends and then submit its conversion.
+	 */
+	private void completeParsing(ForkJoinTask<ParsedChunk> task) throws Exception {
+		ParsedChunk chunk = getResult(task);
+		if (chunk.start != expectedStart) {		// the range started within a quoted field
+			chunk = parse(expectedStart, chunk.nominalEnd);
+		}
+		expectedStart = chunk.end;
+		if (chunksBeingConverted.size() >= maxChunksInProgress) {
+			completeConversion(chunksBeingConverted.removeFirst());
+		}
+		final ParsedChunk parsedChunk = chunk;
+		final int firstRecord = numberOfRecords;
+		chunksBeingConverted.addLast(ForkJoinPool.commonPool().submit(() -> convert(parsedChunk, firstRecord)));
+		numberOfRecords += chunk.records.size();
+		if (chunk.hasTooManyFields) {
+			while (!chunksBeingConverted.isEmpty()) {
+				completeConversion(chunksBeingConverted.removeFirst());
+			}
+			throw new IOException("The number of fields in this line is larger than the number of fields in the header: line " + (numberOfRecords + 1) + ".");
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void completeConversion(ForkJoinTask<ConvertedChunk> task) throws Exception {
+		ConvertedChunk chunk = getResult(task);
+		if (ordered) {
+			for (int i = 0; i < chunk.numberOfConvertedRecords; i++) {
+				consumer.consume((T) chunk.convertedRecords[i], chunk.firstRecord + i);
+			}
+		}
+		if (chunk.failure != null) {
+			throw chunk.failure;
+		}
+	}
+
+	private byte readByte(long position, ByteBuffer buffer) throws IOException {
+		buffer.clear().limit(1);
+		channel.read(buffer, position);
+		return buffer.get(0);
+	}
+	
+	/*
+	 * Return the first record boundary at or after this position, assuming the position is not within 
+	 * a quoted field. This assumption is checked afterwards.
+	 */
+	private long findRecordBoundary(long position) throws IOException {
+		if (position <= dataStart) {
+			return dataStart;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(RESYNC_BUFFER_SIZE);
+		byte previous = readByte(position - 1, buffer);
+		if (previous == LINE_FEED) {
+			return position;
+		} else if (previous == CARRIAGE_RETURN) {
+			return position < fileSize && readByte(position, buffer) == LINE_FEED ? position + 1 : position;
+		}
+		boolean inQuotedField = false;
+		long bufferStart = position;
+		while (bufferStart < fileSize) {
+			buffer.clear();
+			int n = channel.read(buffer, bufferStart);
+			if (n <= 0) {
+				break;
+			}
+			for (int i = 0; i < n; i++) {
+				byte b = buffer.get(i);
+				if (b == QUOTE) {
+					inQuotedField = !inQuotedField;
+				} else if (!inQuotedField && (b == LINE_FEED || b == CARRIAGE_RETURN)) {
+					long boundary = bufferStart + i + 1;
+					if (b == CARRIAGE_RETURN && boundary < fileSize && readByte(boundary, buffer) == LINE_FEED) {
+						boundary++;
+					}
+					return boundary;
+				}
+			}
+			bufferStart += n;
+		}
+		return fileSize;
+	}
+
+	/*
+	 * A range that starts within a quoted field may fail to parse. It is then parsed again once the
+	 * end of the previous range is known.
+	 */
+	private ParsedChunk parseFromNextBoundary(long nominalStart, long nominalEnd) throws IOException {
+		try {
+			return parse(findRecordBoundary(nominalStart), nominalEnd);
+		} catch (IOException e) {
+			return new ParsedChunk(-1, nominalEnd);
+		}
+	}
+
+	/*
+	 * Decode the records that start between the start and the nominal end. The last record can end after
+	 * the nominal end.
+	 */
+	private ParsedChunk parse(long start, long nominalEnd) throws IOException {
+		ParsedChunk chunk = new ParsedChunk(start, nominalEnd);
+		CSVByteTokenizer tokenizer = new CSVByteTokenizer(token, charset, numberOfFields);
+		long windowStart = start;
+		int windowLength = (int) Math.min(fileSize - start, Math.max(0, nominalEnd - start) + SLACK);
+		ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+		int position = 0;
+		while (windowStart + position < nominalEnd && windowStart + position < fileSize) {
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			boolean endOfData = windowStart + windowLength == fileSize;
+			int next = tokenizer.tokenize(buffer, position, windowLength, endOfData, true);
+			if (next == CSVByteTokenizer.INCOMPLETE) {		// the record is larger than the rest of the window
+				windowStart += position;
+				windowLength = (int) Math.min(fileSize - windowStart, Math.min(Integer.MAX_VALUE, 2L * windowLength));
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+				position = 0;
+				continue;
+			}
+			int n = tokenizer.getNumberOfFields();
+			if (n > numberOfFields) {
+				chunk.hasTooManyFields = true;
+				break;
+			}
+			Object[] record = new Object[n];
+			for (int i = 0; i < n; i++) {
+				if (projection == null || (i < projection.length && projection[i])) {
+					record[i] = tokenizer.getField(buffer, i);
+				}
+			}
+			chunk.records.add(record);
+			position = next;
+		}
+		chunk.end = windowStart + position;
+		return chunk;
+	}
+
+	private ConvertedChunk convert(ParsedChunk parsedChunk, int firstRecord) {
+		ConvertedChunk chunk = new ConvertedChunk(firstRecord, parsedChunk.records.size());
+		for (int i = 0; i < parsedChunk.records.size(); i++) {
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			int recordIndex = firstRecord + i;
+			try {
+				T convertedRecord = converter.convert(parsedChunk.records.get(i), recordIndex);
+				if (ordered) {
+					chunk.convertedRecords[chunk.numberOfConvertedRecords] = convertedRecord;
+				} else {
+					consumer.consume(convertedRecord, recordIndex);
+				}
+				chunk.numberOfConvertedRecords++;
+			} catch (Exception e) {
+				chunk.failure = e;
+				break;
+			}
+		}
+		return chunk;
+	}
+
+}
@@ -19,23 +19,37 @@
 package repicea.io.javacsv;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
-import java.util.List;
 
 import repicea.io.FormatReader;
-import repicea.util.ObjectUtility;
+import repicea.io.ParallelRecordReader;
 
-public class CSVReader extends FormatReader<CSVHeader> {
+public class CSVReader extends FormatReader<CSVHeader> implements ParallelRecordReader {
 
-	private BufferedReader bufferedReader;
+	private static final int ESTIMATE_SAMPLE_SIZE = 64 * 1024;
+	private static final int MINIMUM_SKIP_FOR_SEEK = 64;
+	private static final int BYTES_PER_CHUNK = 1024 * 1024;
+	
+	private static boolean recordIndexEnabled = false;
+	
+	private CSVTokenizer tokenizer;
 	private final Charset currentCharset;
+	private FileInputStream fileInputStream;
+	private CSVRecordIndex recordIndex;
+	private boolean isOnRecord;
 
 	/**
-	 * Constructor with default encoding
+	 * Constructor with automatic detection of the encoding
 	 * @param filename the file to read
 	 * @throws IOException if an I/O error has occurred
+	 * @see CharsetDetector
 	 */
 	public CSVReader(String filename) throws IOException {
 		this(filename, null);
@@ -44,7 +58,7 @@ public class CSVReader extends FormatReader<CSVHeader> {
 	/**
 	 * Constructor with specific encoding
 	 * @param filename the file to read
-	 * @param charset the encoding
+	 * @param charset the encoding or null to detect it from the first bytes of the file
 	 * @throws IOException if an I/O error has occurred
 	 */
 	public CSVReader(String filename, Charset charset) throws IOException {
@@ -52,59 +66,341 @@ public class CSVReader extends FormatReader<CSVHeader> {
 		if (charset != null) {
 			currentCharset = charset;
 		} else {
-			currentCharset = Charset.defaultCharset();
+			InputStream in = openStream();
+			try {
+				currentCharset = CharsetDetector.detect(in);
+			} finally {
+				in.close();
+			}
 		}
 		reset();
 	}
+	
+	/**
+	 * Provide the encoding of the file.
+	 * @return a Charset instance
+	 */
+	public Charset getCharset() {return currentCharset;}
 
 	@Override
 	public void reset() throws IOException {
-		if (bufferedReader != null) {
+		if (tokenizer != null) {
 			close();
 		}
-		bufferedReader = openReader();
+		InputStream in = openStream();
+		fileInputStream = in instanceof FileInputStream ? (FileInputStream) in : null;
+		BufferedReader bufferedReader = new BufferedReader(createReader(CharsetDetector.skipByteOrderMark(in, currentCharset)));
+		CSVHeader formerHeader = getHeader();
 		setFormatHeader(new CSVHeader());
-		getHeader().read(bufferedReader);
-		bufferedReader = openReader();		// reopen the stream because the header has read the whole file
-		bufferedReader.readLine();			// skip the first line which is the header
+		getHeader().read(bufferedReader);	// only the first line is read, the reader is then ready for the first record
+		if (formerHeader != null && formerHeader.isNumberOfRecordsKnown()) {	// the file is not expected to change between two resets
+			getHeader().setNumberOfRecords(formerHeader.getNumberOfRecords());
+		}
+		tokenizer = new CSVTokenizer(bufferedReader, getHeader().getToken());
+		isOnRecord = false;
 		linePointer = 0;
 		isClosed = false;
 	}
 	
+	/**
+	 * Enable or disable the record index. <p>
+	 * 
+	 * The record index stores the offset of each record in a sidecar file with the .rix extension 
+	 * next to the CSV file. It is built the first time the records are counted or a large number of 
+	 * records is skipped. The nextRecord(int) method then seeks the record directly instead of reading 
+	 * the skipped records. The index is only available for uncompressed files on disk with an ASCII compatible charset.
+	 * By default, this option is disabled.
+	 * @param enabled a boolean
+	 */
+	public static void setRecordIndexEnabled(boolean enabled) {recordIndexEnabled = enabled;}
+	
+	/**
+	 * Indicate whether the record index is enabled.
+	 * @return a boolean
+	 * @see #setRecordIndexEnabled(boolean)
+	 */
+	public static boolean isRecordIndexEnabled() {return recordIndexEnabled;}
 	
+	/*
+	 * Return null if the index is disabled or not available for this file.
+	 */
+	private CSVRecordIndex getRecordIndex() throws IOException {
+		if (!recordIndexEnabled || isSystemResource() || isCompressed() || !MappedCSVReader.isCharsetSupported(currentCharset)) {
+			return null;
+		}
+		if (recordIndex == null) {
+			recordIndex = CSVRecordIndex.getIndex(getFilename(), currentCharset);
+		}
+		return recordIndex;
+	}
+	
+	/**
+	 * Provide the number of records in the file. <p>
+	 * 
+	 * The records are counted on the first call only. If the reader has already reached the end 
+	 * of the file, the count is already known and no additional reading is required. If the 
+	 * record index is enabled, the count is provided by the index.
+	 */
+	@Override
+	public int getRecordCount() {
+		if (!getHeader().isNumberOfRecordsKnown()) {
+			try {
+				CSVRecordIndex index = getRecordIndex();
+				if (index != null) {
+					getHeader().setNumberOfRecords(index.getNumberOfRecords());
+				} else {
+					BufferedReader reader = openReader();
+					reader.readLine();			// skip the header
+					getHeader().countRecords(reader);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to count the records in file " + getFilename(), e);
+			}
+		}
+		return super.getRecordCount();
+	}
+
+	/**
+	 * Provide an estimate of the number of records. <p>
+	 * 
+	 * If the count is not known yet, the estimate is based on the size of the file and the mean 
+	 * length of the lines in the first kilobytes of the file. This avoids a complete reading of the file.
+	 * The exact count is returned if the file is small, compressed or if it is a resource.
+	 */
+	@Override
+	public int getEstimatedRecordCount() {
+		if (!getHeader().isNumberOfRecordsKnown() && !isSystemResource() && !isCompressed()) {
+			long fileLength = new File(getFilename()).length();
+			if (fileLength > ESTIMATE_SAMPLE_SIZE) {
+				InputStream in = null;
+				try {
+					in = openStream();
+					byte[] sample = new byte[ESTIMATE_SAMPLE_SIZE];
+					int n = 0;
+					int read;
+					while (n < sample.length && (read = in.read(sample, n, sample.length - n)) != -1) {
+						n += read;
+					}
+					int endOfHeader = -1;
+					int numberOfLines = 0;
+					for (int i = 0; i < n; i++) {
+						if (sample[i] == '\n') {
+							if (endOfHeader == -1) {
+								endOfHeader = i;
+							} else {
+								numberOfLines++;
+							}
+						}
+					}
+					if (numberOfLines > 0) {
+						double meanLineLength = (double) (n - endOfHeader) / numberOfLines;
+						return (int) Math.round((fileLength - endOfHeader - 1) / meanLineLength);
+					}
+				} catch (IOException e) {
+					// then we rely on the exact count
+				} finally {
+					if (in != null) {
+						try {
+							in.close();
+						} catch (IOException e) {}
+					}
+				}
+			}
+		}
+		return getRecordCount();
+	}
 	
 	@Override
 	public Object[] nextRecord(int skipThisNumberOfLines) throws IOException {
+		isOnRecord = false;
+		if (moveToRecord(skipThisNumberOfLines)) {
+			int numberOfFields = tokenizer.getNumberOfFields();
+			Object[] record = new Object[numberOfFields];
+			for (int i = 0; i < numberOfFields; i++) {
+				if (isProjected(i)) {
+					record[i] = tokenizer.getField(i);
+				}
+			}
+			return record;
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Skip some lines and then move the cursor to the next record. <p>
+	 * 
+	 * The fields are kept in the buffer of the tokenizer and they are parsed 
+	 * only when requested. 
+	 */
+	@Override
+	public boolean advance(int skipThisNumberOfLines) throws IOException {
+		isOnRecord = false;
+		isOnRecord = moveToRecord(skipThisNumberOfLines);
+		return isOnRecord;
+	}
+	
+	/*
+	 * Tokenize the record after the skipped lines. Return false if the end of file has been reached.
+	 */
+	private boolean moveToRecord(int skipThisNumberOfLines) throws IOException {
+		int numberOfLinesToSkip = skipThisNumberOfLines;
+		if (numberOfLinesToSkip >= MINIMUM_SKIP_FOR_SEEK && fileInputStream != null) {
+			CSVRecordIndex index = getRecordIndex();
+			if (index != null) {
+				int targetRecord = linePointer + numberOfLinesToSkip;
+				if (targetRecord >= index.getNumberOfRecords()) {
+					linePointer = index.getNumberOfRecords();
+					return endOfFileReached();
+				}
+				seek(index.getOffset(targetRecord));
+				linePointer = targetRecord;
+				numberOfLinesToSkip = 0;
+			}
+		}
 		int numberOfLinesSkipped = 0;
-		while (numberOfLinesSkipped < skipThisNumberOfLines) {
-			bufferedReader.readLine();
+		while (numberOfLinesSkipped < numberOfLinesToSkip) {
+			if (!tokenizer.skipRecord()) {
+				return endOfFileReached();
+			}
 			numberOfLinesSkipped++;
 			linePointer++;
 		}
-		String line = bufferedReader.readLine();
-		if (line != null) {								
-			List<String> splitter = ObjectUtility.splitLine(line, getHeader().getToken());
-			if (splitter.size() > getFieldCount()) {
+		if (tokenizer.nextRecord(getProjectionMask())) {
+			if (tokenizer.getNumberOfFields() > getFieldCount()) {
 				throw new IOException("The number of fields in this line is larger than the number of fields in the header: line " + (linePointer + 1) + ".");
 			}
 			linePointer++;
-			return splitter.toArray();
-		} else {				// if the line is null then the end of file has been reached
-			return null;
+			return true;
+		} else {				// the end of file has been reached
+			return endOfFileReached();
+		}
+	}
+	
+	/*
+	 * Return true if the field is available in the current record or false if the record has fewer fields 
+	 * or if the field is not in the projection.
+	 */
+	private boolean isFieldAvailable(int fieldIndex) {
+		if (!isOnRecord) {
+			throw new IllegalStateException("There is no current record! The advance method must be called first.");
 		}
+		return fieldIndex < tokenizer.getNumberOfFields() && isProjected(fieldIndex);
+	}
+	
+	@Override
+	public boolean isNull(int fieldIndex) {
+		return !isFieldAvailable(fieldIndex) || tokenizer.isMissing(fieldIndex);
 	}
 	
+	@Override
+	public double getDouble(int fieldIndex) {
+		if (isNull(fieldIndex)) {
+			return Double.NaN;
+		} else {
+			return tokenizer.getDouble(fieldIndex);
+		}
+	}
+	
+	@Override
+	public int getInt(int fieldIndex) {
+		if (isNull(fieldIndex)) {
+			return 0;
+		} else {
+			return tokenizer.getInt(fieldIndex);
+		}
+	}
+	
+	@Override
+	public String getString(int fieldIndex) {
+		return isFieldAvailable(fieldIndex) ? tokenizer.getField(fieldIndex) : null;
+	}
+	
+	/**
+	 * Read all the records in parallel. <p>
+	 * 
+	 * The file is split into byte ranges that are tokenized on several threads. No record index is 
+	 * needed. The number of records is known afterwards. If the file is a resource, if it is compressed 
+	 * or if its charset is not ASCII compatible, the records are read and converted on the current thread.
+	 * @see CSVParallelScanner
+	 */
+	@Override
+	public <T> void readRecordsInParallel(RecordConverter<T> converter, RecordConsumer<T> consumer, boolean ordered) throws Exception {
+		readRecordsInParallel(converter, consumer, ordered, BYTES_PER_CHUNK);
+	}
+
+	/*
+	 * For test purposes. 
+	 */
+	<T> void readRecordsInParallel(RecordConverter<T> converter, RecordConsumer<T> consumer, boolean ordered, int bytesPerChunk) throws Exception {
+		if (!isSystemResource() && !isCompressed() && MappedCSVReader.isCharsetSupported(currentCharset)) {
+			long dataStart;
+			MappedCSVReader headerReader = new MappedCSVReader(getFilename(), currentCharset);
+			try {
+				dataStart = headerReader.getRecordPosition();
+			} finally {
+				headerReader.close();
+			}
+			int numberOfRecords = new CSVParallelScanner<T>(getFilename(), currentCharset, getHeader().getToken(), getFieldCount(), 
+					getProjectionMask(), dataStart, converter, consumer, ordered, bytesPerChunk).scan();
+			if (!getHeader().isNumberOfRecordsKnown()) {
+				getHeader().setNumberOfRecords(numberOfRecords);
+			}
+		} else {
+			CSVReader reader = new CSVReader(getFilename(), currentCharset);
+			reader.setProjection(getProjection());
+			try {
+				Object[] record;
+				int recordIndex = 0;
+				while ((record = reader.nextRecord()) != null) {
+					consumer.consume(converter.convert(record, recordIndex), recordIndex);
+					recordIndex++;
+				}
+			} finally {
+				reader.close();
+			}
+		}
+	}
+	
+	/*
+	 * The line pointer is equal to the number of records once the end of file has been reached. 
+	 * This saves a complete reading of the file when the number of records is requested afterwards.
+	 */
+	private boolean endOfFileReached() {
+		if (!getHeader().isNumberOfRecordsKnown()) {
+			getHeader().setNumberOfRecords(linePointer);
+		}
+		return false;
+	}
+	
+	/*
+	 * The tokenizer is replaced since the buffered characters are no longer valid.
+	 */
+	private void seek(long offset) throws IOException {
+		fileInputStream.getChannel().position(offset);
+		tokenizer = new CSVTokenizer(createReader(fileInputStream), getHeader().getToken());
+	}
+	
+	/*
+	 * The bytes are decoded directly unless the charset is not supported by the ByteDecodingReader class.
+	 */
+	private Reader createReader(InputStream in) {
+		if (ByteDecodingReader.isCharsetSupported(currentCharset)) {
+			return new ByteDecodingReader(in, currentCharset);
+		} else {
+			return new InputStreamReader(in, currentCharset);
+		}
+	}
 	
 	private BufferedReader openReader() throws IOException {
-		InputStreamReader inputStreamReader = new InputStreamReader(openStream(), currentCharset);
-		return new BufferedReader(inputStreamReader);
+		return new BufferedReader(createReader(CharsetDetector.skipByteOrderMark(openStream(), currentCharset)));
 	}
 	
 	
 	@Override
 	protected void closeInternalStream() {
 		try {
-			bufferedReader.close();
+			tokenizer.close();
 		} catch (IOException e) {}
 	}
 	
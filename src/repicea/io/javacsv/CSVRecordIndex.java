@@ -0,0 +1,178 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * The CSVRecordIndex class stores the offset in bytes of each record of a CSV file. <p>
+ *
+ * The index is built through a single scan of the bytes of the file and it is saved in a sidecar
+ * file with the .rix extension next to the CSV file. The sidecar file is reused as long as the
+ * length and the last modification date of the CSV file have not changed. If the sidecar file
+ * cannot be written, the index is kept in memory.
+ * @author Mathieu Fortin - October 2026
+ */
+class CSVRecordIndex {
+
+	static final String EXTENSION = ".rix";
+
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 24;		// version, file length, last modification and number of records
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	private final long[] offsets;
+	private final int numberOfRecords;
+
+	private CSVRecordIndex(long[] offsets, int numberOfRecords) {
+		this.offsets = offsets;
+		this.numberOfRecords = numberOfRecords;
+	}
+
+	/**
+	 * Provide the number of records in the CSV file.
+	 * @return an integer
+	 */
+	int getNumberOfRecords() {return numberOfRecords;}
+
+	/**
+	 * Provide the offset of a record.
+	 * @param recordIndex the index of the record (0 is the first record after the header). The number
+	 * of records is also accepted, in which case the length of the file is returned.
+	 * @return the offset in bytes from the beginning of the file
+	 */
+	long getOffset(int recordIndex) {
+		if (recordIndex < 0 || recordIndex > numberOfRecords) {
+			throw new IndexOutOfBoundsException("Record index " + recordIndex + " is out of range!");
+		}
+		return offsets[recordIndex];
+	}
+
+	/**
+	 * Provide the sidecar file of a CSV file.
+	 * @param csvFilename the name of the CSV file
+	 * @return a File instance
+	 */
+	static File getIndexFile(String csvFilename) {
+		int index = csvFilename.lastIndexOf(".");
+		String basename = index > csvFilename.lastIndexOf(File.separator) ? csvFilename.substring(0, index) : csvFilename;
+		return new File(basename.concat(EXTENSION));
+	}
+
+	/**
+	 * Load the index from the sidecar file or build it if the sidecar file does not exist or if it
+	 * is out of date.
+	 * @param csvFilename the name of the CSV file
+	 * @param charset the charset of the CSV file, which must be ASCII compatible
+	 * @return a CSVRecordIndex instance
+	 * @throws IOException if an I/O error has occurred
+	 */
+	static CSVRecordIndex getIndex(String csvFilename, Charset charset) throws IOException {
+		File csvFile = new File(csvFilename);
+		File indexFile = getIndexFile(csvFilename);
+		CSVRecordIndex index = load(csvFile, indexFile);
+		if (index == null) {
+			index = build(csvFile, indexFile, charset);
+		}
+		return index;
+	}
+
+	/*
+	 * Return null if the sidecar file does not exist or if it does not match the CSV file. The offsets are
+	 * copied into an array so that the sidecar file is not kept open or mapped.
+	 */
+	private static CSVRecordIndex load(File csvFile, File indexFile) {
+		if (!indexFile.isFile() || indexFile.length() < HEADER_SIZE) {
+			return null;
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(indexFile, "r")) {
+			if (raf.readInt() != VERSION ||
+					raf.readLong() != csvFile.length() ||
+					raf.readLong() != csvFile.lastModified()) {
+				return null;
+			}
+			int numberOfRecords = raf.readInt();
+			long expectedLength = HEADER_SIZE + 8L * (numberOfRecords + 1);
+			if (numberOfRecords < 0 || indexFile.length() != expectedLength) {
+				return null;
+			}
+			long[] offsets = new long[numberOfRecords + 1];
+			FileChannel channel = raf.getChannel();
+			channel.position(HEADER_SIZE);
+			ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+			int n = 0;
+			while (n < offsets.length) {
+				buffer.clear();
+				buffer.limit((int) Math.min(READ_BUFFER_SIZE, 8L * (offsets.length - n)));
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer) < 0) {
+						return null;
+					}
+				}
+				buffer.flip();
+				int length = buffer.remaining() / 8;
+				buffer.asLongBuffer().get(offsets, n, length);
+				n += length;
+			}
+			return new CSVRecordIndex(offsets, numberOfRecords);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static CSVRecordIndex build(File csvFile, File indexFile, Charset charset) throws IOException {
+		long lastModified = csvFile.lastModified();
+		long[] offsets = new long[1024];
+		int n = 0;
+		MappedCSVReader reader = new MappedCSVReader(csvFile.getAbsolutePath(), charset);
+		try {
+			do {
+				if (n == offsets.length) {
+					offsets = Arrays.copyOf(offsets, n * 2);
+				}
+				offsets[n++] = reader.getRecordPosition();
+			} while (reader.skipRecord());
+		} finally {
+			reader.close();
+		}
+		try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+			dos.writeInt(VERSION);
+			dos.writeLong(csvFile.length());
+			dos.writeLong(lastModified);
+			dos.writeInt(n - 1);
+			for (int i = 0; i < n; i++) {
+				dos.writeLong(offsets[i]);
+			}
+		} catch (IOException e) {		// then the index is kept in memory only
+			indexFile.delete();
+		}
+		return new CSVRecordIndex(offsets, n - 1);
+	}
+
+}
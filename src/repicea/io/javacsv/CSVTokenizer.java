@@ -0,0 +1,352 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import repicea.io.NumericFieldParser;
+
+/**
+ * The CSVTokenizer class splits the records of a CSV stream into fields. <p>
+ *
+ * The tokenizer is a state machine that scans the characters of the stream. The characters of the
+ * fields are copied into a reusable buffer so that no object is created unless the fields are
+ * requested as String instances. <p>
+ *
+ * A field that starts with a quote ends with a quote followed by the delimiter, a line terminator or
+ * the end of the stream. Within such a field, the delimiter and the line terminators are part of
+ * the value and two consecutive quotes stand for a single quote. Any other quote is kept as is.
+ * An empty line is a record without any field. The delimiter can have several characters.
+ * @author Mathieu Fortin - October 2026
+ */
+public class CSVTokenizer {
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private static final char QUOTE = '"';
+	private static final char LINE_FEED = '\n';
+	private static final char CARRIAGE_RETURN = '\r';
+
+	private final Reader reader;
+	private final char[] delimiter;
+
+	private char[] buffer;
+	private int position;
+	private int limit;
+	private boolean endOfStream;
+
+	private char[] fieldBuffer = new char[256];
+	private CharBuffer fieldView = CharBuffer.wrap(fieldBuffer);		// for parsing the fields without copying them
+	private int fieldBufferLength;
+	private int[] fieldStarts = new int[16];
+	private int[] fieldEnds = new int[16];
+	private int numberOfFields;
+
+	/**
+	 * Constructor.
+	 * @param reader the Reader instance located at the beginning of a record
+	 * @param delimiter the field delimiter
+	 */
+	public CSVTokenizer(Reader reader, String delimiter) {
+		if (delimiter == null || delimiter.isEmpty()) {
+			throw new IllegalArgumentException("The delimiter must have at least one character!");
+		}
+		this.reader = reader;
+		this.delimiter = delimiter.toCharArray();
+		buffer = new char[Math.max(BUFFER_SIZE, this.delimiter.length)];
+	}
+
+	/*
+	 * Constructor for a single line already in memory.
+	 */
+	private CSVTokenizer(String line, String delimiter) {
+		if (delimiter == null || delimiter.isEmpty()) {
+			throw new IllegalArgumentException("The delimiter must have at least one character!");
+		}
+		this.reader = null;
+		this.delimiter = delimiter.toCharArray();
+		buffer = line.toCharArray();
+		limit = buffer.length;
+		endOfStream = true;
+	}
+
+	/**
+	 * Split a line into fields. <p>
+	 *
+	 * This is a convenience method for single lines. The fields of a stream should
+	 * rather be read through the {@link #nextRecord()} method.
+	 * @param line the line to be split
+	 * @param delimiter the field delimiter
+	 * @return a List of String
+	 * @throws IOException if a quoted field is not closed
+	 */
+	public static List<String> splitLine(String line, String delimiter) throws IOException {
+		CSVTokenizer tokenizer = new CSVTokenizer(line, delimiter);
+		List<String> fields = new ArrayList<String>();
+		if (tokenizer.nextRecord()) {
+			for (int i = 0; i < tokenizer.getNumberOfFields(); i++) {
+				fields.add(tokenizer.getField(i));
+			}
+		}
+		return fields;
+	}
+
+	/**
+	 * Read the next record.
+	 * @return false if the end of the stream has been reached or true otherwise
+	 * @throws IOException if an I/O error has occurred or if a quoted field is not closed
+	 */
+	public boolean nextRecord() throws IOException {
+		return tokenize(true, null);
+	}
+
+	/**
+	 * Read the next record but copy only some fields into the buffer. The other fields are 
+	 * scanned and they are then provided as empty fields.
+	 * @param fieldsToRecord an array of booleans whose elements are true for the fields to be copied, or null 
+	 * to copy all the fields
+	 * @return false if the end of the stream has been reached or true otherwise
+	 * @throws IOException if an I/O error has occurred or if a quoted field is not closed
+	 */
+	public boolean nextRecord(boolean[] fieldsToRecord) throws IOException {
+		return tokenize(true, fieldsToRecord);
+	}
+
+	/**
+	 * Skip the next record. The fields are not copied into the buffer.
+	 * @return false if the end of the stream has been reached or true otherwise
+	 * @throws IOException if an I/O error has occurred or if a quoted field is not closed
+	 */
+	public boolean skipRecord() throws IOException {
+		return tokenize(false, null);
+	}
+
+	private boolean tokenize(boolean recordFields, boolean[] fieldsToRecord) throws IOException {
+		numberOfFields = 0;
+		fieldBufferLength = 0;
+		if (!ensureAvailable(1)) {
+			return false;
+		}
+		if (skipLineTerminator()) {		// empty line
+			return true;
+		}
+		while (true) {
+			int start = fieldBufferLength;
+			boolean recordThisField = recordFields && 
+					(fieldsToRecord == null || (numberOfFields < fieldsToRecord.length && fieldsToRecord[numberOfFields]));
+			if (ensureAvailable(1) && buffer[position] == QUOTE) {		// quoted field
+				position++;
+				while (true) {
+					if (!ensureAvailable(1)) {
+						throw new IOException("A quoted field has been opened but there is no closing!");
+					}
+					char c = buffer[position];
+					if (c == QUOTE) {
+						if (ensureAvailable(2) && buffer[position + 1] == QUOTE) {	// escaped quote
+							if (recordThisField) {
+								append(QUOTE);
+							}
+							position += 2;
+							continue;
+						}
+						position++;
+						if (isEndOfField()) {
+							break;
+						} else {		// then the quote is kept as is
+							if (recordThisField) {
+								append(QUOTE);
+							}
+							continue;
+						}
+					}
+					if (recordThisField) {
+						append(c);
+					}
+					position++;
+				}
+			} else {
+				while (!isEndOfField()) {
+					if (recordThisField) {
+						append(buffer[position]);
+					}
+					position++;
+				}
+			}
+			if (recordFields) {
+				addField(start, fieldBufferLength);
+			}
+			if (!ensureAvailable(1) || skipLineTerminator()) {
+				return true;
+			}
+			position += delimiter.length;
+		}
+	}
+
+	/*
+	 * Make sure the given number of characters are available from the current position. Return false if
+	 * the end of the stream is reached before.
+	 */
+	private boolean ensureAvailable(int n) throws IOException {
+		if (limit - position >= n) {
+			return true;
+		} else if (endOfStream) {
+			return false;
+		}
+		int remaining = limit - position;
+		System.arraycopy(buffer, position, buffer, 0, remaining);
+		position = 0;
+		limit = remaining;
+		while (limit < n) {
+			int read = reader.read(buffer, limit, buffer.length - limit);
+			if (read == -1) {
+				endOfStream = true;
+				return false;
+			}
+			limit += read;
+		}
+		return true;
+	}
+
+	private boolean isEndOfField() throws IOException {
+		if (!ensureAvailable(1)) {
+			return true;
+		}
+		char c = buffer[position];
+		if (c == LINE_FEED || c == CARRIAGE_RETURN) {
+			return true;
+		}
+		if (c == delimiter[0]) {
+			if (!ensureAvailable(delimiter.length)) {
+				return false;
+			}
+			for (int i = 1; i < delimiter.length; i++) {
+				if (buffer[position + i] != delimiter[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Skip the line terminator if any. The characters "\n", "\r" and "\r\n" are considered as line terminators.
+	 */
+	private boolean skipLineTerminator() throws IOException {
+		char c = buffer[position];
+		if (c == LINE_FEED) {
+			position++;
+			return true;
+		} else if (c == CARRIAGE_RETURN) {
+			position++;
+			if (ensureAvailable(1) && buffer[position] == LINE_FEED) {
+				position++;
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	private void append(char c) {
+		if (fieldBufferLength == fieldBuffer.length) {
+			char[] newFieldBuffer = new char[fieldBuffer.length * 2];
+			System.arraycopy(fieldBuffer, 0, newFieldBuffer, 0, fieldBufferLength);
+			fieldBuffer = newFieldBuffer;
+			fieldView = CharBuffer.wrap(fieldBuffer);
+		}
+		fieldBuffer[fieldBufferLength++] = c;
+	}
+
+	private void addField(int start, int end) {
+		if (numberOfFields == fieldStarts.length) {
+			int[] newStarts = new int[numberOfFields * 2];
+			int[] newEnds = new int[numberOfFields * 2];
+			System.arraycopy(fieldStarts, 0, newStarts, 0, numberOfFields);
+			System.arraycopy(fieldEnds, 0, newEnds, 0, numberOfFields);
+			fieldStarts = newStarts;
+			fieldEnds = newEnds;
+		}
+		fieldStarts[numberOfFields] = start;
+		fieldEnds[numberOfFields] = end;
+		numberOfFields++;
+	}
+
+	/**
+	 * Provide the number of fields in the last record read.
+	 * @return an integer
+	 */
+	public int getNumberOfFields() {return numberOfFields;}
+
+	/**
+	 * Provide a field of the last record read as a String instance.
+	 * @param i the index of the field
+	 * @return a String
+	 */
+	public String getField(int i) {
+		return new String(fieldBuffer, fieldStarts[i], fieldEnds[i] - fieldStarts[i]);
+	}
+
+	/**
+	 * Check if a field of the last record read stands for a missing value.
+	 * @param i the index of the field
+	 * @return a boolean
+	 * @see NumericFieldParser#isMissing(CharSequence)
+	 */
+	public boolean isMissing(int i) {
+		return NumericFieldParser.isMissing(fieldView, fieldStarts[i], fieldEnds[i]);
+	}
+	
+	/**
+	 * Parse a field of the last record read as a double without creating a String instance.
+	 * @param i the index of the field
+	 * @return a double
+	 * @throws NumberFormatException if the field is not a number
+	 */
+	public double getDouble(int i) {
+		return NumericFieldParser.parseDouble(fieldView, fieldStarts[i], fieldEnds[i]);
+	}
+	
+	/**
+	 * Parse a field of the last record read as an integer without creating a String instance. 
+	 * The decimals are truncated.
+	 * @param i the index of the field
+	 * @return an integer
+	 * @throws NumberFormatException if the field is not a number
+	 */
+	public int getInt(int i) {
+		return NumericFieldParser.parseInt(fieldView, fieldStarts[i], fieldEnds[i]);
+	}
+	
+	/**
+	 * Close the underlying reader.
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public void close() throws IOException {
+		if (reader != null) {
+			reader.close();
+		}
+	}
+
+}
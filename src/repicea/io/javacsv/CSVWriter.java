@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
 import java.util.List;
 
 import repicea.io.FormatField;
@@ -42,6 +43,7 @@ import repicea.io.REpiceaFileFilter.FileType;
 public class CSVWriter extends FormatWriter<CSVHeader> {
 	
 	private BufferedWriter bufferedWriter;
+	private final Charset currentCharset;
 	
 	/**
 	 * Constructor.
@@ -51,6 +53,19 @@ public class CSVWriter extends FormatWriter<CSVHeader> {
 	 * @throws IOException if an I/O error has occurred
 	 */
 	public CSVWriter(File csvFile, boolean append, String token) throws IOException {
+		this(csvFile, append, token, null);
+	}
+	
+	/**
+	 * Constructor with specific encoding. 
+	 * @param csvFile the File instance that represents the CSV file.
+	 * @param append true to append the file
+	 * @param token the token ("," or ";")
+	 * @param charset the encoding or null to use the encoding of the existing file if it is appended or 
+	 * the default encoding otherwise
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public CSVWriter(File csvFile, boolean append, String token, Charset charset) throws IOException {
 		super(csvFile, append);
 		if (REpiceaFileFilter.getFileType(getFilename()) != FileType.CSV) {
 			throw new IOException("CSVWriter.c. The file is not a .csv file");
@@ -58,9 +73,17 @@ public class CSVWriter extends FormatWriter<CSVHeader> {
 		setFormatHeader(new CSVHeader(token));
 
 		File outputFile = new File(getFilename());
+		if (charset != null) {
+			currentCharset = charset;
+		} else if (outputFile.exists() && appendFile) {
+			currentCharset = CharsetDetector.detect(getFilename());
+		} else {
+			currentCharset = Charset.defaultCharset();
+		}
 		if (outputFile.exists() && appendFile) {
 			BufferedReader reader = openStream();
 			getHeader().read(reader);
+			getHeader().countRecords(reader);
 		} else {
 			if (outputFile.exists() && !outputFile.delete()) {
 				throw new IOException("Java has been unable to delete file : " + outputFile.getAbsolutePath());
@@ -68,7 +91,7 @@ public class CSVWriter extends FormatWriter<CSVHeader> {
 			outputFile.createNewFile();
 		}
 		
-		OutputStreamWriter outputStreamWriter = new OutputStreamWriter(new FileOutputStream(getFilename(), appendFile));
+		OutputStreamWriter outputStreamWriter = new OutputStreamWriter(new FileOutputStream(getFilename(), appendFile), currentCharset);
 		bufferedWriter = new BufferedWriter(outputStreamWriter);
 	}
 
@@ -151,9 +174,15 @@ public class CSVWriter extends FormatWriter<CSVHeader> {
 	}	
 
 	
+	/**
+	 * Provide the encoding of the file.
+	 * @return a Charset instance
+	 */
+	public Charset getCharset() {return currentCharset;}
+	
 	protected BufferedReader openStream() throws IOException {
-		InputStream in = new FileInputStream(getFilename());
-		InputStreamReader inputStreamReader = new InputStreamReader(in);
+		InputStream in = CharsetDetector.skipByteOrderMark(new FileInputStream(getFilename()), currentCharset);
+		InputStreamReader inputStreamReader = new InputStreamReader(in, currentCharset);
 		return new BufferedReader(inputStreamReader);
 	}
 
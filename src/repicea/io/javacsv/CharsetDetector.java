@@ -0,0 +1,173 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The CharsetDetector class guesses the encoding of a text file from its first bytes. <p>
+ * 
+ * The byte order mark is checked first. Otherwise, the first bytes are checked for valid UTF-8 sequences.
+ * If they are not valid, the ISO-8859-1 encoding is assumed. If they contain ASCII characters only, 
+ * there is no evidence and the default charset is assumed as long as it is ASCII compatible. 
+ * @author Mathieu Fortin - October 2026
+ */
+public final class CharsetDetector {
+
+	/**
+	 * The number of bytes that are checked for valid UTF-8 sequences.
+	 */
+	public static final int PROBE_SIZE = 64 * 1024;
+	
+	private static final byte[] UTF8_BYTE_ORDER_MARK = new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+	
+	private CharsetDetector() {}
+
+	/**
+	 * Detect the charset of a file.
+	 * @param filename the name of the file
+	 * @return a Charset instance
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public static Charset detect(String filename) throws IOException {
+		InputStream in = new FileInputStream(filename);
+		try {
+			return detect(in);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Detect the charset from the first bytes of a stream. The stream is not closed.
+	 * @param in an InputStream instance located at the beginning of the file
+	 * @return a Charset instance
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public static Charset detect(InputStream in) throws IOException {
+		byte[] prefix = new byte[PROBE_SIZE];
+		int length = 0;
+		int read;
+		while (length < prefix.length && (read = in.read(prefix, length, prefix.length - length)) != -1) {
+			length += read;
+		}
+		return detect(prefix, length);
+	}
+	
+	/**
+	 * Detect the charset from the first bytes of a file.
+	 * @param prefix an array with the first bytes
+	 * @param length the number of bytes in the array
+	 * @return a Charset instance
+	 */
+	public static Charset detect(byte[] prefix, int length) {
+		if (startsWithUTF8ByteOrderMark(prefix, length)) {
+			return StandardCharsets.UTF_8;
+		} else if (length >= 2 && ((prefix[0] == (byte) 0xFE && prefix[1] == (byte) 0xFF) || (prefix[0] == (byte) 0xFF && prefix[1] == (byte) 0xFE))) {
+			return StandardCharsets.UTF_16;		// the decoder reads the byte order mark
+		}
+		boolean hasMultiByteSequences = false;
+		int i = 0;
+		while (i < length) {
+			int b = prefix[i] & 0xFF;
+			int numberOfContinuationBytes;
+			if (b < 0x80) {
+				i++;
+				continue;
+			} else if (b >= 0xC2 && b <= 0xDF) {
+				numberOfContinuationBytes = 1;
+			} else if (b >= 0xE0 && b <= 0xEF) {
+				numberOfContinuationBytes = 2;
+			} else if (b >= 0xF0 && b <= 0xF4) {
+				numberOfContinuationBytes = 3;
+			} else {
+				return StandardCharsets.ISO_8859_1;
+			}
+			for (int j = 1; j <= numberOfContinuationBytes && i + j < length; j++) {	// a sequence can be truncated at the end of the prefix
+				if ((prefix[i + j] & 0xC0) != 0x80) {
+					return StandardCharsets.ISO_8859_1;
+				}
+			}
+			hasMultiByteSequences = true;
+			i += numberOfContinuationBytes + 1;
+		}
+		if (hasMultiByteSequences) {
+			return StandardCharsets.UTF_8;
+		} else if (MappedCSVReader.isCharsetSupported(Charset.defaultCharset())) {
+			return Charset.defaultCharset();
+		} else {
+			return StandardCharsets.UTF_8;
+		}
+	}
+	
+	private static boolean startsWithUTF8ByteOrderMark(byte[] prefix, int length) {
+		if (length < UTF8_BYTE_ORDER_MARK.length) {
+			return false;
+		}
+		for (int i = 0; i < UTF8_BYTE_ORDER_MARK.length; i++) {
+			if (prefix[i] != UTF8_BYTE_ORDER_MARK[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Provide the length of the UTF-8 byte order mark at the beginning of the bytes. Unlike that of UTF-16, the 
+	 * UTF-8 decoder does not skip this mark.
+	 * @param prefix an array with the first bytes of the file
+	 * @param length the number of bytes in the array
+	 * @param charset the charset of the file
+	 * @return the number of bytes to skip
+	 */
+	static int getByteOrderMarkLength(byte[] prefix, int length, Charset charset) {
+		return charset.equals(StandardCharsets.UTF_8) && startsWithUTF8ByteOrderMark(prefix, length) ? 
+				UTF8_BYTE_ORDER_MARK.length : 
+					0;
+	}
+	
+	/**
+	 * Skip the UTF-8 byte order mark if any.
+	 * @param in an InputStream instance located at the beginning of the file
+	 * @param charset the charset of the file
+	 * @return an InputStream instance located after the byte order mark
+	 * @throws IOException if an I/O error has occurred
+	 */
+	static InputStream skipByteOrderMark(InputStream in, Charset charset) throws IOException {
+		if (!charset.equals(StandardCharsets.UTF_8)) {
+			return in;
+		}
+		PushbackInputStream pushbackInputStream = new PushbackInputStream(in, UTF8_BYTE_ORDER_MARK.length);
+		byte[] prefix = new byte[UTF8_BYTE_ORDER_MARK.length];
+		int length = 0;
+		int read;
+		while (length < prefix.length && (read = pushbackInputStream.read(prefix, length, prefix.length - length)) != -1) {
+			length += read;
+		}
+		int byteOrderMarkLength = getByteOrderMarkLength(prefix, length, charset);
+		pushbackInputStream.unread(prefix, byteOrderMarkLength, length - byteOrderMarkLength);
+		return pushbackInputStream;
+	}
+}
@@ -0,0 +1,335 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import repicea.io.FormatReader;
+
+/**
+ * The MappedCSVReader class reads a CSV file through a memory-mapped FileChannel. <p>
+ *
+ * The fields are tokenized directly in the mapped bytes so that no String instance is created for
+ * the line. Only the String instances of the fields are created. The records are the same as those
+ * of the CSVReader class. The file is mapped through windows of limited size so that very large
+ * files can be read as well. <p>
+ *
+ * This reader only works with uncompressed files on disk, and the charset must be ASCII compatible (e.g.
+ * ISO-8859-1, UTF-8, windows-1252). The {@link #isCharsetSupported(Charset)} method tests this
+ * condition.
+ * @author Mathieu Fortin - October 2026
+ */
+public class MappedCSVReader extends FormatReader<CSVHeader> {
+
+	private static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+	private static final int ESTIMATE_SAMPLE_SIZE = 64 * 1024;
+	private static final String CONTROL_CHARACTERS = "\r\n\";,";
+
+	private final Charset currentCharset;
+	private final int windowSize;
+
+	private FileChannel channel;
+	private long fileSize;
+	private ByteBuffer window;
+	private long windowStart;
+	private int windowLimit;
+	private boolean windowReachesEndOfFile;
+	private int position;
+
+	private CSVByteTokenizer tokenizer;
+
+	/**
+	 * Constructor with automatic detection of the encoding
+	 * @param filename the file to read
+	 * @throws IOException if an I/O error has occurred
+	 * @see CharsetDetector
+	 */
+	public MappedCSVReader(String filename) throws IOException {
+		this(filename, null);
+	}
+
+	/**
+	 * Constructor with specific encoding
+	 * @param filename the file to read
+	 * @param charset the encoding or null to detect it from the first bytes of the file
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public MappedCSVReader(String filename, Charset charset) throws IOException {
+		this(filename, charset, DEFAULT_WINDOW_SIZE);
+	}
+
+	/*
+	 * For test purposes. The window size sets the maximum length of the records.
+	 */
+	MappedCSVReader(String filename, Charset charset, int windowSize) throws IOException {
+		super(filename);
+		if (isSystemResource()) {
+			throw new IOException("The MappedCSVReader class cannot read resources: " + filename);
+		} else if (isCompressed()) {
+			throw new IOException("The MappedCSVReader class cannot read compressed files: " + filename);
+		}
+		if (charset != null) {
+			currentCharset = charset;
+		} else {
+			currentCharset = CharsetDetector.detect(filename);
+		}
+		if (!isCharsetSupported(currentCharset)) {
+			throw new IOException("The charset " + currentCharset.name() + " is not ASCII compatible!");
+		}
+		this.windowSize = windowSize;
+		reset();
+	}
+
+	/**
+	 * Check if the charset encodes the delimiters, the quote and the line terminators as
+	 * single ASCII bytes.
+	 * @param charset a Charset instance
+	 * @return a boolean
+	 */
+	public static boolean isCharsetSupported(Charset charset) {
+		if (!charset.canEncode()) {
+			return false;
+		}
+		return Arrays.equals(CONTROL_CHARACTERS.getBytes(charset), CONTROL_CHARACTERS.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Override
+	public void reset() throws IOException {
+		if (channel != null) {
+			close();
+		}
+		channel = FileChannel.open(Paths.get(getFilename()), StandardOpenOption.READ);
+		fileSize = channel.size();
+		mapWindow(0);
+		CSVHeader formerHeader = getHeader();
+		setFormatHeader(new CSVHeader());
+		getHeader().read(new BufferedReader(new StringReader(readFirstLine())));
+		if (formerHeader != null && formerHeader.isNumberOfRecordsKnown()) {	// the file is not expected to change between two resets
+			getHeader().setNumberOfRecords(formerHeader.getNumberOfRecords());
+		}
+		tokenizer = new CSVByteTokenizer(getHeader().getToken(), currentCharset, getFieldCount());
+		linePointer = 0;
+		isClosed = false;
+	}
+
+	/*
+	 * Decode the first line and move the position to the beginning of the first record. The byte order mark is skipped.
+	 */
+	private String readFirstLine() throws IOException {
+		byte[] prefix = new byte[Math.min(4, windowLimit)];
+		for (int i = 0; i < prefix.length; i++) {
+			prefix[i] = window.get(i);
+		}
+		int start = CharsetDetector.getByteOrderMarkLength(prefix, prefix.length, currentCharset);
+		int p = start;
+		while (p < windowLimit) {
+			byte b = window.get(p);
+			if (b == '\n' || b == '\r') {
+				String firstLine = decodeFirstLine(start, p);
+				position = p + 1;
+				if (b == '\r' && position < windowLimit && window.get(position) == '\n') {
+					position++;
+				}
+				return firstLine;
+			}
+			p++;
+		}
+		if (!windowReachesEndOfFile) {
+			throw new IOException("The header of file " + getFilename() + " is larger than the mapping window!");
+		}
+		position = p;
+		return decodeFirstLine(start, p);
+	}
+
+	private String decodeFirstLine(int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = window.get(start + i);
+		}
+		return new String(bytes, currentCharset);
+	}
+
+	private void mapWindow(long start) throws IOException {
+		long size = Math.min(windowSize, fileSize - start);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+		windowStart = start;
+		windowLimit = (int) size;
+		windowReachesEndOfFile = start + size == fileSize;
+		position = 0;
+	}
+
+	private boolean isEndOfFile() {
+		return windowReachesEndOfFile && position >= windowLimit;
+	}
+
+	/*
+	 * Tokenize the record at the current position and move the position to the next record. The window
+	 * is moved forward if the record is not complete.
+	 */
+	private void tokenizeRecord(boolean recordFields) throws IOException {
+		while (true) {
+			int next = tokenizer.tokenize(window, position, windowLimit, windowReachesEndOfFile, recordFields);
+			if (next != CSVByteTokenizer.INCOMPLETE) {
+				position = next;
+				return;
+			} else if (position == 0) {
+				throw new IOException("The record at line " + (linePointer + 1) + " is larger than the mapping window!");
+			} else {
+				mapWindow(windowStart + position);
+			}
+		}
+	}
+
+	/**
+	 * Provide the number of records in the file. <p>
+	 *
+	 * The records are counted on the first call only. If the reader has already reached the end
+	 * of the file, the count is already known and no additional reading is required.
+	 */
+	@Override
+	public int getRecordCount() {
+		if (!getHeader().isNumberOfRecordsKnown()) {
+			try {
+				long currentPosition = windowStart + position;
+				int currentLinePointer = linePointer;
+				while (!isEndOfFile()) {
+					tokenizeRecord(false);
+					linePointer++;
+				}
+				getHeader().setNumberOfRecords(linePointer);
+				linePointer = currentLinePointer;
+				mapWindow(currentPosition);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to count the records in file " + getFilename(), e);
+			}
+		}
+		return super.getRecordCount();
+	}
+
+	/**
+	 * Provide an estimate of the number of records. <p>
+	 *
+	 * If the count is not known yet, the estimate is based on the size of the file and the mean
+	 * length of the lines in the first kilobytes of the file.
+	 */
+	@Override
+	public int getEstimatedRecordCount() {
+		if (!getHeader().isNumberOfRecordsKnown() && fileSize > ESTIMATE_SAMPLE_SIZE && windowStart == 0) {
+			int sampleSize = Math.min(ESTIMATE_SAMPLE_SIZE, windowLimit);
+			int endOfHeader = -1;
+			int numberOfLines = 0;
+			for (int i = 0; i < sampleSize; i++) {
+				if (window.get(i) == '\n') {
+					if (endOfHeader == -1) {
+						endOfHeader = i;
+					} else {
+						numberOfLines++;
+					}
+				}
+			}
+			if (numberOfLines > 0) {
+				double meanLineLength = (double) (sampleSize - endOfHeader) / numberOfLines;
+				return (int) Math.round((fileSize - endOfHeader - 1) / meanLineLength);
+			}
+		}
+		return getRecordCount();
+	}
+
+	@Override
+	public Object[] nextRecord(int skipThisNumberOfLines) throws IOException {
+		int numberOfLinesSkipped = 0;
+		while (numberOfLinesSkipped < skipThisNumberOfLines) {
+			if (isEndOfFile()) {
+				return endOfFileReached();
+			}
+			tokenizeRecord(false);
+			numberOfLinesSkipped++;
+			linePointer++;
+		}
+		if (isEndOfFile()) {
+			return endOfFileReached();
+		}
+		tokenizeRecord(true);
+		int numberOfFields = tokenizer.getNumberOfFields();
+		if (numberOfFields > getFieldCount()) {
+			throw new IOException("The number of fields in this line is larger than the number of fields in the header: line " + (linePointer + 1) + ".");
+		}
+		Object[] record = new Object[numberOfFields];
+		for (int i = 0; i < numberOfFields; i++) {
+			if (isProjected(i)) {
+				record[i] = tokenizer.getField(window, i);
+			}
+		}
+		linePointer++;
+		return record;
+	}
+
+	/**
+	 * Skip the next record without decoding it.
+	 * @return false if the end of file has been reached or true otherwise
+	 * @throws IOException if an I/O error has occurred
+	 */
+	boolean skipRecord() throws IOException {
+		if (isEndOfFile()) {
+			endOfFileReached();
+			return false;
+		}
+		tokenizeRecord(false);
+		linePointer++;
+		return true;
+	}
+
+	/**
+	 * Provide the position of the next record in the file.
+	 * @return the offset in bytes from the beginning of the file
+	 */
+	long getRecordPosition() {
+		return windowStart + position;
+	}
+
+	/*
+	 * The line pointer is equal to the number of records once the end of file has been reached.
+	 */
+	private Object[] endOfFileReached() {
+		if (!getHeader().isNumberOfRecordsKnown()) {
+			getHeader().setNumberOfRecords(linePointer);
+		}
+		return null;
+	}
+
+	@Override
+	protected void closeInternalStream() {
+		window = null;
+		try {
+			channel.close();
+		} catch (IOException e) {}
+	}
+
+}
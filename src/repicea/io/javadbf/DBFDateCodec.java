@@ -0,0 +1,168 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * The DBFDateCodec class converts the YYYYMMDD digits of the D fields into epoch days and vice versa. <p>
+ * 
+ * The epoch day is the number of days since January 1st, 1970 in the ISO calendar, as in the 
+ * LocalDate.toEpochDay method. The decoding is lenient as was the former decoding through the 
+ * GregorianCalendar class, e.g. the 13th month is January of the next year. 
+ * @author Mathieu Fortin - October 2026
+ */
+public final class DBFDateCodec {
+
+	/**
+	 * The epoch day of a blank or an invalid date.
+	 */
+	public static final int MISSING = Integer.MIN_VALUE;
+
+	/*
+	 * Before October 15, 1582, the GregorianCalendar class uses the Julian calendar. 
+	 */
+	private static final int GREGORIAN_CUTOVER_EPOCH_DAY = -141427;
+	
+	private static final long MILLIS_PER_DAY = 86400000L;
+	
+	private static final int DAYS_PER_400_YEARS = 146097;
+	private static final int DAYS_FROM_YEAR_0_TO_1970 = 719468;		// from March 1st, year 0
+	
+	private DBFDateCodec() {}
+	
+	/**
+	 * Decode the eight digits of a date.
+	 * @param data an array of bytes
+	 * @param offset the index of the first digit
+	 * @return the epoch day or MISSING if the field is blank or contains other characters than digits
+	 */
+	public static int decodeEpochDay(byte[] data, int offset) {
+		int year = parseDigits(data, offset, 4);
+		int month = parseDigits(data, offset + 4, 2);
+		int day = parseDigits(data, offset + 6, 2);
+		if (year == -1 || month == -1 || day == -1) {
+			return MISSING;
+		}
+		return toEpochDay(year, month, day);
+	}
+	
+	/**
+	 * Compute the epoch day of a date. The month and the day may be out of their usual ranges.
+	 * @param year the year
+	 * @param month the month from 1 to 12
+	 * @param day the day of the month from 1 to 31
+	 * @return the epoch day
+	 */
+	public static int toEpochDay(int year, int month, int day) {
+		year += Math.floorDiv(month - 1, 12);
+		month = Math.floorMod(month - 1, 12) + 1;
+		int y = month <= 2 ? year - 1 : year;		// the years start on March 1st 
+		int era = Math.floorDiv(y, 400);
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_FROM_YEAR_0_TO_1970 + day - 1;
+	}
+
+	/**
+	 * Encode an epoch day into eight digits. Only the last four digits of the year are written.
+	 * @param epochDay the epoch day
+	 * @param dest the destination array
+	 * @param offset the index of the first digit in the array
+	 */
+	public static void encodeEpochDay(int epochDay, byte[] dest, int offset) {
+		int z = epochDay + DAYS_FROM_YEAR_0_TO_1970;
+		int era = Math.floorDiv(z, DAYS_PER_400_YEARS);
+		int dayOfEra = z - era * DAYS_PER_400_YEARS;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int mp = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+		int month = mp < 10 ? mp + 3 : mp - 9;
+		int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		putDigits(dest, offset, year, 4);
+		putDigits(dest, offset + 4, month, 2);
+		putDigits(dest, offset + 6, day, 2);
+	}
+
+	/**
+	 * Convert an epoch day into a Date instance at midnight in the default time zone. The offsets 
+	 * of the time zone are those of the TimeZone class as in the GregorianCalendar class.
+	 * @param epochDay the epoch day
+	 * @return a Date instance
+	 */
+	public static Date toDate(int epochDay) {
+		if (epochDay < GREGORIAN_CUTOVER_EPOCH_DAY) {
+			LocalDate localDate = LocalDate.ofEpochDay(epochDay);
+			return new GregorianCalendar(localDate.getYear(), localDate.getMonthValue() - 1, localDate.getDayOfMonth()).getTime();
+		}
+		TimeZone zone = TimeZone.getDefault();
+		long localMillis = epochDay * MILLIS_PER_DAY;
+		long millis = localMillis - zone.getOffset(localMillis - zone.getRawOffset());
+		int offset = zone.getOffset(millis);
+		if (millis + offset != localMillis) {		// midnight is skipped by a transition and the offset before the transition applies
+			millis = localMillis - offset;
+		}
+		return new Date(millis);
+	}
+	
+	/**
+	 * Provide the epoch day of a Date instance in the default time zone.
+	 * @param date a Date instance
+	 * @return the epoch day
+	 */
+	public static int toEpochDay(Date date) {
+		long millis = date.getTime();
+		int epochDay = (int) Math.floorDiv(millis + TimeZone.getDefault().getOffset(millis), MILLIS_PER_DAY);
+		if (epochDay < GREGORIAN_CUTOVER_EPOCH_DAY) {
+			GregorianCalendar calendar = new GregorianCalendar();
+			calendar.setTime(date);
+			return toEpochDay(calendar.get(GregorianCalendar.YEAR), calendar.get(GregorianCalendar.MONTH) + 1, calendar.get(GregorianCalendar.DAY_OF_MONTH));
+		}
+		return epochDay;
+	}
+	
+	/*
+	 * Parse the digits of a date component. Return -1 if there is any other character.
+	 */
+	private static int parseDigits(byte[] data, int offset, int length) {
+		int value = 0;
+		for (int j = offset; j < offset + length; j++) {
+			byte b = data[j];
+			if (b < '0' || b > '9') {
+				return -1;
+			}
+			value = value * 10 + (b - '0');
+		}
+		return value;
+	}
+
+	private static void putDigits(byte[] dest, int offset, int value, int numberOfDigits) {
+		for (int j = offset + numberOfDigits - 1; j >= offset; j--) {
+			dest[j] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+	
+}
@@ -223,11 +223,15 @@ public class DBFField extends FormatField {
 			case 'L':
 			case 'N':
 			case 'F':
-			case 'M':
 
 				this.dataType = value;
 				break;
 
+			case 'M':
+				this.fieldLength = 10; /* the block pointer */
+				this.dataType = value;
+				break;
+
 			default:
 				throw new IllegalArgumentException( "Unknown data type");
 		}
@@ -29,6 +29,7 @@ import repicea.io.FormatHeader;
 public class DBFHeader extends FormatHeader<DBFField> {
 
 	static final byte SIG_DBASE_III = (byte)0x03;
+	static final byte SIG_DBASE_III_WITH_MEMO = (byte)0x83;
 	/* DBF structure start here */
 	
 	byte signature;              /* 0 */
@@ -109,6 +110,9 @@ public class DBFHeader extends FormatHeader<DBFField> {
 	 */
 	protected void write(DataOutput dataOutput) throws IOException {
 
+		if (signature == SIG_DBASE_III && hasMemoField()) {
+			signature = SIG_DBASE_III_WITH_MEMO;
+		}
 		dataOutput.writeByte( signature);                       /* 0 */
 
 		GregorianCalendar calendar = new GregorianCalendar();
@@ -158,6 +162,15 @@ public class DBFHeader extends FormatHeader<DBFField> {
 		dataOutput.writeByte( terminator1); /* n+1 */
 	}
 
+	private boolean hasMemoField() {
+		for (int i = 0; i < getNumberOfFields(); i++) {
+			if (getField(i).getDataType() == DBFField.FIELD_TYPE_M) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private short findHeaderLength() {
 
 		return (short)(
@@ -0,0 +1,108 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.function.Supplier;
+
+/**
+ * The DBFMemo class is the value of a memo field in the records of the DBFReader class. <p>
+ *
+ * The instance only holds the block number of the memo. The text is read from the memo file the 
+ * first time it is requested and it is then kept in the instance. Scanning the records therefore 
+ * does not read the memos. The text can be requested through the get and toString methods or through 
+ * any method of the CharSequence interface.
+ * @author Mathieu Fortin - October 2026
+ */
+public final class DBFMemo implements CharSequence, Supplier<String> {
+
+	private final DBFMemoFile memoFile;
+	private final int block;
+	private final Charset charset;
+	private volatile String text;
+	
+	DBFMemo(DBFMemoFile memoFile, int block, Charset charset) {
+		this.memoFile = memoFile;
+		this.block = block;
+		this.charset = charset;
+	}
+	
+	/**
+	 * Provide the number of the first block of the memo in the memo file.
+	 * @return an integer
+	 */
+	public int getBlockNumber() {return block;}
+	
+	/**
+	 * Indicate whether the text has already been read from the memo file.
+	 * @return a boolean
+	 */
+	public boolean isLoaded() {return text != null;}
+	
+	/**
+	 * Provide the text of the memo. The text is read on the first call.
+	 * @throws UncheckedIOException if the memo file cannot be read
+	 */
+	@Override
+	public String get() {
+		String str = text;
+		if (str == null) {
+			try {
+				str = memoFile.read(block, charset);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to read the memo at block " + block, e);
+			}
+			text = str;
+		}
+		return str;
+	}
+
+	@Override
+	public int length() {return get().length();}
+
+	@Override
+	public char charAt(int index) {return get().charAt(index);}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {return get().subSequence(start, end);}
+
+	@Override
+	public String toString() {return get();}
+	
+	/**
+	 * Two memos are equal if their texts are equal. The texts are read if needed.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj instanceof DBFMemo) {
+			return get().equals(((DBFMemo) obj).get());
+		} else {
+			return false;
+		}
+	}
+	
+	@Override
+	public int hashCode() {return get().hashCode();}
+	
+}
@@ -0,0 +1,341 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The DBFMemoFile class reads and appends the memos of the companion file of a DBF file. <p>
+ *
+ * The memo fields of the DBF records only contain the number of the first block of the memo in 
+ * the companion file. Three formats are supported:
+ * <ul>
+ * <li> dBASE III (.dbt): blocks of 512 bytes and text terminated by the 0x1A byte;
+ * <li> dBASE IV (.dbt): a block size in the header and each memo starts with the 0xFFFF0800 marker 
+ * followed by its length;
+ * <li> FoxPro (.fpt): a block size in the header and each memo starts with its type and its length in 
+ * big-endian order.
+ * </ul>
+ * The memos are read through positional reads so that an instance can be used by several threads. 
+ * The writing is not thread safe.
+ * @author Mathieu Fortin - October 2026
+ */
+final class DBFMemoFile {
+
+	enum MemoFormat {DBASE_III, DBASE_IV, FOXPRO}
+	
+	private static final String[] EXTENSIONS = new String[] {".dbt", ".DBT", ".fpt", ".FPT"};
+	private static final int DBASE_BLOCK_SIZE = 512;
+	private static final int FOXPRO_BLOCK_SIZE = 64;
+	private static final int HEADER_SIZE = 512;
+	private static final byte END_OF_MEMO = 0x1A;
+	private static final int DBASE_IV_MARKER = 0x0008FFFF;		// FF FF 08 00 in little-endian order
+	private static final int FOXPRO_TEXT_TYPE = 1;
+	
+	private final File file;
+	private final MemoFormat format;
+	private final int blockSize;
+	private final FileChannel channel;
+	private int nextFreeBlock;
+	private ByteBuffer writeBuffer;
+	private volatile boolean isClosed;
+	
+	private DBFMemoFile(File file, MemoFormat format, int blockSize, FileChannel channel, int nextFreeBlock) {
+		this.file = file;
+		this.format = format;
+		this.blockSize = blockSize;
+		this.channel = channel;
+		this.nextFreeBlock = nextFreeBlock;
+	}
+
+	/**
+	 * Find the memo file that goes with a DBF file, i.e. the file with the same name and the .dbt or 
+	 * the .fpt extension.
+	 * @param dbfFilename the name of the DBF file
+	 * @return a File instance or null if there is no memo file
+	 */
+	static File findMemoFile(String dbfFilename) {
+		String basename = getBasename(dbfFilename);
+		for (String extension : EXTENSIONS) {
+			File file = new File(basename + extension);
+			if (file.isFile()) {
+				return file;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Provide the name of the new memo file of a DBF file. The case of the extension follows 
+	 * that of the DBF file.
+	 * @param dbfFilename the name of the DBF file
+	 * @return a File instance
+	 */
+	static File getNewMemoFile(String dbfFilename) {
+		boolean isUpperCase = dbfFilename.endsWith(".DBF");
+		return new File(getBasename(dbfFilename) + (isUpperCase ? ".DBT" : ".dbt"));
+	}
+	
+	private static String getBasename(String dbfFilename) {
+		int index = dbfFilename.lastIndexOf('.');
+		if (index > dbfFilename.lastIndexOf(File.separatorChar)) {
+			return dbfFilename.substring(0, index);
+		} else {
+			return dbfFilename;
+		}
+	}
+	
+	/**
+	 * Open a memo file for reading. 
+	 * @param file the memo file
+	 * @return a DBFMemoFile instance
+	 * @throws IOException if an I/O error has occurred or if the header is incomplete
+	 */
+	static DBFMemoFile open(File file) throws IOException {
+		return open(file, null, StandardOpenOption.READ);
+	}
+
+	/**
+	 * Open a memo file for appending memos. If the file does not exist, a dBASE III memo file is created.
+	 * @param file the memo file
+	 * @param dbfSignature the first byte of the DBF file, which distinguishes dBASE III from dBASE IV 
+	 * @return a DBFMemoFile instance
+	 * @throws IOException if an I/O error has occurred or if the header is incomplete
+	 */
+	static DBFMemoFile openForAppending(File file, byte dbfSignature) throws IOException {
+		if (!file.exists() || file.length() == 0) {
+			return create(file);
+		}
+		return open(file, dbfSignature, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Create a new dBASE III memo file. An existing file is overwritten.
+	 * @param file the memo file
+	 * @return a DBFMemoFile instance
+	 * @throws IOException if an I/O error has occurred
+	 */
+	static DBFMemoFile create(File file) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, 
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		DBFMemoFile memoFile = new DBFMemoFile(file, MemoFormat.DBASE_III, DBASE_BLOCK_SIZE, channel, HEADER_SIZE / DBASE_BLOCK_SIZE);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.put(16, (byte) 0x03);		// the version
+		memoFile.writeFully(header, 0);
+		memoFile.writeNextFreeBlock();
+		return memoFile;
+	}
+	
+	private static DBFMemoFile open(File file, Byte dbfSignature, StandardOpenOption... options) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), options);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(32);
+			readFully(channel, header, 0);
+			MemoFormat format;
+			int blockSize;
+			int nextFreeBlock;
+			if (file.getName().toLowerCase().endsWith(".fpt")) {
+				format = MemoFormat.FOXPRO;
+				header.order(ByteOrder.BIG_ENDIAN);
+				nextFreeBlock = header.getInt(0);
+				blockSize = header.getShort(6) & 0xFFFF;
+				if (blockSize == 0) {
+					blockSize = FOXPRO_BLOCK_SIZE;
+				}
+			} else {
+				header.order(ByteOrder.LITTLE_ENDIAN);
+				nextFreeBlock = header.getInt(0);
+				blockSize = header.getShort(20) & 0xFFFF;
+				if (blockSize == 0) {
+					blockSize = DBASE_BLOCK_SIZE;
+				}
+				format = dbfSignature != null && dbfSignature == (byte) 0x8B ? MemoFormat.DBASE_IV : MemoFormat.DBASE_III;
+			}
+			return new DBFMemoFile(file, format, blockSize, channel, nextFreeBlock);
+		} catch (EOFException e) {
+			channel.close();
+			throw new DBFException("The header of memo file " + file.getAbsolutePath() + " is incomplete!");
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Read a memo. If the file has been closed, it is opened again for this reading only.
+	 * @param block the number of the first block of the memo
+	 * @param charset the charset of the text
+	 * @return a String
+	 * @throws IOException if an I/O error has occurred
+	 */
+	String read(int block, Charset charset) throws IOException {
+		if (isClosed) {
+			try (FileChannel tmpChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				return read(tmpChannel, block, charset);
+			}
+		} else {
+			return read(channel, block, charset);
+		}
+	}
+	
+	private String read(FileChannel channel, int block, Charset charset) throws IOException {
+		long position = (long) block * blockSize;
+		ByteBuffer blockHeader = ByteBuffer.allocate(8);
+		if (format == MemoFormat.FOXPRO) {
+			readFully(channel, blockHeader, position);
+			int length = blockHeader.getInt(4);		// big-endian by default
+			return readText(channel, position + 8, length, charset);
+		}
+		blockHeader.order(ByteOrder.LITTLE_ENDIAN);
+		int read = channel.read(blockHeader, position);
+		if (read == 8 && blockHeader.getInt(0) == DBASE_IV_MARKER) {
+			int length = blockHeader.getInt(4) - 8;		// the length includes the marker and the length itself
+			return readText(channel, position + 8, length, charset);
+		}
+		ByteArrayOutputStream text = new ByteArrayOutputStream();		// dBASE III: the text ends with the 0x1A byte
+		ByteBuffer bb = ByteBuffer.allocate(blockSize);
+		while (true) {
+			bb.clear();
+			read = channel.read(bb, position);
+			if (read <= 0) {
+				break;
+			}
+			int end = 0;
+			while (end < read && bb.get(end) != END_OF_MEMO) {
+				end++;
+			}
+			text.write(bb.array(), 0, end);
+			if (end < read) {
+				break;
+			}
+			position += read;
+		}
+		return new String(text.toByteArray(), charset);
+	}
+	
+	private static String readText(FileChannel channel, long position, int length, Charset charset) throws IOException {
+		if (length <= 0) {
+			return "";
+		}
+		ByteBuffer bb = ByteBuffer.allocate(length);
+		readFully(channel, bb, position);
+		return new String(bb.array(), charset);
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer bb, long position) throws IOException {
+		while (bb.hasRemaining()) {
+			int read = channel.read(bb, position + bb.position());
+			if (read == -1) {
+				throw new EOFException();
+			}
+		}
+	}
+	
+	/**
+	 * Append a memo at the end of the file.
+	 * @param text the text of the memo
+	 * @param charset the charset of the text
+	 * @return the number of the first block of the memo
+	 * @throws IOException if an I/O error has occurred
+	 */
+	int write(CharSequence text, Charset charset) throws IOException {
+		byte[] bytes = text.toString().getBytes(charset);
+		int length = bytes.length + (format == MemoFormat.DBASE_III ? 2 : 8);
+		int numberOfBlocks = (length + blockSize - 1) / blockSize;
+		int capacity = numberOfBlocks * blockSize;
+		if (writeBuffer == null || writeBuffer.capacity() < capacity) {
+			writeBuffer = ByteBuffer.allocate(Math.max(capacity, 8 * blockSize));
+		}
+		writeBuffer.clear();
+		switch (format) {
+		case FOXPRO:
+			writeBuffer.order(ByteOrder.BIG_ENDIAN);
+			writeBuffer.putInt(FOXPRO_TEXT_TYPE);
+			writeBuffer.putInt(bytes.length);
+			writeBuffer.put(bytes);
+			break;
+		case DBASE_IV:
+			writeBuffer.order(ByteOrder.LITTLE_ENDIAN);
+			writeBuffer.putInt(DBASE_IV_MARKER);
+			writeBuffer.putInt(bytes.length + 8);
+			writeBuffer.put(bytes);
+			break;
+		default:
+			writeBuffer.put(bytes);
+			writeBuffer.put(END_OF_MEMO);
+			writeBuffer.put(END_OF_MEMO);
+			break;
+		}
+		while (writeBuffer.position() < capacity) {		// the last block is completed
+			writeBuffer.put((byte) 0);
+		}
+		writeBuffer.flip();
+		int block = nextFreeBlock;
+		writeFully(writeBuffer, (long) block * blockSize);
+		nextFreeBlock += numberOfBlocks;
+		return block;
+	}
+	
+	private void writeFully(ByteBuffer bb, long position) throws IOException {
+		while (bb.hasRemaining()) {
+			position += channel.write(bb, position);
+		}
+	}
+
+	private void writeNextFreeBlock() throws IOException {
+		ByteBuffer bb = ByteBuffer.allocate(4);
+		bb.order(format == MemoFormat.FOXPRO ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+		bb.putInt(0, nextFreeBlock);
+		writeFully(bb, 0);
+	}
+	
+	/**
+	 * Provide the format of the memo file.
+	 * @return a MemoFormat enum
+	 */
+	MemoFormat getFormat() {return format;}
+	
+	/**
+	 * Close the file. If memos have been written, the number of the next free block is updated 
+	 * in the header.
+	 * @throws IOException if an I/O error has occurred
+	 */
+	void close() throws IOException {
+		if (!isClosed) {
+			try {
+				if (writeBuffer != null) {
+					writeNextFreeBlock();
+				}
+			} finally {
+				isClosed = true;
+				channel.close();
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,186 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import repicea.io.ParallelRecordReader.RecordConsumer;
+import repicea.io.ParallelRecordReader.RecordConverter;
+
+/**
+ * The DBFParallelScanner class decodes the rows of a DBF file on the workers of the common 
+ * fork-join pool. <p>
+ * 
+ * Since the records have a fixed length, the file is split into ranges of rows whose positions are 
+ * provided by a DBFRowMap instance. Each range is mapped and decoded on a worker. The deleted records 
+ * are skipped and the rows after the end-of-data marker are not part of the map. The number of ranges 
+ * in progress is bounded so that the memory usage does not depend on the size of the file.
+ * @author Mathieu Fortin - October 2026
+ */
+class DBFParallelScanner<T> {
+
+	private static final byte DELETED = '*';
+	
+	private final String filename;
+	private final DBFReader decoder;
+	private final DBFRowMap rowMap;
+	private final int recordLength;
+	private final boolean[] projection;
+	private final RecordConverter<T> converter;
+	private final RecordConsumer<T> consumer;
+	private final boolean ordered;
+	private final int rowsPerChunk;
+	
+	private volatile boolean cancelled;
+
+	/*
+	 * The result of a range of rows. In ordered mode, the converted records are kept until they are consumed. 
+	 */
+	private class Chunk {
+		final int firstRow;
+		final Object[] convertedRecords;
+		int numberOfConvertedRecords;
+		Exception failure;
+		
+		Chunk(int firstRow, int numberOfRows) {
+			this.firstRow = firstRow;
+			convertedRecords = ordered ? new Object[numberOfRows] : null;
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * @param decoder a DBFReader instance that decodes the rows, which must not be used elsewhere during the scan
+	 * @param rowMap the map of the rows in the file
+	 * @param projection the fields to be decoded or null to decode all of them
+	 * @param converter a RecordConverter instance
+	 * @param consumer a RecordConsumer instance
+	 * @param ordered true to consume the records in the order of the file
+	 * @param rowsPerChunk the maximum number of rows in a range
+	 */
+	DBFParallelScanner(DBFReader decoder, DBFRowMap rowMap, boolean[] projection,
+			RecordConverter<T> converter, RecordConsumer<T> consumer, boolean ordered, int rowsPerChunk) {
+		this.filename = decoder.getFilename();
+		this.decoder = decoder;
+		this.rowMap = rowMap;
+		this.recordLength = decoder.getHeader().recordLength & 0xFFFF;
+		this.projection = projection;
+		this.converter = converter;
+		this.consumer = consumer;
+		this.ordered = ordered;
+		this.rowsPerChunk = rowsPerChunk;
+	}
+
+	/**
+	 * Decode all the rows.
+	 * @throws Exception the first exception thrown by the converter or the consumer
+	 */
+	void scan() throws Exception {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		int maxChunksInProgress = 2 * pool.getParallelism();
+		Deque<ForkJoinTask<Chunk>> chunksInProgress = new ArrayDeque<ForkJoinTask<Chunk>>();
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			int numberOfRows = rowMap.getNumberOfRows();
+			for (int firstRow = 0; firstRow < numberOfRows; firstRow += rowsPerChunk) {
+				if (chunksInProgress.size() >= maxChunksInProgress) {
+					complete(chunksInProgress.removeFirst());
+				}
+				final int start = firstRow;
+				final int end = Math.min(firstRow + rowsPerChunk, numberOfRows);
+				chunksInProgress.addLast(pool.submit(() -> decodeChunk(channel, start, end)));
+			}
+			while (!chunksInProgress.isEmpty()) {
+				complete(chunksInProgress.removeFirst());
+			}
+		} catch (Exception e) {
+			cancelled = true;
+			for (ForkJoinTask<Chunk> task : chunksInProgress) {
+				task.cancel(false);
+			}
+			throw e;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void complete(ForkJoinTask<Chunk> task) throws Exception {
+		Chunk chunk;
+		try {
+			chunk = task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else {
+				throw e;
+			}
+		}
+		if (ordered) {
+			for (int i = 0; i < chunk.numberOfConvertedRecords; i++) {
+				consumer.consume((T) chunk.convertedRecords[i], chunk.firstRow + i);
+			}
+		}
+		if (chunk.failure != null) {
+			throw chunk.failure;
+		}
+	}
+
+	private Chunk decodeChunk(FileChannel channel, int firstRow, int lastRow) throws Exception {
+		Chunk chunk = new Chunk(firstRow, lastRow - firstRow);
+		long start = rowMap.getPosition(firstRow);
+		int length = (int) (rowMap.getPosition(lastRow - 1) + recordLength - start);
+		ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		byte[] data = new byte[recordLength - 1];
+		int rowIndex = firstRow;
+		for (int position = 0; position < length; position += recordLength) {
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			if (buffer.get(position) == DELETED) {
+				continue;
+			}
+			buffer.position(position + 1);
+			buffer.get(data);
+			try {
+				T convertedRecord = converter.convert(decoder.decodeRecord(data, 0, projection), rowIndex);
+				if (ordered) {
+					chunk.convertedRecords[chunk.numberOfConvertedRecords] = convertedRecord;
+				} else {
+					consumer.consume(convertedRecord, rowIndex);
+				}
+				chunk.numberOfConvertedRecords++;
+			} catch (Exception e) {
+				chunk.failure = e;
+				break;
+			}
+			rowIndex++;
+		}
+		return chunk;
+	}
+
+}
@@ -13,12 +13,21 @@
 
 package repicea.io.javadbf;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
-import java.util.GregorianCalendar;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
 
 import repicea.io.FormatReader;
+import repicea.io.NumericFieldParser;
+import repicea.io.ParallelRecordReader;
+import repicea.io.RandomAccessRecordReader;
 
 /**
 	DBFReader class can creates objects to represent DBF data.
@@ -57,18 +66,59 @@ import repicea.io.FormatReader;
 		<td>L</td><td>Boolean</td>
 	</tr>
 	<tr>
-		<td>D</td><td>java.util.Date</td>
+		<td>D</td><td>java.util.Date (see {@link #setDateType(DateType)})</td>
+	</tr>
+	<tr>
+		<td>M</td><td>DBFMemo</td>
 	</tr>
 	</table>
+
+	<p>
+	The memos are read from the .dbt or .fpt file with the same name. The 
+	DBFMemo instances read the text only when it is requested. A memo field 
+	is null if its block pointer is blank or if there is no memo file.
 	
 */
-public class DBFReader extends FormatReader<DBFHeader> {
+public class DBFReader extends FormatReader<DBFHeader> implements RandomAccessRecordReader, ParallelRecordReader {
 
-	protected DataInputStream dataInputStream;
+	/**
+	 * The types of the values of the D fields in the records.
+	 */
+	public static enum DateType {
+		/**
+		 * A java.util.Date instance at midnight in the default time zone.
+		 */
+		DATE,
+		/**
+		 * A java.time.LocalDate instance.
+		 */
+		LOCAL_DATE,
+		/**
+		 * An Integer instance that stands for the epoch day. The getInt and getDouble methods 
+		 * then provide the epoch day as well.
+		 */
+		EPOCH_DAY;
+	}
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int ROWS_PER_CHUNK = 4096;
+	private static final int MAX_CHUNK_SIZE = 8 * 1024 * 1024;
+	
+	private ReadableByteChannel channel;
+	private ByteBuffer buffer;		// the bytes between the position and the limit have not been read yet
 
 	private final int END_OF_DATA = 0x1A;
 
 	private String characterSetName = "8859_1";
+	private Charset charset = Charset.forName(characterSetName);
+
+	private byte[] recordBuffer;	// the array of the ByteBuffer instance
+	private int recordOffset;		// the index of the first field of the current row in the record buffer
+	private int[] fieldOffsets;
+	private boolean isOnRecord;
+	private DBFRowMap rowMap;		// built on the first seek only
+	private DBFMemoFile memoFile;	// null if there is no memo field or no memo file
+	private DateType dateType = DateType.DATE;
 
 	
 	/**
@@ -91,22 +141,66 @@ public class DBFReader extends FormatReader<DBFHeader> {
 	}
 	
 	public void reset() throws IOException {
-		if (dataInputStream != null) {
+		if (channel != null) {
 			close();
 		}
-		dataInputStream = new DataInputStream(openStream());
-		setFormatHeader(new DBFHeader());
-		getHeader().read(this.dataInputStream);
-
-		/* it might be required to leap to the start of records at times */
-		int t_dataStartIndex = getHeader().headerLength - (32 + (32 * getFieldCount())) - 1;
-		if(t_dataStartIndex > 0) {
-			dataInputStream.skip( t_dataStartIndex);
+		channel = openChannel();
+		int recordLength = 0;
+		try {
+			setFormatHeader(new DBFHeader());
+			getHeader().read(new DataInputStream(new ByteArrayInputStream(readHeaderBytes())));
+			recordLength = getHeader().recordLength & 0xFFFF;
+		} catch (EOFException e) {
+			throw new DBFException("The header of file " + getFilename() + " is incomplete!");
+		}
+		memoFile = openMemoFile();
+		buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, recordLength));
+		buffer.flip();
+		recordBuffer = buffer.array();
+		fieldOffsets = new int[getFieldCount()];
+		for (int i = 1; i < getFieldCount(); i++) {
+			fieldOffsets[i] = fieldOffsets[i - 1] + getHeader().getField(i - 1).getFieldLength();
 		}
+		isOnRecord = false;
 		linePointer = 0;
 		isClosed = false;
 	}
 
+	/*
+	 * Read the whole header so that the channel is located at the first record. The length 
+	 * of the header is given in bytes 8-9.
+	 */
+	private byte[] readHeaderBytes() throws IOException {
+		ByteBuffer fixedPart = ByteBuffer.allocate(32);
+		readFully(fixedPart);
+		int headerLength = (fixedPart.get(8) & 0xFF) | (fixedPart.get(9) & 0xFF) << 8;
+		ByteBuffer header = ByteBuffer.allocate(Math.max(headerLength, 32));
+		header.put(fixedPart.array());
+		readFully(header);
+		return header.array();
+	}
+	
+	private DBFMemoFile openMemoFile() throws IOException {
+		if (isSystemResource() || isCompressed()) {
+			return null;
+		}
+		for (int i = 0; i < getFieldCount(); i++) {
+			if (getHeader().getField(i).getDataType() == DBFField.FIELD_TYPE_M) {
+				File file = DBFMemoFile.findMemoFile(getFilename());
+				return file == null ? null : DBFMemoFile.open(file);
+			}
+		}
+		return null;
+	}
+	
+	private void readFully(ByteBuffer bb) throws IOException {
+		while (bb.hasRemaining()) {
+			if (channel.read(bb) == -1) {
+				throw new EOFException();
+			}
+		}
+	}
+	
 	/* 
 	 If the library is used in a non-latin environment use this method to set 
 	 corresponding character set. More information: 
@@ -115,7 +209,24 @@ public class DBFReader extends FormatReader<DBFHeader> {
 	*/
 	public String getCharactersetName() {return this.characterSetName;}
 
-	public void setCharactersetName(String characterSetName) {this.characterSetName = characterSetName;}
+	public void setCharactersetName(String characterSetName) {
+		this.charset = Charset.forName(characterSetName);
+		this.characterSetName = characterSetName;
+	}
+
+	/**
+		Sets the type of the values of the D fields in the records. By default, 
+		these values are java.util.Date instances.
+		@param dateType a DateType enum
+	*/
+	public void setDateType(DateType dateType) {
+		if (dateType == null) {
+			throw new IllegalArgumentException("The dateType argument cannot be null!");
+		}
+		this.dateType = dateType;
+	}
+
+	public DateType getDateType() {return dateType;}
 
 	
 	
@@ -156,131 +267,431 @@ public class DBFReader extends FormatReader<DBFHeader> {
 		these arrays follow the convention mentioned in the class description.
 	*/
 	public Object[] nextRecord(int skipThisNumberOfLines) throws DBFException {
+		isOnRecord = false;
 		try {
-			int rowToReachBeforeReading = linePointer + skipThisNumberOfLines;
-			Object recordObjects[] = new Object[getFieldCount()];
-			boolean isDeleted = false;
-			boolean wentThroughLoopOnce = false;
-//			int lineCddount = 0;
-			do {
-				if (isDeleted || wentThroughLoopOnce) {
-					if (isDeleted)
-						dataInputStream.skip(getHeader().recordLength - 1);
-					else if (linePointer < rowToReachBeforeReading) {
-						dataInputStream.skip(getHeader().recordLength - 1);
-						linePointer++;
-					}
-				}
+			if (!moveToRecord(skipThisNumberOfLines)) {
+				return null;
+			}
+			return decodeRecord(recordBuffer, recordOffset, getProjectionMask());
+		} catch (EOFException e) {
+			close();
+			return null;
+		} catch( IOException e) {
+			close();
+			throw new DBFException( e.getMessage());
+		}
+	}
+
+	/**
+		Skips some lines and then moves the cursor to the next row. The row is kept 
+		in a buffer and the fields are decoded only when requested.
+	*/
+	@Override
+	public boolean advance(int skipThisNumberOfLines) throws DBFException {
+		isOnRecord = false;
+		try {
+			isOnRecord = moveToRecord(skipThisNumberOfLines);
+			return isOnRecord;
+		} catch (EOFException e) {
+			close();
+			return false;
+		} catch( IOException e) {
+			close();
+			throw new DBFException( e.getMessage());
+		}
+	}
 	
-				int t_byte = dataInputStream.readByte();
-				if( t_byte == END_OF_DATA) {
-					return null;
+	/*
+	 * Locate a row in the buffer. The deleted records are not considered as rows. If the file can be 
+	 * accessed at random and the row is not within the buffer, the channel is moved directly to the 
+	 * row. Return false if the end-of-data marker has been reached.
+	 */
+	private boolean moveToRecord(int skipThisNumberOfLines) throws IOException {
+		int recordLength = getHeader().recordLength & 0xFFFF;
+		int rowToReach = linePointer + skipThisNumberOfLines;
+		if (channel instanceof FileChannel && (long) skipThisNumberOfLines * recordLength > buffer.remaining()) {
+			if (!seekRow(rowToReach)) {
+				return false;
+			}
+		}
+		while (true) {
+			if (!ensureAvailable(1)) {
+				throw new EOFException();
+			}
+			int t_byte = buffer.get(buffer.position());
+			if( t_byte == END_OF_DATA) {
+				return false;
+			}
+			if (!ensureAvailable(recordLength)) {
+				throw new EOFException();
+			}
+			if (t_byte != '*') {
+				if (linePointer == rowToReach) {
+					recordOffset = buffer.position() + 1;
+					buffer.position(buffer.position() + recordLength);
+					linePointer++;
+					return true;
 				}
+				linePointer++;
+			}
+			buffer.position(buffer.position() + recordLength);
+		}
+	}
 
-				wentThroughLoopOnce = true;						// make sure the process went through this loop before checking 
-				isDeleted = (t_byte == '*');
-			} while (isDeleted || linePointer < rowToReachBeforeReading);
+	/*
+	 * Move the channel to the row and empty the buffer. Return false if the row is beyond the last row.
+	 */
+	private boolean seekRow(int rowIndex) throws IOException {
+		DBFRowMap map = getRowMap();
+		FileChannel fileChannel = (FileChannel) channel;
+		buffer.clear();
+		buffer.flip();
+		if (rowIndex >= map.getNumberOfRows()) {
+			fileChannel.position(fileChannel.size());
+			linePointer = map.getNumberOfRows();
+			return false;
+		} else {
+			fileChannel.position(map.getPosition(rowIndex));
+			linePointer = rowIndex;
+			return true;
+		}
+	}
+
+	private synchronized DBFRowMap getRowMap() throws IOException {
+		if (rowMap == null) {
+			rowMap = DBFRowMap.scan(getFilename(), getHeader().headerLength & 0xFFFF, getHeader().recordLength & 0xFFFF);
+		}
+		return rowMap;
+	}
+
+	@Override
+	public boolean isRandomAccessSupported() {
+		return !isSystemResource() && !isCompressed();
+	}
+
+	/**
+		Reads a particular row. The deleted records are not considered as rows. 
+		If random access is supported, the position of the row is computed from 
+		the header and the channel moves directly to this position.
+	*/
+	@Override
+	public Object[] readRecord(int recordIndex) throws IOException {
+		if (recordIndex < 0) {
+			throw new IndexOutOfBoundsException("The record index must be positive!");
+		}
+		if (isClosed() || (recordIndex < linePointer && !(channel instanceof FileChannel))) {
+			reset();
+		}
+		if (recordIndex < linePointer) {
+			isOnRecord = false;
+			if (!seekRow(recordIndex)) {
+				return null;
+			}
+		}
+		return nextRecord(recordIndex - linePointer);
+	}
+
+	/**
+		Reads all the rows in parallel. The rows are split into ranges that are 
+		mapped and decoded on several threads. If random access is not supported, 
+		the rows are read and converted on the current thread.
+	*/
+	@Override
+	public <T> void readRecordsInParallel(RecordConverter<T> converter, RecordConsumer<T> consumer, boolean ordered) throws Exception {
+		int recordLength = getHeader().recordLength & 0xFFFF;
+		readRecordsInParallel(converter, consumer, ordered, Math.max(1, Math.min(ROWS_PER_CHUNK, MAX_CHUNK_SIZE / recordLength)));
+	}
+
+	/*
+	 * For test purposes.
+	 */
+	<T> void readRecordsInParallel(RecordConverter<T> converter, RecordConsumer<T> consumer, boolean ordered, int rowsPerChunk) throws Exception {
+		DBFReader reader = openNewReader();
+		try {
+			if (isRandomAccessSupported()) {
+				new DBFParallelScanner<T>(reader, reader.getRowMap(), getProjectionMask(), converter, consumer, ordered, rowsPerChunk).scan();
+			} else {
+				Object[] record;
+				int recordIndex = 0;
+				while ((record = reader.nextRecord()) != null) {
+					consumer.consume(converter.convert(record, recordIndex), recordIndex);
+					recordIndex++;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
 	
-			for (int i = 0; i < getFieldCount(); i++) {
-				switch (getHeader().getField(i).getDataType()) {
-				case 'C':
-					byte b_array[] = new byte[getHeader().getField(i).getFieldLength()];
-					dataInputStream.read( b_array);
-					recordObjects[i] = new String( b_array, characterSetName);
-					break;
-				case 'D':
-					byte t_byte_year[] = new byte[ 4];
-					dataInputStream.read( t_byte_year);
-					byte t_byte_month[] = new byte[ 2];
-					dataInputStream.read( t_byte_month);
-					byte t_byte_day[] = new byte[ 2];
-					dataInputStream.read( t_byte_day);
-					try {
-						GregorianCalendar calendar = new GregorianCalendar( 
-								Integer.parseInt(new String(t_byte_year)),
-								Integer.parseInt(new String(t_byte_month)) - 1,
-								Integer.parseInt(new String(t_byte_day))
-								);
-						recordObjects[i] = calendar.getTime();
-					} catch (NumberFormatException e) {
-						/* this field may be empty or may have improper value set */
-						recordObjects[i] = null;
-					}
-
-					break;
+	/**
+		Opens another reader on the same file with the same character set 
+		and projection. The map of the rows is shared between the two readers.
+	*/
+	@Override
+	public synchronized DBFReader openNewReader() throws IOException {
+		DBFReader newReader = new DBFReader(getFilename());
+		newReader.setCharactersetName(characterSetName);
+		newReader.setDateType(dateType);
+		newReader.setProjection(getProjection());
+		if (isRandomAccessSupported()) {
+			newReader.rowMap = getRowMap();
+		}
+		return newReader;
+	}
+	
+	/*
+	 * Make sure the given number of bytes is available in the buffer. The remaining bytes are moved 
+	 * to the beginning of the buffer before reading from the channel. Return false if the end of the 
+	 * file is reached before.
+	 */
+	private boolean ensureAvailable(int n) throws IOException {
+		if (buffer.remaining() >= n) {
+			return true;
+		}
+		buffer.compact();
+		try {
+			while (buffer.position() < n) {
+				if (channel.read(buffer) == -1) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			buffer.flip();
+		}
+	}
 	
-				case 'F':
-					try {
-
-						byte t_float[] = new byte[getHeader().getField(i).getFieldLength()];
-						dataInputStream.read( t_float);
-						t_float = Utils.trimLeftSpaces( t_float);
-						if (t_float.length > 0 && !Utils.contains( t_float, (byte)'?')) {
-//							recordObjects[i] = new Float( new String( t_float));
-							recordObjects[i] = Float.valueOf(new String( t_float));
-						} else {
-							recordObjects[i] = null;
-						}
-					} catch (NumberFormatException e) {
-						throw new DBFException( "Failed to parse Float: " + e.getMessage());
-					}
-					break;
+	/*
+	 * Decode the fields of a row. This method does not depend on the position of the reader 
+	 * and it can be called on several threads.
+	 */
+	Object[] decodeRecord(byte[] data, int dataOffset, boolean[] projection) throws IOException {
+		Object recordObjects[] = new Object[getFieldCount()];
+		for (int i = 0; i < getFieldCount(); i++) {
+			if (projection == null || projection[i]) {
+				recordObjects[i] = decodeField(data, dataOffset, i);
+			}
+		}
+		return recordObjects;
+	}
 	
-				case 'N':
-					try {
-						byte t_numeric[] = new byte[getHeader().getField(i).getFieldLength()];
-						dataInputStream.read( t_numeric);
-						t_numeric = Utils.trimLeftSpaces( t_numeric);
-
-						if( t_numeric.length > 0 && !Utils.contains( t_numeric, (byte)'?')) {
-//							recordObjects[i] = new Double( new String( t_numeric));
-							recordObjects[i] = Double.valueOf(new String(t_numeric));
-						} else {
-							recordObjects[i] = null;
-						}
-					} catch (NumberFormatException e) {
-						throw new DBFException( "Failed to parse Number: " + e.getMessage());
-					}
-
-					break;
-
-				case 'L':
-					byte t_logical = dataInputStream.readByte();
-					if (t_logical == 'Y' || t_logical == 't' || t_logical == 'T' || t_logical == 't') {
-
-						recordObjects[i] = Boolean.TRUE;
-					} else {
-
-						recordObjects[i] = Boolean.FALSE;
-					}
-					break;
-
-				case 'M':
-					// TODO Later
-					recordObjects[i] = new String( "null");
-					break;
-
-				default:
-					recordObjects[i] = new String( "null");
+	/*
+	 * Decode a field of a row. The data offset is the index of the first field of the row in the array.
+	 */
+	private Object decodeField(byte[] data, int dataOffset, int i) throws IOException {
+		DBFField field = getHeader().getField(i);
+		int offset = dataOffset + fieldOffsets[i];
+		int length = field.getFieldLength();
+		switch (field.getDataType()) {
+		case 'C':
+			return new String(data, offset, length, charset);
+		case 'D':
+			int epochDay = DBFDateCodec.decodeEpochDay(data, offset);
+			if (epochDay == DBFDateCodec.MISSING) {		/* this field may be empty or may have improper value set */
+				return null;
+			}
+			switch (dateType) {
+			case EPOCH_DAY:
+				return epochDay;
+			case LOCAL_DATE:
+				return LocalDate.ofEpochDay(epochDay);
+			default:
+				return DBFDateCodec.toDate(epochDay);
+			}
+		case 'F':
+			try {
+				if (!isNumericFieldMissing(data, offset, length)) {
+					return NumericFieldParser.parseFloat(data, offset, offset + length);
+				} else {
+					return null;
 				}
+			} catch (NumberFormatException e) {
+				throw new DBFException( "Failed to parse Float: " + e.getMessage());
 			}
-			return recordObjects;
-		} catch (EOFException e) {
-			close();
-			return null;
-		} catch( IOException e) {
-			close();
-			throw new DBFException( e.getMessage());
+		case 'N':
+			try {
+				if (!isNumericFieldMissing(data, offset, length)) {
+					return NumericFieldParser.parseDouble(data, offset, offset + length);
+				} else {
+					return null;
+				}
+			} catch (NumberFormatException e) {
+				throw new DBFException( "Failed to parse Number: " + e.getMessage());
+			}
+		case 'L':
+			byte t_logical = data[offset];
+			if (t_logical == 'Y' || t_logical == 't' || t_logical == 'T' || t_logical == 't') {
+				return Boolean.TRUE;
+			} else {
+				return Boolean.FALSE;
+			}
+		case 'M':
+			int block = parseBlockPointer(data, offset, length);
+			if (block <= 0 || memoFile == null) {
+				return null;
+			}
+			return new DBFMemo(memoFile, block, charset);
+		default:
+			return "null";
 		}
+	}
 
+	/*
+	 * The block pointer of a memo field is either a number in ASCII digits or a little-endian 
+	 * integer if the field has four bytes. Return 0 if there is no memo.
+	 */
+	private static int parseBlockPointer(byte[] data, int offset, int length) {
+		if (length == 4) {
+			return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+		}
+		int value = 0;
+		for (int j = offset; j < offset + length; j++) {
+			byte b = data[j];
+			if (b >= '0' && b <= '9') {
+				value = value * 10 + (b - '0');
+			} else if (b != ' ' && b != 0) {
+				return 0;
+			}
+		}
+		return value;
+	}
+
+	private void checkCurrentRecord() {
+		if (!isOnRecord) {
+			throw new IllegalStateException("There is no current record! The advance method must be called first.");
+		}
 	}
 	
+	/*
+	 * Return true if the numeric field is blank or contains the '?' character.
+	 */
+	private static boolean isNumericFieldMissing(byte[] data, int offset, int length) {
+		boolean isBlank = true;
+		for (int j = offset; j < offset + length; j++) {
+			if (data[j] == '?') {
+				return true;
+			} else if (data[j] != ' ') {
+				isBlank = false;
+			}
+		}
+		return isBlank;
+	}
+
+	@Override
+	public boolean isNull(int fieldIndex) throws IOException {
+		checkCurrentRecord();
+		if (!isProjected(fieldIndex)) {
+			return true;
+		}
+		int offset = recordOffset + fieldOffsets[fieldIndex];
+		int length = getHeader().getField(fieldIndex).getFieldLength();
+		switch (getHeader().getField(fieldIndex).getDataType()) {
+		case 'F':
+		case 'N':
+			return isNumericFieldMissing(recordBuffer, offset, length);
+		case 'C':
+			return NumericFieldParser.isMissing(recordBuffer, offset, offset + length);
+		case 'D':
+			return DBFDateCodec.decodeEpochDay(recordBuffer, offset) == DBFDateCodec.MISSING;
+		default:
+			return decodeField(recordBuffer, recordOffset, fieldIndex) == null;
+		}
+	}
+	
+	/**
+		Returns a field of the current row as a double. The numeric and character 
+		fields are parsed directly from the bytes of the row.
+	*/
+	@Override
+	public double getDouble(int fieldIndex) throws IOException {
+		if (isNull(fieldIndex)) {
+			return Double.NaN;
+		}
+		DBFField field = getHeader().getField(fieldIndex);
+		int offset = recordOffset + fieldOffsets[fieldIndex];
+		switch (field.getDataType()) {
+		case 'F':
+		case 'N':
+		case 'C':
+			return NumericFieldParser.parseDouble(recordBuffer, offset, offset + field.getFieldLength());
+		case 'D':
+			if (dateType == DateType.EPOCH_DAY) {
+				return DBFDateCodec.decodeEpochDay(recordBuffer, offset);
+			} else {
+				throw new NumberFormatException("The field " + field.getName() + " is a date that is not read as an epoch day!");
+			}
+		default:
+			throw new NumberFormatException("The field " + field.getName() + " is not numeric!");
+		}
+	}
+
+	/**
+		Returns a field of the current row as an integer. The numeric and character 
+		fields are parsed directly from the bytes of the row.
+	*/
+	@Override
+	public int getInt(int fieldIndex) throws IOException {
+		if (isNull(fieldIndex)) {
+			return 0;
+		}
+		DBFField field = getHeader().getField(fieldIndex);
+		int offset = recordOffset + fieldOffsets[fieldIndex];
+		switch (field.getDataType()) {
+		case 'F':
+		case 'N':
+		case 'C':
+			return NumericFieldParser.parseInt(recordBuffer, offset, offset + field.getFieldLength());
+		case 'D':
+			if (dateType == DateType.EPOCH_DAY) {
+				return DBFDateCodec.decodeEpochDay(recordBuffer, offset);
+			} else {
+				throw new NumberFormatException("The field " + field.getName() + " is a date that is not read as an epoch day!");
+			}
+		default:
+			throw new NumberFormatException("The field " + field.getName() + " is not numeric!");
+		}
+	}
+	
+	/**
+		Returns a D field of the current row as an epoch day, i.e. the number 
+		of days since January 1st, 1970. The date is decoded directly from the 
+		digits of the row.
+		@param fieldIndex the index of the field
+		@return the epoch day or DBFDateCodec.MISSING if the field is blank
+	*/
+	public int getEpochDay(int fieldIndex) throws IOException {
+		checkCurrentRecord();
+		DBFField field = getHeader().getField(fieldIndex);
+		if (field.getDataType() != DBFField.FIELD_TYPE_D) {
+			throw new IllegalArgumentException("The field " + field.getName() + " is not a date!");
+		}
+		if (!isProjected(fieldIndex)) {
+			return DBFDateCodec.MISSING;
+		}
+		return DBFDateCodec.decodeEpochDay(recordBuffer, recordOffset + fieldOffsets[fieldIndex]);
+	}
+	
+	@Override
+	public String getString(int fieldIndex) throws IOException {
+		checkCurrentRecord();
+		if (!isProjected(fieldIndex)) {
+			return null;
+		}
+		Object value = decodeField(recordBuffer, recordOffset, fieldIndex);
+		return value == null ? null : value.toString();
+	}
 	
 	@Override
 	public void closeInternalStream() {
 		try {
-			dataInputStream.close(); 
+			channel.close(); 
 		} catch (IOException e) {}
+		if (memoFile != null) {
+			try {
+				memoFile.close();
+			} catch (IOException e) {}
+			memoFile = null;
+		}
 	}
 
 }
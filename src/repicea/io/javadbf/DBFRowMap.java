@@ -0,0 +1,130 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The DBFRowMap class provides the position of each row in a DBF file. <p>
+ *
+ * The records have a fixed length but the deleted records are not considered as rows. The map
+ * is based on a single scan of the deletion flags. If there is no deleted record, the row index
+ * is the record index and no array is stored. An instance is immutable and it can be shared 
+ * by several readers on the same file.
+ * @author Mathieu Fortin - October 2026
+ */
+final class DBFRowMap {
+
+	private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+	private static final byte END_OF_DATA = 0x1A;
+	private static final byte DELETED = '*';
+
+	private final long dataStart;
+	private final int recordLength;
+	private final int numberOfRows;
+	private final int[] recordIndices;		// null if there is no deleted record
+
+	private DBFRowMap(long dataStart, int recordLength, int numberOfRows, int[] recordIndices) {
+		this.dataStart = dataStart;
+		this.recordLength = recordLength;
+		this.numberOfRows = numberOfRows;
+		this.recordIndices = recordIndices;
+	}
+
+	/**
+	 * Scan the deletion flags of the records. The scan stops at the end-of-data marker or at the
+	 * end of the file.
+	 * @param filename the DBF file
+	 * @param dataStart the position of the first record, i.e. the header length
+	 * @param recordLength the length of the records including the deletion flag
+	 * @return a DBFRowMap instance
+	 * @throws IOException if an I/O error has occurred
+	 */
+	static DBFRowMap scan(String filename, long dataStart, int recordLength) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			long numberOfRecordsInFile = Math.max(0, (channel.size() - dataStart) / recordLength);
+			int recordsPerBlock = Math.max(1, SCAN_BUFFER_SIZE / recordLength);
+			ByteBuffer block = ByteBuffer.allocate(recordsPerBlock * recordLength);
+			int[] recordIndices = null;
+			int numberOfRows = 0;
+			long recordIndex = 0;
+			while (recordIndex < numberOfRecordsInFile) {
+				block.clear();
+				long position = dataStart + recordIndex * recordLength;
+				while (block.hasRemaining()) {
+					int read = channel.read(block, position + block.position());
+					if (read == -1) {
+						break;
+					}
+				}
+				int recordsInBlock = block.position() / recordLength;
+				for (int i = 0; i < recordsInBlock; i++) {
+					byte flag = block.get(i * recordLength);
+					if (flag == END_OF_DATA) {
+						return new DBFRowMap(dataStart, recordLength, numberOfRows, trim(recordIndices, numberOfRows));
+					} else if (flag == DELETED) {
+						if (recordIndices == null) {		// the first deleted record: the previous rows are mapped to the identical records
+							recordIndices = new int[(int) Math.min(Integer.MAX_VALUE, numberOfRecordsInFile)];
+							for (int j = 0; j < numberOfRows; j++) {
+								recordIndices[j] = j;
+							}
+						}
+					} else {
+						if (recordIndices != null) {
+							recordIndices[numberOfRows] = (int) (recordIndex + i);
+						}
+						numberOfRows++;
+					}
+				}
+				if (recordsInBlock == 0) {		// the file is shorter than expected
+					break;
+				}
+				recordIndex += recordsInBlock;
+			}
+			return new DBFRowMap(dataStart, recordLength, numberOfRows, trim(recordIndices, numberOfRows));
+		}
+	}
+
+	private static int[] trim(int[] recordIndices, int numberOfRows) {
+		return recordIndices == null ? null : Arrays.copyOf(recordIndices, numberOfRows);
+	}
+
+	/**
+	 * Provide the number of rows, i.e. the records that are not deleted.
+	 * @return an integer
+	 */
+	int getNumberOfRows() {return numberOfRows;}
+
+	/**
+	 * Provide the position of a row in the file.
+	 * @param rowIndex the index of the row (0 is the first row)
+	 * @return the offset in bytes from the beginning of the file
+	 */
+	long getPosition(int rowIndex) {
+		long recordIndex = recordIndices == null ? rowIndex : recordIndices[rowIndex];
+		return dataStart + recordIndex * recordLength;
+	}
+
+}
@@ -12,22 +12,26 @@
 */
 package repicea.io.javadbf;
 
-import java.io.DataOutput;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
 import java.util.List;
 
 import repicea.io.FormatField;
 import repicea.io.FormatWriter;
 import repicea.io.GExportFieldDetails;
+import repicea.io.NumericFieldFormatter;
 import repicea.io.REpiceaFileFilter;
 import repicea.io.REpiceaFileFilter.FileType;
 
@@ -39,6 +43,11 @@ import repicea.io.REpiceaFileFilter.FileType;
 	add them to the DBFWriter object<br>
 	add records using the addRecord() method and then<br>
 	call write() method.
+
+	<p>
+	The values of the memo fields are CharSequence instances. When the 
+	writer works on a file, the memos are appended to the .dbt file with the 
+	same name. Otherwise, the memo fields are left blank.
 */
 public class DBFWriter extends FormatWriter<DBFHeader> {
 
@@ -46,10 +55,18 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 	private List<Object> v_records = new ArrayList<Object>();
 	private int recordCount = 0;
 	private RandomAccessFile raf = null; /* Open and append records to an existing DBF */
+	private FileChannel channel;		/* the channel of raf */
+	private ByteBuffer writeBuffer;		/* the records that have not been written to the channel yet */
 
+	private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+	
 	private final int END_OF_DATA = 0x1A;
 
 	private String characterSetName = "8859_1";
+	private Charset charset = Charset.forName(characterSetName);
+	
+	private NumericFieldFormatter[] numberFormatters;	/* one per numeric field */
+	private DBFMemoFile memoFile;	/* opened with the first memo */
 
 	
 	
@@ -73,6 +90,7 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 		super(dbfFile, false);
 		try {
 			this.raf = new RandomAccessFile(dbfFile, "rw");
+			this.channel = raf.getChannel();
 
 			/* before proceeding check whether the passed in File object 
 		 is an empty/non-existent file or not.
@@ -126,6 +144,7 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 			outputFile.createNewFile();
 			raf = new RandomAccessFile(outputFile, "rw");
 		}
+		channel = raf.getChannel();
 
 		
 /*		
@@ -164,7 +183,10 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 	*/
 	public String getCharactersetName() {return this.characterSetName;}
 
-	public void setCharactersetName( String characterSetName) {this.characterSetName = characterSetName;}
+	public void setCharactersetName( String characterSetName) {
+		this.charset = Charset.forName(characterSetName);
+		this.characterSetName = characterSetName;
+	}
 
 	
 	
@@ -257,7 +279,7 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 					break;
 
 				case 'D':
-					if( !( values[i] instanceof Date)) {
+					if( !( values[i] instanceof Date) && !( values[i] instanceof LocalDate)) {
 						throw new DBFException( "Invalid value for field " + i);
 					}
 					break;
@@ -268,6 +290,12 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 						throw new DBFException( "Invalid value for field " + i);
 					}
 					break;
+
+				case 'M':
+					if( !(values[i] instanceof CharSequence)) {
+						throw new DBFException( "Invalid value for field " + i);
+					}
+					break;
 			}
 		}
 
@@ -277,7 +305,7 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 		} else {
 
 			try {
-				writeRecord(this.raf, values);
+				bufferRecord(values);
 				this.recordCount++;
 			} catch (IOException e) {
 				throw new DBFException("Error occured while writing record. " + e.getMessage());
@@ -285,6 +313,110 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 		}
 	}
 
+	/**
+	 * Add records from columns. <p>
+	 * 
+	 * There is one column per field. The column of a N or F field is a double array, in which NaN stands for a 
+	 * missing value. The columns of the C, M and L fields are respectively String, CharSequence and Boolean arrays. 
+	 * The column of a D field is either a Date array, a LocalDate array or an int array of epoch days, in which 
+	 * DBFDateCodec.MISSING stands for a missing value. The columns are checked once and the records are then encoded directly into the write buffer 
+	 * without creating any Object array. The number of records in the header is updated when the writer 
+	 * is closed.
+	 * @param numberOfRecords the number of records, which are the first elements of the columns
+	 * @param columns the columns in the order of the fields
+	 * @throws IOException if the columns do not match the fields or if an I/O error has occurred
+	 */
+	public void addColumns(int numberOfRecords, Object... columns) throws IOException {
+		checkColumns(numberOfRecords, columns);
+		int nbFields = getHeader().getNumberOfFields();
+		if (this.raf == null) {
+			for (int i = 0; i < numberOfRecords; i++) {
+				Object[] values = new Object[nbFields];
+				for (int j = 0; j < nbFields; j++) {
+					if (columns[j] instanceof double[]) {
+						double value = ((double[]) columns[j])[i];
+						values[j] = Double.isNaN(value) ? null : value;
+					} else if (columns[j] instanceof int[]) {
+						int epochDay = ((int[]) columns[j])[i];
+						values[j] = epochDay == DBFDateCodec.MISSING ? null : LocalDate.ofEpochDay(epochDay);
+					} else {
+						values[j] = ((Object[]) columns[j])[i];
+					}
+				}
+				addRecord(values);
+			}
+			return;
+		}
+		int recordLength = getRecordLength();
+		if (writeBuffer == null) {
+			writeBuffer = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, recordLength));
+		}
+		for (int i = 0; i < numberOfRecords; i++) {
+			if (writeBuffer.remaining() < recordLength) {
+				flushBuffer();
+			}
+			int start = writeBuffer.position();
+			try {
+				writeBuffer.put( (byte)' ');
+				for (int j = 0; j < nbFields; j++) {
+					if (columns[j] instanceof double[]) {
+						putNumber(writeBuffer, j, ((double[]) columns[j])[i]);
+					} else if (columns[j] instanceof int[]) {
+						putEpochDay(writeBuffer, ((int[]) columns[j])[i]);
+					} else {
+						encodeField(writeBuffer, j, ((Object[]) columns[j])[i]);
+					}
+				}
+			} catch (IOException e) {
+				writeBuffer.position(start);		// the incomplete record is discarded
+				throw new DBFException("Error occured while writing record. " + e.getMessage());
+			}
+			this.recordCount++;
+		}
+	}
+	
+	private void checkColumns(int numberOfRecords, Object[] columns) throws IOException {
+		if (getHeader().getNumberOfFields() == 0) {
+			throw new IOException( "Fields should be set before adding records");
+		}
+		if (columns == null || columns.length != getHeader().getNumberOfFields()) {
+			throw new IOException( "Invalid columns. The number of columns should be equal to the number of fields");
+		}
+		for (int j = 0; j < columns.length; j++) {
+			Class<?> expectedClass;
+			switch (getHeader().getField(j).getDataType()) {
+				case 'F':
+				case 'N':
+					expectedClass = double[].class;
+					break;
+				case 'C':
+					expectedClass = String[].class;
+					break;
+				case 'M':
+					expectedClass = CharSequence[].class;
+					break;
+				case 'L':
+					expectedClass = Boolean[].class;
+					break;
+				case 'D':
+					if (columns[j] instanceof LocalDate[] || columns[j] instanceof int[]) {
+						expectedClass = columns[j].getClass();
+					} else {
+						expectedClass = Date[].class;
+					}
+					break;
+				default:
+					throw new DBFException( "Unknown field type " + getHeader().getField(j).getDataType());
+			}
+			if (!expectedClass.isInstance(columns[j])) {
+				throw new DBFException( "Invalid column for field " + j + ". A " + expectedClass.getSimpleName() + " instance is expected");
+			}
+			if (Array.getLength(columns[j]) < numberOfRecords) {
+				throw new DBFException( "The column of field " + j + " has fewer than " + numberOfRecords + " elements");
+			}
+		}
+	}
+
 	/**
 	 * Writes the set data to the OutputStream.
 	 * @param out the OutputStream instance to which the data are sent
@@ -302,19 +434,21 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 				getHeader().write( outStream);
 
 				/* Now write all the records */
+				ByteBuffer recordBuffer = ByteBuffer.allocate(getRecordLength());
 				int t_recCount = v_records.size();
 				for (int i = 0; i < t_recCount; i++) { /* iterate through records */
 //					Object[] t_values = (Object[]) v_records.elementAt( i);
 					Object[] t_values = (Object[]) v_records.get(i);
-					writeRecord(outStream, t_values);
+					recordBuffer.clear();
+					encodeRecord(recordBuffer, t_values);
+					outStream.write(recordBuffer.array(), 0, recordBuffer.position());
 				}
 
 				outStream.write( END_OF_DATA);
 				outStream.flush();
 			} else {
 				/* everything is written already. just update the header for record count and the END_OF_DATA mark */
-				updateFileBeforeClosing();
-				this.raf.close();
+				close();
 			}
 
 		} catch(IOException e) {
@@ -323,113 +457,251 @@ public class DBFWriter extends FormatWriter<DBFHeader> {
 	}
 
 	
+	/*
+	 * The header is written only once with the final number of records. 
+	 */
 	private void updateFileBeforeClosing() throws IOException {
+		flushBuffer();
 		getHeader().setNumberOfRecords(this.recordCount);
-//		long pointer = raf.getFilePointer();
-		raf.seek(0);			// get back to the header
-		getHeader().write(raf);
-		raf.seek(raf.length()); // go to the end of the file
-//		raf.seek(pointer); // go to the end of the file
-		raf.writeByte( END_OF_DATA); // put a end of data
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		getHeader().write(new DataOutputStream(headerBytes));
+		writeFully(ByteBuffer.wrap(headerBytes.toByteArray()), 0);		// get back to the header
+		writeFully(ByteBuffer.wrap(new byte[] {END_OF_DATA}), channel.position());	// put a end of data after the last record
 	}
 	
+	private void writeFully(ByteBuffer bb, long position) throws IOException {
+		while (bb.hasRemaining()) {
+			position += channel.write(bb, position);
+		}
+	}
 	
 	public void write() throws DBFException {
 		write(null);
 	}
 
-	private void writeRecord(DataOutput dataOutput, Object[] objectArray) 	throws IOException {
-
-		dataOutput.write( (byte)' ');
-		for (int j = 0; j < getHeader().getNumberOfFields(); j++) { /* iterate throught fields */
-
-			switch(getHeader().getField(j).getDataType()) {
-
-				case 'C':
-					if( objectArray[j] != null) {
-						String str_value = objectArray[j].toString();	
-						dataOutput.write( Utils.textPadding( str_value, characterSetName, getHeader().getField(j).getFieldLength()));
-					} else {
-						dataOutput.write( Utils.textPadding( "", this.characterSetName, getHeader().getField(j).getFieldLength()));
-					}
-
-					break;
-
-				case 'D':
-					if( objectArray[j] != null) {
+	private int getRecordLength() {
+		int recordLength = 1;		/* the deletion flag */
+		for (int j = 0; j < getHeader().getNumberOfFields(); j++) {
+			recordLength += getHeader().getField(j).getFieldLength();
+		}
+		return recordLength;
+	}
+	
+	/*
+	 * The records are accumulated in the buffer, which is written to the channel once it is full. 
+	 */
+	private void bufferRecord(Object[] values) throws IOException {
+		int recordLength = getRecordLength();
+		if (writeBuffer == null) {
+			writeBuffer = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, recordLength));
+		}
+		if (writeBuffer.remaining() < recordLength) {
+			flushBuffer();
+		}
+		int start = writeBuffer.position();
+		try {
+			encodeRecord(writeBuffer, values);
+		} catch (IOException e) {
+			writeBuffer.position(start);		// the incomplete record is discarded
+			throw e;
+		}
+	}
 
-						GregorianCalendar calendar = new GregorianCalendar();
-						calendar.setTime( (Date)objectArray[j]);
-						dataOutput.write( String.valueOf( calendar.get( Calendar.YEAR)).getBytes());
-						dataOutput.write( Utils.textPadding( String.valueOf( calendar.get( Calendar.MONTH)+1), this.characterSetName, 2, Utils.ALIGN_RIGHT, (byte)'0'));
-						dataOutput.write( Utils.textPadding( String.valueOf( calendar.get( Calendar.DAY_OF_MONTH)), this.characterSetName, 2, Utils.ALIGN_RIGHT, (byte)'0'));
-					} else {
-						dataOutput.write( "        ".getBytes());
-					}
-					break;
+	/*
+	 * The memo file is opened with the first memo so that no file is created if all the memos are null. 
+	 */
+	private DBFMemoFile getMemoFile() throws IOException {
+		if (memoFile == null) {
+			File existingFile = DBFMemoFile.findMemoFile(getFilename());
+			if (appendFile && existingFile != null) {
+				memoFile = DBFMemoFile.openForAppending(existingFile, getHeader().signature);
+			} else {
+				memoFile = DBFMemoFile.create(existingFile != null ? existingFile : DBFMemoFile.getNewMemoFile(getFilename()));
+			}
+		}
+		return memoFile;
+	}
 
-				case 'F':
+	private void closeMemoFile() throws IOException {
+		if (memoFile != null) {
+			memoFile.close();
+			memoFile = null;
+		}
+	}
+	
+	private void flushBuffer() throws IOException {
+		if (writeBuffer != null && writeBuffer.position() > 0) {
+			writeBuffer.flip();
+			while (writeBuffer.hasRemaining()) {
+				channel.write(writeBuffer);
+			}
+			writeBuffer.clear();
+		}
+	}
 
-					if( objectArray[j] != null) {
-						dataOutput.write( Utils.doubleFormating( (Double)objectArray[j], this.characterSetName, getHeader().getField(j).getFieldLength(), getHeader().getField(j).getDecimalCount()));
-					}
-					else {
+	private NumericFieldFormatter getNumberFormatter(int j) {
+		if (numberFormatters == null) {
+			numberFormatters = new NumericFieldFormatter[getHeader().getNumberOfFields()];
+		}
+		if (numberFormatters[j] == null) {
+			numberFormatters[j] = new NumericFieldFormatter(getHeader().getField(j).getFieldLength(), getHeader().getField(j).getDecimalCount());
+		}
+		return numberFormatters[j];
+	}
+	
+	/*
+	 * Same as the Utils.textPadding method but the bytes are put directly into the buffer.
+	 */
+	private void putText(ByteBuffer buffer, String text, int length, boolean alignRight, byte paddingByte) {
+		byte[] bytes = (text.length() > length ? text.substring(0, length) : text).getBytes(charset);
+		int n = Math.min(bytes.length, length);
+		if (alignRight) {
+			for (int i = n; i < length; i++) {
+				buffer.put(paddingByte);
+			}
+			buffer.put(bytes, 0, n);
+		} else {
+			buffer.put(bytes, 0, n);
+			for (int i = n; i < length; i++) {
+				buffer.put(paddingByte);
+			}
+		}
+	}
+	
+	/*
+	 * A missing epoch day is written as a blank date.
+	 */
+	private static void putEpochDay(ByteBuffer buffer, int epochDay) {
+		if (epochDay == DBFDateCodec.MISSING) {
+			for (int i = 0; i < 8; i++) {
+				buffer.put((byte)' ');
+			}
+		} else {
+			DBFDateCodec.encodeEpochDay(epochDay, buffer.array(), buffer.arrayOffset() + buffer.position());
+			buffer.position(buffer.position() + 8);
+		}
+	}
+	
+	/*
+	 * The block pointer is a little-endian integer if the field has four bytes or a number in ASCII digits otherwise.
+	 */
+	private void putBlockPointer(ByteBuffer buffer, int j, int block) {
+		int fieldLength = getHeader().getField(j).getFieldLength();
+		if (fieldLength == 4) {
+			buffer.put((byte) block).put((byte) (block >>> 8)).put((byte) (block >>> 16)).put((byte) (block >>> 24));
+		} else {
+			getNumberFormatter(j).format((long) block, buffer.array(), buffer.arrayOffset() + buffer.position());
+			buffer.position(buffer.position() + fieldLength);
+		}
+	}
+	
+	/*
+	 * NaN stands for a missing value as does a null Double instance in the records.
+	 */
+	private void putNumber(ByteBuffer buffer, int j, double value) {
+		int fieldLength = getHeader().getField(j).getFieldLength();
+		if (Double.isNaN(value)) {
+			putText(buffer, "?", fieldLength, true, (byte)' ');
+		} else {
+			getNumberFormatter(j).format(value, buffer.array(), buffer.arrayOffset() + buffer.position());
+			buffer.position(buffer.position() + fieldLength);
+		}
+	}
+	
+	private void encodeRecord(ByteBuffer buffer, Object[] objectArray) 	throws IOException {
 
-						dataOutput.write( Utils.textPadding( "?", this.characterSetName, getHeader().getField(j).getFieldLength(), Utils.ALIGN_RIGHT));
-					}
+		buffer.put( (byte)' ');
+		for (int j = 0; j < getHeader().getNumberOfFields(); j++) { /* iterate throught fields */
+			encodeField(buffer, j, objectArray[j]);
+		}	/* iterating through the fields */
+	}
 
-					break;
+	private void encodeField(ByteBuffer buffer, int j, Object value) throws IOException {
+		int fieldLength = getHeader().getField(j).getFieldLength();
+		switch(getHeader().getField(j).getDataType()) {
 
-				case 'N':
+			case 'C':
+				if( value != null) {
+					putText(buffer, value.toString(), fieldLength, false, (byte)' ');
+				} else {
+					putText(buffer, "", fieldLength, false, (byte)' ');
+				}
 
-					if( objectArray[j] != null) {
+				break;
 
-						dataOutput.write(
-							Utils.doubleFormating( (Double)objectArray[j], this.characterSetName, getHeader().getField(j).getFieldLength(), getHeader().getField(j).getDecimalCount()));
-					}
-					else {
+			case 'D':
+				if( value instanceof LocalDate) {
+					putEpochDay(buffer, (int) ((LocalDate) value).toEpochDay());
+				} else if( value != null) {
+					putEpochDay(buffer, DBFDateCodec.toEpochDay((Date) value));
+				} else {
+					putText(buffer, "", 8, false, (byte)' ');
+				}
+				break;
 
-						dataOutput.write( 
-							Utils.textPadding( "?", this.characterSetName, getHeader().getField(j).getFieldLength(), Utils.ALIGN_RIGHT));
-					}
+			case 'F':
+			case 'N':
 
-					break;
-				case 'L':
+				if( value != null) {
+					putNumber(buffer, j, ((Double) value).doubleValue());
+				}
+				else {
+					putText(buffer, "?", fieldLength, true, (byte)' ');
+				}
 
-					if( objectArray[j] != null) {
+				break;
+			case 'L':
 
-						if( (Boolean)objectArray[j] == Boolean.TRUE) {
+				if( value != null) {
 
-							dataOutput.write( (byte)'T');
-						}
-						else {
+					if( (Boolean) value == Boolean.TRUE) {
 
-							dataOutput.write((byte)'F');
-						}
+						buffer.put( (byte)'T');
 					}
 					else {
 
-						dataOutput.write( (byte)'?');
+						buffer.put((byte)'F');
 					}
+				}
+				else {
 
-					break;
+					buffer.put( (byte)'?');
+				}
 
-				case 'M':
+				break;
 
-					break;
+			case 'M':
+				if (value != null && raf != null && ((CharSequence) value).length() > 0) {
+					putBlockPointer(buffer, j, getMemoFile().write((CharSequence) value, charset));
+				} else {
+					putText(buffer, "", fieldLength, false, (byte)' ');		/* a blank block pointer stands for no memo */
+				}
+				break;
 
-				default:	
-					throw new DBFException( "Unknown field type " + getHeader().getField(j).getDataType());
-			}
-		}	/* iterating through the fields */
+			default:	
+				throw new DBFException( "Unknown field type " + getHeader().getField(j).getDataType());
+		}
 	}
 	
+	/**
+	 * Write the remaining records, the header and the end of data mark and close the file. <p>
+	 * 
+	 * The file is closed even if one of these writes fails. In such a case, the exception is thrown.
+	 * @throws IOException if an I/O error has occurred
+	 */
 	@Override
-	public void close() {
-		try {
-			updateFileBeforeClosing();
-			raf.close();
-		} catch (Exception e) {}
+	public void close() throws IOException {
+		if (raf != null && channel.isOpen()) {
+			try {
+				updateFileBeforeClosing();
+			} finally {
+				try {
+					closeMemoFile();
+				} finally {
+					raf.close();
+				}
+			}
+		}
 	}
 
 	@Override
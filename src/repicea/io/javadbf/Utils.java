@@ -14,9 +14,10 @@ package repicea.io.javadbf;
 import java.io.DataInput;
 import java.io.IOException;
 import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
 
+import repicea.io.NumericFieldFormatter;
+
 /**
 	Miscelaneous functions required by the JavaDBF package.
 */
@@ -133,31 +134,7 @@ public final class Utils {
 
 	public static byte[] doubleFormating( Double doubleNum, String characterSetName, int fieldLength, int sizeDecimalPart) throws java.io.UnsupportedEncodingException{
 
-		int sizeWholePart = fieldLength - (sizeDecimalPart>0?( sizeDecimalPart + 1):0);
-
-		StringBuffer format = new StringBuffer( fieldLength);
-
-		for( int i=0; i<sizeWholePart; i++) {
-
-			format.append( "#");
-		}
-
-		if( sizeDecimalPart > 0) {
-
-			format.append( ".");
-
-			for( int i=0; i<sizeDecimalPart; i++) {
-
-				format.append( "0");
-			}
-		}	
-
-		DecimalFormat df = new DecimalFormat( format.toString());
-		
-		// force decimal separator to be '.'
-		DecimalFormatSymbols symbols =  df.getDecimalFormatSymbols();
-		symbols.setDecimalSeparator('.');
-		df.setDecimalFormatSymbols(symbols);
+		DecimalFormat df = NumericFieldFormatter.createDecimalFormat( fieldLength, sizeDecimalPart);
 		
 		return textPadding( df.format( doubleNum.doubleValue()).toString(), characterSetName, fieldLength, ALIGN_RIGHT);
 	}
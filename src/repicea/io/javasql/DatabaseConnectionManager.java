@@ -20,47 +20,118 @@ package repicea.io.javasql;
 
 import java.io.File;
 import java.io.IOException;
+import java.security.InvalidParameterException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import repicea.io.REpiceaFileFilter;
 import repicea.io.REpiceaFileFilter.FileType;
 
 /**
  * The DatabaseConnectionManager ensures that only one connection is made
- * to a particular database. It handles the closing of the connection as well.
+ * to a particular database. It handles the closing of the connection as well. <p>
+ * 
+ * The databases are either MS Access files or JDBC URLs (e.g. "jdbc:hsqldb:file:data/inventory"). 
+ * In the latter case, the driver is found by the DriverManager class, which means any JDBC 4 driver 
+ * on the class path can be used. The credentials, if any, are part of the URL. <p>
+ * 
+ * The connections are counted by reference. When the last user of a connection is removed, the 
+ * connection is kept alive for a while so that the next user does not have to reload the database. 
+ * It is closed once this keep-alive period has elapsed without any new user. The connections that
+ * are still open are closed when the JVM shuts down.
  * @author Mathieu Fortin - November 2012
  */
 public class DatabaseConnectionManager {
 
-	private static Map<String, Connection> ConnectionUrls = new HashMap<String, Connection>();
-	private static Map<Object, Connection> ConnectionUsers = new HashMap<Object, Connection>();
+	/**
+	 * The default keep-alive period of the idle connections in milliseconds.
+	 */
+	public static final long DEFAULT_KEEP_ALIVE_MILLIS = 60000;
 	
-	private static final Object Lock = new Object();
-	private static boolean isLocked = false;
-
-	private static void lock() {
-		synchronized(Lock) {
-			while (isLocked) {
-				try {
-					Lock.wait();
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
+	/*
+	 * A connection and the number of its users. The instance is modified only while its lock is held. The 
+	 * connection is opened under this lock, so that the users of other databases are not blocked. An entry 
+	 * that is retired has been removed from the ConnectionUrls map and it cannot be used anymore.
+	 */
+	private static class ConnectionEntry {
+		
+		private volatile Connection connection;
+		private int numberOfUsers;
+		private ScheduledFuture<?> evictionTask;
+		private int idlePeriod;			// incremented each time the connection becomes idle
+		private long lastModified;		// the state of the file when the connection became idle
+		private long length;
+		private boolean isRetired;
+		
+		/*
+		 * Check if the file has been modified by another process while the connection was idle.
+		 */
+		private boolean isStale(String dataBaseUrl) {
+			if (evictionTask == null || isJDBCUrl(dataBaseUrl)) {
+				return false;
 			}
-			isLocked = true;
+			File file = new File(dataBaseUrl);
+			return file.lastModified() != lastModified || file.length() != length;
+		}
+
+		/*
+		 * Remove the entry from the map and return the connection, which must be closed once the lock is released.
+		 */
+		private Connection retire(String url) {
+			isRetired = true;
+			cancelEviction(this);
+			ConnectionUrls.remove(url, this);
+			Connection formerConnection = connection;
+			connection = null;
+			return formerConnection;
 		}
 	}
+	
+	private static final ConcurrentHashMap<String, ConnectionEntry> ConnectionUrls = new ConcurrentHashMap<String, ConnectionEntry>();
+	private static final ConcurrentHashMap<Object, String> ConnectionUsers = new ConcurrentHashMap<Object, String>();
 
-	private static void unlock() {
-		synchronized(Lock) {
-			isLocked = false;
-			Lock.notifyAll();
+	private static volatile long KeepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+	
+	private static final ScheduledExecutorService Evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "DatabaseConnectionManager-evictor");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnectionManager::closeAll, "DatabaseConnectionManager-shutdown"));
+	}
+
+	/**
+	 * Set how long the connections remain open once they have no user.
+	 * @param keepAliveMillis a duration in milliseconds, 0 to close the connections as soon as they have no user
+	 */
+	public static void setKeepAlive(long keepAliveMillis) {
+		if (keepAliveMillis < 0) {
+			throw new InvalidParameterException("The keep-alive period must be positive or null!");
 		}
+		KeepAliveMillis = keepAliveMillis;
+	}
+
+	/**
+	 * Return how long the connections remain open once they have no user.
+	 * @return a duration in milliseconds
+	 */
+	public static long getKeepAlive() {return KeepAliveMillis;}
+	
+	/**
+	 * Check if the database is identified by a JDBC URL rather than a file.
+	 * @param dataBaseUrl the database url
+	 * @return a boolean
+	 */
+	public static boolean isJDBCUrl(String dataBaseUrl) {
+		return dataBaseUrl != null && dataBaseUrl.regionMatches(true, 0, "jdbc:", 0, 5);
 	}
 	
 	/**
@@ -68,27 +139,61 @@ public class DatabaseConnectionManager {
 	 * it creates the connection. Secondly, the method register the object as a user of
 	 * the connection.
 	 * @param user the object instance that uses the database connection
-	 * @param dataBaseUrl the database url
+	 * @param dataBaseUrl the database url, i.e. the path to the MS Access file or a JDBC URL
 	 * @throws IOException if there is a connection problem
 	 */
  	public static void registerConnectionUser(Object user, String dataBaseUrl) throws IOException {
- 		lock();
- 		dataBaseUrl = new File(dataBaseUrl).getAbsolutePath();
- 		Connection connection;
- 		if (!doesConnectionExist(dataBaseUrl)) {
- 	 		connection = getConnectionFromThisMSACCESSDataBase(dataBaseUrl);
- 	 		ConnectionUrls.put(dataBaseUrl, connection);
- 		} else {
- 			connection = ConnectionUrls.get(dataBaseUrl);
+ 		String url = isJDBCUrl(dataBaseUrl) ? dataBaseUrl : new File(dataBaseUrl).getAbsolutePath();
+ 		if (ConnectionUsers.putIfAbsent(user, url) != null) {
+ 			return;		// already registered
  		}
- 		if (!ConnectionUsers.containsKey(user)) {
- 	 		ConnectionUsers.put(user, connection);
+ 		while (true) {
+ 			ConnectionEntry entry = ConnectionUrls.computeIfAbsent(url, key -> new ConnectionEntry());
+ 			Connection staleConnection = null;
+ 			try {
+ 				synchronized (entry) {
+ 					if (entry.isRetired) {
+ 						continue;		// the entry has just been evicted, a new one is created
+ 					}
+ 					if (entry.connection != null && (entry.isStale(url) || isClosed(entry.connection))) {
+ 						cancelEviction(entry);
+ 						staleConnection = entry.connection;
+ 						entry.connection = null;
+ 					}
+ 					if (entry.connection == null) {
+ 						try {
+ 							entry.connection = isJDBCUrl(url) ? getConnectionFromThisJDBCUrl(url) : getConnectionFromThisMSACCESSDataBase(url);
+ 						} catch (IOException e) {
+ 							if (entry.numberOfUsers == 0) {
+ 								entry.retire(url);
+ 							}
+ 							ConnectionUsers.remove(user);
+ 							throw e;
+ 						}
+ 					}
+ 					cancelEviction(entry);
+ 					entry.numberOfUsers++;
+ 					return;
+ 				}
+ 			} finally {
+ 				close(staleConnection);
+ 			}
  		}
- 		unlock();
 	}
  	
- 	private static boolean doesConnectionExist(String dataBaseUrl) {
- 		return ConnectionUrls.containsKey(dataBaseUrl);
+ 	private static boolean isClosed(Connection connection) {
+ 		try {
+ 			return connection.isClosed();
+ 		} catch (SQLException e) {
+ 			return true;
+ 		}
+ 	}
+ 	
+ 	private static void cancelEviction(ConnectionEntry entry) {
+ 		if (entry.evictionTask != null) {
+ 			entry.evictionTask.cancel(false);
+ 			entry.evictionTask = null;
+ 		}
  	}
  	
  	/**
@@ -97,36 +202,99 @@ public class DatabaseConnectionManager {
  	 * @return a Connection instance
  	 */
  	public static Connection getUserConnection(Object user) {
- 		lock();
- 		Connection connection = ConnectionUsers.get(user);
- 		unlock();
- 		return connection;
+ 		String url = ConnectionUsers.get(user);
+ 		if (url == null) {
+ 			return null;
+ 		}
+ 		ConnectionEntry entry = ConnectionUrls.get(url);
+ 		return entry != null ? entry.connection : null;
  	}
  	
  	/**
- 	 * This method removes the user from the ConnectionUsers Map and
- 	 * eventually closes the connection if there is no user left.
+ 	 * This method removes the user from the ConnectionUsers Map. If there is no user left, the 
+ 	 * connection is closed after the keep-alive period.
  	 * @param user the Object instance that uses this connection
  	 * @throws SQLException if a database access error has occurred
  	 */
  	public static void removeUser(Object user) throws SQLException {
- 		lock();
- 		Connection connection = ConnectionUsers.remove(user);
- 		if (!ConnectionUsers.containsValue(connection)) {	// no user of this connection
- 			Entry<String, Connection> connectionEntry = null;
- 			for (Entry<String, Connection> entry : ConnectionUrls.entrySet()) {
- 				if (entry.getValue().equals(connection)) {
- 					connectionEntry = entry;
- 					break;
+ 		String url = ConnectionUsers.remove(user);
+ 		if (url == null) {
+ 			return;
+ 		}
+ 		ConnectionEntry entry = ConnectionUrls.get(url);
+ 		if (entry == null) {
+ 			return;
+ 		}
+ 		Connection connectionToClose = null;
+ 		synchronized (entry) {
+ 			if (entry.isRetired) {
+ 				return;
+ 			}
+ 			entry.numberOfUsers--;
+ 			if (entry.numberOfUsers > 0) {
+ 				return;
+ 			} else if (KeepAliveMillis == 0) {
+ 				connectionToClose = entry.retire(url);
+ 			} else {
+ 				File file = new File(url);
+ 				entry.lastModified = file.lastModified();
+ 				entry.length = file.length();
+ 				int idlePeriod = ++entry.idlePeriod;
+ 				entry.evictionTask = Evictor.schedule(() -> evict(url, entry, idlePeriod), KeepAliveMillis, TimeUnit.MILLISECONDS);
+ 			}
+ 		}
+ 		if (connectionToClose != null) {
+ 			connectionToClose.close();
+ 		}
+ 	}
+
+ 	/*
+ 	 * Close the connection if it is still idle since the given idle period.
+ 	 */
+ 	private static void evict(String url, ConnectionEntry entry, int idlePeriod) {
+ 		Connection connectionToClose = null;
+ 		synchronized (entry) {
+ 			if (!entry.isRetired && entry.numberOfUsers == 0 && entry.idlePeriod == idlePeriod) {
+ 				connectionToClose = entry.retire(url);
+ 			}
+ 		}
+ 		close(connectionToClose);
+ 	}
+ 	
+ 	/**
+ 	 * Close all the connections, including those that still have users. 
+ 	 */
+ 	public static void closeAll() {
+ 		for (String url : ConnectionUrls.keySet()) {
+ 			ConnectionEntry entry = ConnectionUrls.get(url);
+ 			if (entry != null) {
+ 				Connection connectionToClose;
+ 				synchronized (entry) {
+ 					connectionToClose = entry.retire(url);
  				}
+ 				close(connectionToClose);
  			}
- 			if (connectionEntry != null) {
- 				ConnectionUrls.remove(connectionEntry.getKey());
- 		 		connection.close();
+ 		}
+ 		ConnectionUsers.clear();
+ 	}
+ 	
+ 	private static void close(Connection connection) {
+ 		if (connection != null) {
+ 			try {
+ 				connection.close();
+ 			} catch (SQLException e) {
+ 				e.printStackTrace();
  			}
  		}
- 		unlock();
  	}
+ 	
+	private static Connection getConnectionFromThisJDBCUrl(String jdbcUrl) throws IOException {
+		try {
+			return DriverManager.getConnection(jdbcUrl);
+		} catch (SQLException e) {
+			throw new IOException("Error connecting to the database " + jdbcUrl + "!", e);
+		}
+	}
 	
 	/**
 	 * This static method returns a Connection instance as a result of the connection process to the
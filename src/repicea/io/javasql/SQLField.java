@@ -18,6 +18,7 @@
  */
 package repicea.io.javasql;
 
+import java.sql.Types;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -41,6 +42,14 @@ public class SQLField extends FormatField {
 		typeToClassMap.put("INTEGER", Integer.class);
 		typeToClassMap.put("TIMESTAMP", String.class);
 	}
+
+	private static Map<Class<?>, Integer> classToSQLTypeMap = new HashMap<Class<?>, Integer>();
+	static {
+		classToSQLTypeMap.put(String.class, Types.VARCHAR);
+		classToSQLTypeMap.put(Double.class, Types.DOUBLE);
+		classToSQLTypeMap.put(Float.class, Types.REAL);
+		classToSQLTypeMap.put(Integer.class, Types.INTEGER);
+	}
 	
 	private final Class clazz;
 	private final int precision;
@@ -54,7 +63,7 @@ public class SQLField extends FormatField {
 	 */
 	public SQLField(String name, String typeName, int precision) {
 		setName(name);
-		this.clazz = typeToClassMap.get(typeName);
+		this.clazz = typeName != null ? typeToClassMap.get(typeName.toUpperCase()) : null;
 		this.precision = precision;
 	}
 
@@ -67,6 +76,23 @@ public class SQLField extends FormatField {
 		return classToTypeMap.get(clazz);
 	}
 	
+	/**
+	 * Return the class of the values of this field.
+	 * @return a Class instance or null if the type is not supported
+	 */
+	Class<?> getFieldClass() {
+		return clazz;
+	}
+
+	/**
+	 * Return the type code of this field as defined in the java.sql.Types class.
+	 * @return an integer
+	 */
+	int getSQLType() {
+		Integer sqlType = classToSQLTypeMap.get(clazz);
+		return sqlType != null ? sqlType : Types.OTHER;
+	}
+
 	protected String getStatement() {
 		String statement = getName() + " " + getTypeName();
 		if (getTypeName().toLowerCase().equals("varchar")) {
@@ -27,14 +27,25 @@ import repicea.io.FormatHeader;
 
 public class SQLHeader extends FormatHeader<SQLField> {
 
+	protected static final int UNKNOWN_NUMBER_OF_RECORDS = -1;
+
 	protected String fieldListString;
 	
 	protected SQLHeader() {
 		super();
 	}
 
+	/**
+	 * Read the fields of the table. <p>
+	 * 
+	 * Only the metadata are retrieved. The number of records is unknown until the 
+	 * countRecords method is called.
+	 * @param stmt a Statement instance
+	 * @param table the name of the table
+	 * @throws SQLException if a database access error has occurred
+	 */
 	protected void read(Statement stmt, String table) throws SQLException {
-		ResultSet rs = stmt.executeQuery("select * from " + table);
+		ResultSet rs = stmt.executeQuery("select * from " + table + " where 1=0");
 		ResultSetMetaData rsmd = rs.getMetaData();
 	    int numColumns = rsmd.getColumnCount();
 	    for (int i = 1; i < numColumns+1; i++) {
@@ -45,14 +56,36 @@ public class SQLHeader extends FormatHeader<SQLField> {
 //	        int fieldType = rsmd.getColumnType(i);
 	        addField(new SQLField(fieldName, columnTypeName, length));
 	    }
+	    rs.close();
+	    setNumberOfRecords(UNKNOWN_NUMBER_OF_RECORDS);
+	}
 
-	    rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table);
-
-	    // Get the number of rows from the result set
+	/**
+	 * Count the records of the table.
+	 * @param stmt a Statement instance
+	 * @param table the name of the table
+	 * @param whereClause a condition on the records or null to count all of them
+	 * @throws SQLException if a database access error has occurred
+	 */
+	protected void countRecords(Statement stmt, String table, String whereClause) throws SQLException {
+	    String query = "SELECT COUNT(*) FROM " + table;
+	    if (whereClause != null) {
+	    	query += " WHERE " + whereClause;
+	    }
+	    ResultSet rs = stmt.executeQuery(query);
 	    rs.next();
 	    int rowcount = rs.getInt(1);
+	    rs.close();
 	    setNumberOfRecords(rowcount);
 	}
+
+	/**
+	 * Indicate whether the number of records has been computed.
+	 * @return a boolean
+	 */
+	protected boolean isNumberOfRecordsKnown() {
+		return getNumberOfRecords() != UNKNOWN_NUMBER_OF_RECORDS;
+	}
 	
 	protected String getFieldListString() {
 		if (fieldListString == null) {
@@ -69,6 +102,22 @@ public class SQLHeader extends FormatHeader<SQLField> {
 		return fieldListString;
 	}
 	
+	/**
+	 * Return the parameterized insert statement for this table, i.e. with a question mark for each field.
+	 * @param table the name of the table
+	 * @return a String
+	 */
+	protected String getInsertStatement(String table) {
+		StringBuilder sb = new StringBuilder("INSERT INTO ").append(table).append(" ").append(getFieldListString()).append(" VALUES (");
+		for (int i = 0; i < getNumberOfFields(); i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append("?");
+		}
+		return sb.append(")").toString();
+	}
+
 	@Override
 	protected int getNumberOfRecords() {return super.getNumberOfRecords();}
 	
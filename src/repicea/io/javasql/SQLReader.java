@@ -19,28 +19,60 @@
 package repicea.io.javasql;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.InvalidParameterException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 import repicea.io.FormatReader;
+import repicea.io.NumericFieldParser;
 
 /**
  * The SQLReader class makes it possible to read tables in 
- * Microsoft Access databases (*.mdb, *.accdb).
+ * Microsoft Access databases (*.mdb, *.accdb) or in any database identified by 
+ * a JDBC URL (e.g. "jdbc:hsqldb:file:data/inventory"). <p>
+ * 
+ * The header is read from the metadata of the table and the records are counted only 
+ * if the getRecordCount method is called. The records are fetched from the database in 
+ * blocks whose size can be set through the setFetchSize method through a forward-only cursor. 
+ * If the driver supports scrollable result sets, a scrollable cursor is used when the first reading 
+ * skips at least SCROLLABLE_SKIP_THRESHOLD records or when it is enabled through the 
+ * setScrollableCursorEnabled method. The skipped records are then not fetched and the reset 
+ * method moves the cursor back to the beginning instead of submitting the query again.
  * @author Mathieu Fortin - July 2012
  */
 public class SQLReader extends FormatReader<SQLHeader> {
 
+	/**
+	 * The default number of records fetched from the database at once.
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	/**
+	 * The number of skipped records from which the first query is submitted with a scrollable cursor.
+	 */
+	public static final int SCROLLABLE_SKIP_THRESHOLD = 10000;
+
 	private Connection dbConnection;
 	private String table;
 	private Statement statement;
 	private ResultSet resultSet;
+	private int[] columnIndices;		// the index of the column of each field in the result set or 0 if the field is not selected
+	private boolean isOnRecord;
+	private boolean isScrollingSupported;
+	private boolean isScrollableCursorEnabled;
+	private boolean isCursorScrollable;		// true if the current result set is scrollable
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+	private String whereClause;
+	private String currentQuery;
+	private String openingQuote = "";
+	private String closingQuote = "";
 	
 	/**
 	 * General constructor.
-	 * @param dataBaseUrl the database URL
+	 * @param dataBaseUrl the database URL, i.e. the path to the MS Access file or a JDBC URL
 	 * @param table the table to be read
 	 * @throws IOException if an I/O error has occurred
 	 */
@@ -53,6 +85,8 @@ public class SQLReader extends FormatReader<SQLHeader> {
 			this.table = table;
 			setFormatHeader(new SQLHeader());
 			getHeader().read(statement, table);
+			isScrollingSupported = dbConnection.getMetaData().supportsResultSetType(ResultSet.TYPE_SCROLL_INSENSITIVE);
+			setIdentifierQuotes(dataBaseUrl);
 			linePointer = 0;
 			statement.close();
 		} catch (SQLException e) {
@@ -62,15 +96,61 @@ public class SQLReader extends FormatReader<SQLHeader> {
 		}
 	}
 
+	/*
+	 * The projected column names are quoted so that names with spaces or reserved words can be selected. 
+	 * Access uses square brackets. A space as quote string means the database does not support quoting.
+	 */
+	private void setIdentifierQuotes(String dataBaseUrl) throws SQLException {
+		if (!DatabaseConnectionManager.isJDBCUrl(dataBaseUrl) || dataBaseUrl.toLowerCase().startsWith("jdbc:ucanaccess:")) {
+			openingQuote = "[";
+			closingQuote = "]";
+		} else {
+			String quote = dbConnection.getMetaData().getIdentifierQuoteString();
+			if (quote != null && !quote.trim().isEmpty()) {
+				openingQuote = quote;
+				closingQuote = quote;
+			}
+		}
+	}
+
+	/**
+	 * Reset the reader. <p>
+	 * 
+	 * If the cursor is scrollable and the query has not changed, the cursor is moved before 
+	 * the first record. Otherwise, the query is submitted again on the next reading.
+	 */
 	@Override
 	public void reset() throws IOException {
-		resultSet = null;		// the resultSet is set to null so that the next call to nextRecord(int) will re-instantiate this member 
+		isOnRecord = false;
+		if (resultSet != null) {
+			try {
+				if (isCursorScrollable && buildQuery().equals(currentQuery)) {
+					resultSet.beforeFirst();
+				} else {
+					closeResultSet();		// the resultSet is set to null so that the next call to nextRecord(int) will re-instantiate this member
+				}
+			} catch (SQLException e) {
+				closeResultSet();
+			}
+		}
 		linePointer = 0;
 		isClosed = false;
 	}
 	
+	private void closeResultSet() {
+		if (resultSet != null) {
+			try {
+				resultSet.close();
+				statement.close();
+			} catch (SQLException e) {}
+			resultSet = null;
+			isCursorScrollable = false;
+		}
+	}
+	
 	@Override
 	public void closeInternalStream() {
+		closeResultSet();
 		try {
 			DatabaseConnectionManager.removeUser(this);
 		} catch (SQLException e) {
@@ -80,28 +160,21 @@ public class SQLReader extends FormatReader<SQLHeader> {
 	
 	@Override
 	public Object[] nextRecord(int skipThisNumberOfLines) throws IOException {
+		isOnRecord = false;
 		try {
-			if (resultSet == null) {
-				statement = dbConnection.createStatement();
-				resultSet = statement.executeQuery("SELECT * FROM " + table);
-			}
-			
-			int numberOfLinesSkipped = 0;
-
-			while (numberOfLinesSkipped++ <= skipThisNumberOfLines) {
-				if (!resultSet.next()) {
-					return null;
-				} else {
-					linePointer++;
-				}
+			if (!moveToRecord(skipThisNumberOfLines)) {
+				return null;
 			}
 			
 			int numberOfFields = getHeader().getNumberOfFields();
 			Object[] objs = new Object[numberOfFields];
 			for (int i = 0; i < numberOfFields; i++) {
-				objs[i] = resultSet.getObject(i + 1);
+				if (columnIndices[i] == 0) {
+					continue;
+				}
+				objs[i] = resultSet.getObject(columnIndices[i]);
 				if (objs[i] == null) {
-					if (getHeader().getField(i).getTypeName().toLowerCase().equals("varchar")) { // patch because empty strings are returned as null
+					if (isVarchar(i)) { // patch because empty strings are returned as null
 						objs[i] = "";
 					}
 				}
@@ -113,6 +186,283 @@ public class SQLReader extends FormatReader<SQLHeader> {
 		}
 	}
 
+	/**
+	 * Skip some lines and then move the cursor to the next record. <p>
+	 * 
+	 * The values are then retrieved through the primitive getters of the ResultSet instance.
+	 */
+	@Override
+	public boolean advance(int skipThisNumberOfLines) throws IOException {
+		isOnRecord = false;
+		try {
+			isOnRecord = moveToRecord(skipThisNumberOfLines);
+			return isOnRecord;
+		} catch (SQLException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+	
+	private boolean moveToRecord(int skipThisNumberOfLines) throws SQLException {
+		if (resultSet == null) {
+			boolean scrollable = isScrollingSupported && (isScrollableCursorEnabled || skipThisNumberOfLines >= SCROLLABLE_SKIP_THRESHOLD);
+			statement = dbConnection.createStatement(scrollable ? ResultSet.TYPE_SCROLL_INSENSITIVE : ResultSet.TYPE_FORWARD_ONLY, 
+					ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(fetchSize);
+			currentQuery = buildQuery();
+			resultSet = statement.executeQuery(currentQuery);
+			isCursorScrollable = resultSet.getType() != ResultSet.TYPE_FORWARD_ONLY;	// the driver may downgrade the cursor
+		}
+		
+		if (isCursorScrollable && skipThisNumberOfLines > 0) {
+			if (!resultSet.relative(skipThisNumberOfLines + 1)) {
+				return false;
+			} else {
+				linePointer += skipThisNumberOfLines + 1;
+				return true;
+			}
+		}
+		
+		int numberOfLinesSkipped = 0;
+
+		while (numberOfLinesSkipped++ <= skipThisNumberOfLines) {
+			if (!resultSet.next()) {
+				return false;
+			} else {
+				linePointer++;
+			}
+		}
+		return true;
+	}
+	
+	/*
+	 * Select only the fields of the projection if any and only the records that meet the where clause.
+	 */
+	private String buildQuery() {
+		int numberOfFields = getHeader().getNumberOfFields();
+		columnIndices = new int[numberOfFields];
+		StringBuilder selectedFields = new StringBuilder();
+		int numberOfSelectedFields = 0;
+		for (int i = 0; i < numberOfFields; i++) {
+			if (isProjected(i)) {
+				if (numberOfSelectedFields > 0) {
+					selectedFields.append(", ");
+				}
+				selectedFields.append(openingQuote).append(getHeader().getField(i).getName()).append(closingQuote);
+				columnIndices[i] = ++numberOfSelectedFields;
+			}
+		}
+		if (numberOfSelectedFields == numberOfFields || numberOfSelectedFields == 0) {
+			for (int i = 0; i < numberOfFields; i++) {
+				columnIndices[i] = isProjected(i) ? i + 1 : 0;
+			}
+			return "SELECT * FROM " + table + getWhereStatement();
+		} else {
+			return "SELECT " + selectedFields.toString() + " FROM " + table + getWhereStatement();
+		}
+	}
+	
+	private String getWhereStatement() {
+		return whereClause == null ? "" : " WHERE " + whereClause;
+	}
+	
+	/**
+	 * Restrict the fields that are decoded. Only these fields are selected in the query. <p>
+	 * 
+	 * The query is submitted on the first reading. If the reader is not at the beginning, the projection 
+	 * applies to the query that follows the next reset.
+	 */
+	@Override
+	public void setProjection(int[] fieldIndices) {
+		super.setProjection(fieldIndices);
+		if (isAtBeginning()) {
+			closeResultSet();
+		}
+	}
+	
+	/**
+	 * Restrict the records that are read to those that meet a condition, for instance a range of values of 
+	 * an indexed field. <p>
+	 * 
+	 * The condition is written in SQL and it is appended to the query as a WHERE clause. Like the projection, it
+	 * applies to the query that follows the next reset if the reader is not at the beginning. The records are
+	 * counted again on the next call to the getRecordCount method.
+	 * @param whereClause a SQL condition (e.g. "PlotID BETWEEN 1 AND 100") or null to read all the records
+	 */
+	public void setWhereClause(String whereClause) {
+		this.whereClause = whereClause == null || whereClause.trim().isEmpty() ? null : whereClause;
+		getHeader().setNumberOfRecords(SQLHeader.UNKNOWN_NUMBER_OF_RECORDS);
+		if (isAtBeginning()) {
+			closeResultSet();
+		}
+	}
+	
+	/**
+	 * Return the condition on the records.
+	 * @return a String or null if all the records are read
+	 * @see #setWhereClause(String)
+	 */
+	public String getWhereClause() {return whereClause;}
+	
+	/**
+	 * Enable or disable the scrollable cursor. <p>
+	 * 
+	 * A scrollable cursor is worth it when many records are skipped or when the reader is reset 
+	 * several times, at the expense of the resources the database needs to keep the result set. 
+	 * The option applies to the query that follows the next reset. It has no effect if the driver 
+	 * does not support scrollable result sets.
+	 * @param isScrollableCursorEnabled a boolean
+	 */
+	public void setScrollableCursorEnabled(boolean isScrollableCursorEnabled) {
+		this.isScrollableCursorEnabled = isScrollableCursorEnabled;
+	}
+	
+	/**
+	 * Return true if the queries are submitted with a scrollable cursor.
+	 * @return a boolean
+	 * @see #setScrollableCursorEnabled(boolean)
+	 */
+	public boolean isScrollableCursorEnabled() {return isScrollableCursorEnabled;}
+	
+	/**
+	 * Set the number of records that are fetched from the database at once. A greater
+	 * number reduces the number of round trips at the expense of memory.
+	 * @param fetchSize a strictly positive integer
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 1) {
+			throw new InvalidParameterException("The fetch size must be strictly positive!");
+		}
+		this.fetchSize = fetchSize;
+		if (resultSet != null) {
+			try {
+				resultSet.setFetchSize(fetchSize);
+			} catch (SQLException e) {}		// the hint is ignored, it will apply to the next query
+		}
+	}
+	
+	/**
+	 * Return the number of records that are fetched from the database at once.
+	 * @return an integer
+	 */
+	public int getFetchSize() {return fetchSize;}
+	
+	/**
+	 * Provide the number of records. <p>
+	 * 
+	 * The records are counted in the database on the first call only.
+	 */
+	@Override
+	public int getRecordCount() {
+		if (!getHeader().isNumberOfRecordsKnown()) {
+			Statement countStatement = null;
+			try {
+				countStatement = dbConnection.createStatement();
+				getHeader().countRecords(countStatement, table, whereClause);
+			} catch (SQLException e) {
+				throw new UncheckedIOException(new IOException("Unable to count the records in table " + table, e));
+			} finally {
+				if (countStatement != null) {
+					try {
+						countStatement.close();
+					} catch (SQLException e) {}
+				}
+			}
+		}
+		return super.getRecordCount();
+	}
+	
+	private boolean isVarchar(int fieldIndex) {
+		return "varchar".equalsIgnoreCase(getHeader().getField(fieldIndex).getTypeName());
+	}
+	
+	private void checkCurrentRecord() {
+		if (!isOnRecord) {
+			throw new IllegalStateException("There is no current record! The advance method must be called first.");
+		}
+	}
+
+	/*
+	 * Return 0 if the field is not selected or if it is beyond the last field, in which case the value is null.
+	 */
+	private int getColumnIndex(int fieldIndex) {
+		return fieldIndex < columnIndices.length ? columnIndices[fieldIndex] : 0;
+	}
+	
+	/*
+	 * The numbers stored in character fields are parsed like those of the CSV files.
+	 */
+	private boolean isCharacterField(int fieldIndex) {
+		String typeName = getHeader().getField(fieldIndex).getTypeName();
+		return typeName != null && (typeName.toUpperCase().contains("CHAR") || "TEXT".equalsIgnoreCase(typeName) || "MEMO".equalsIgnoreCase(typeName));
+	}
+
+	@Override
+	public boolean isNull(int fieldIndex) throws IOException {
+		checkCurrentRecord();
+		try {
+			int columnIndex = getColumnIndex(fieldIndex);
+			if (columnIndex == 0) {
+				return true;
+			}
+			String value = resultSet.getString(columnIndex);
+			return value == null || NumericFieldParser.isMissing(value);
+		} catch (SQLException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+	
+	@Override
+	public double getDouble(int fieldIndex) throws IOException {
+		if (isNull(fieldIndex)) {
+			return Double.NaN;
+		}
+		try {
+			int columnIndex = getColumnIndex(fieldIndex);
+			if (isCharacterField(fieldIndex)) {
+				return NumericFieldParser.parseDouble(resultSet.getString(columnIndex));
+			}
+			double value = resultSet.getDouble(columnIndex);
+			return resultSet.wasNull() ? Double.NaN : value;
+		} catch (SQLException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public int getInt(int fieldIndex) throws IOException {
+		if (isNull(fieldIndex)) {
+			return 0;
+		}
+		try {
+			int columnIndex = getColumnIndex(fieldIndex);
+			if (isCharacterField(fieldIndex)) {
+				return NumericFieldParser.parseInt(resultSet.getString(columnIndex));
+			}
+			int value = resultSet.getInt(columnIndex);
+			return resultSet.wasNull() ? 0 : value;
+		} catch (SQLException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public String getString(int fieldIndex) throws IOException {
+		checkCurrentRecord();
+		try {
+			int columnIndex = getColumnIndex(fieldIndex);
+			if (columnIndex == 0) {
+				return null;
+			}
+			String value = resultSet.getString(columnIndex);
+			if (value == null && isVarchar(fieldIndex)) { // patch because empty strings are returned as null
+				return "";
+			}
+			return value;
+		} catch (SQLException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
 	/**
 	 * Returns the row index at which the reader is. The indices starts from 1.
 	 * @return an integer
@@ -20,8 +20,10 @@ package repicea.io.javasql;
 
 import java.io.File;
 import java.io.IOException;
+import java.security.InvalidParameterException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -35,14 +37,25 @@ import repicea.io.REpiceaFileFilter.FileType;
 
 /**
  * The SQLWriter class is an extension of the FormatWriter class, which is designed to write tables in MS Access
- * databases. 
+ * databases or in any database identified by a JDBC URL. <p>
+ * 
+ * The records are inserted through a prepared statement and sent to the database in batches. Each batch is 
+ * committed as a single transaction. The last batch is sent when the writer is closed.
  * @author Mathieu Fortin - October 2012
  */
 public class SQLWriter extends FormatWriter<SQLHeader> {
 
+	/**
+	 * The default number of records in a batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
 	private Connection dbConnection;
 	private Statement statement;
+	private PreparedStatement insertStatement;
 	private String table;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int pendingRecords;
 
 	/**
 	 * Constructor
@@ -62,21 +75,47 @@ public class SQLWriter extends FormatWriter<SQLHeader> {
 		setFormatHeader(new SQLHeader());
 
 		File outputFile = new File(getFilename());
+		if (!outputFile.exists()) {
+			throw new IOException("The database file does not exist!");
+		} else {
+			connect(appendTable);
+		} 
+	}
+
+	/**
+	 * Constructor for a database identified by a JDBC URL. The driver must be on the class path.
+	 * @param jdbcUrl the JDBC URL of the database (e.g. "jdbc:hsqldb:file:data/inventory")
+	 * @param table the table in which the data are to be written
+	 * @param appendTable a boolean, with true meaning that the new record is appended to previous record
+	 * @throws IOException if an I/O error has occurred
+	 */
+	public SQLWriter(String jdbcUrl, String table, boolean appendTable) throws IOException {
+		super(jdbcUrl, true);		// append the database by default
+		this.table = table;
+		if (!DatabaseConnectionManager.isJDBCUrl(jdbcUrl)) {
+			throw new IOException("SQLWriter.c. The url " + jdbcUrl + " is not a JDBC URL");
+		}
+		setFormatHeader(new SQLHeader());
+		connect(appendTable);
+	}
+	
+	private void connect(boolean appendTable) throws IOException {
 		try {
-			if (!outputFile.exists()) {
-				throw new IOException("The database file does not exist!");
-			} else {
-				DatabaseConnectionManager.registerConnectionUser(this, getFilename());
-//				dbConnection = DatabaseConnector.getConnectionFromThisMSACCESSDataBase(getFilename());
-				dbConnection = DatabaseConnectionManager.getUserConnection(this);
-				dbConnection.setAutoCommit(true);
-				dbConnection.setReadOnly(false);
-				statement = dbConnection.createStatement();
-				if (appendTable) {
-					getHeader().read(statement, table);
-				}
-			} 
+			DatabaseConnectionManager.registerConnectionUser(this, getFilename());
+//			dbConnection = DatabaseConnector.getConnectionFromThisMSACCESSDataBase(getFilename());
+			dbConnection = DatabaseConnectionManager.getUserConnection(this);
+			dbConnection.setAutoCommit(false);
+			dbConnection.setReadOnly(false);
+			statement = dbConnection.createStatement();
+			if (appendTable) {
+				getHeader().read(statement, table);
+				getHeader().countRecords(statement, table, null);
+				dbConnection.commit();
+			}
 		} catch (SQLException e) {
+			try {
+				releaseConnection();
+			} catch (SQLException e2) {}
 			throw new IOException(e.getMessage());
 		}
 	}
@@ -94,53 +133,155 @@ public class SQLWriter extends FormatWriter<SQLHeader> {
 					sqlStatementStr += ", ";
 				}
 			}
-			DatabaseMetaData metaData = dbConnection.getMetaData();
-			ResultSet tables = metaData.getTables(null, null, table, null);
-			if (tables.next()) {
+			if (doesTableExist()) {
 				statement.execute("DROP TABLE " + table);
 			}
 
 			statement.executeUpdate(sqlStatementStr);
 //			statement.close();
+			dbConnection.commit();
 		} catch (SQLException e) {
+			rollback();
 			throw new IOException(e.getMessage() + "SQLWriter.setFields(). An error occured while setting the fields");
 		}
 	}
 
 	
+	/*
+	 * Some databases store the unquoted names in upper or lower case. All these variants are checked.
+	 */
+	private boolean doesTableExist() throws SQLException {
+		DatabaseMetaData metaData = dbConnection.getMetaData();
+		for (String tableName : new String[] {table, table.toUpperCase(), table.toLowerCase()}) {
+			ResultSet tables = metaData.getTables(null, null, tableName, null);
+			boolean exists = tables.next();
+			tables.close();
+			if (exists) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Set the number of records that are sent to the database in a single batch.
+	 * @param batchSize a strictly positive integer
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new InvalidParameterException("The batch size must be strictly positive!");
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the number of records that are sent to the database in a single batch.
+	 * @return an integer
+	 */
+	public int getBatchSize() {return batchSize;}
+
 	@Override
 	public void close() throws IOException {
 		try {
-			DatabaseConnectionManager.removeUser(this);
-		} catch (SQLException e) {
-			throw new IOException("Error while closing the database!" + e);
+			executeBatch();
+		} finally {
+			try {
+				releaseConnection();
+			} catch (SQLException e) {
+				throw new IOException("Error while closing the database!" + e);
+			}
+		}
+	}
+
+	/*
+	 * The connection is given back to the manager even if the statement or the connection cannot be reset.
+	 */
+	private void releaseConnection() throws SQLException {
+		try {
+			if (insertStatement != null) {
+				try {
+					insertStatement.close();
+				} finally {
+					insertStatement = null;
+				}
+			}
+		} finally {
+			try {
+				if (dbConnection != null) {
+					dbConnection.setAutoCommit(true);
+				}
+			} finally {
+				DatabaseConnectionManager.removeUser(this);
+			}
 		}
 	}
 
 	@Override
 	public void addRecord(Object[] record) throws IOException {
+		validateRecord(record);
 		try {
-			validateRecord(record);
-			String sqlStatementStr = "INSERT INTO " + table + " " + getHeader().getFieldListString() + " VALUES (";
+			if (insertStatement == null) {
+				insertStatement = dbConnection.prepareStatement(getHeader().getInsertStatement(table));
+			}
 			for (int i = 0; i < record.length; i++) {
-				if (record[i] instanceof Number) {
-					sqlStatementStr += record[i].toString(); 
-				} else {
-					sqlStatementStr += "'"+ record[i].toString() +"'";
-				}
-				
-				if (i == record.length - 1) {
-					sqlStatementStr += ")";
-				} else {
-					sqlStatementStr += ", ";
-				}
+				setParameter(i + 1, getHeader().getField(i), record[i]);
+			}
+			insertStatement.addBatch();
+			pendingRecords++;
+			if (pendingRecords >= batchSize) {
+				executeBatch();
 			}
-			statement.execute(sqlStatementStr);
-			getHeader().setNumberOfRecords(getHeader().getNumberOfRecords() + 1);
 		} catch (SQLException e) {
 			throw new IOException(e.getMessage());
 		}
+	}
 
+	/*
+	 * Bind the value according to the type of the field. Values that do not match the type are left to the driver. 
+	 */
+	private void setParameter(int parameterIndex, SQLField field, Object value) throws SQLException {
+		Class<?> fieldClass = field.getFieldClass();
+		if (value == null) {
+			insertStatement.setNull(parameterIndex, field.getSQLType());
+		} else if (fieldClass == String.class) {
+			insertStatement.setString(parameterIndex, value.toString());
+		} else if (fieldClass == Double.class && value instanceof Number) {
+			insertStatement.setDouble(parameterIndex, ((Number) value).doubleValue());
+		} else if (fieldClass == Float.class && value instanceof Number) {
+			insertStatement.setFloat(parameterIndex, ((Number) value).floatValue());
+		} else if (fieldClass == Integer.class && (value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+			insertStatement.setInt(parameterIndex, ((Number) value).intValue());
+		} else {
+			insertStatement.setObject(parameterIndex, value);
+		}
+	}
+
+	/*
+	 * Send the pending records to the database and commit the transaction. The transaction is rolled back 
+	 * if the batch fails so that none of its records is written.
+	 */
+	private void executeBatch() throws IOException {
+		if (pendingRecords > 0) {
+			try {
+				insertStatement.executeBatch();
+				dbConnection.commit();
+				getHeader().setNumberOfRecords(getHeader().getNumberOfRecords() + pendingRecords);
+				pendingRecords = 0;
+			} catch (SQLException e) {
+				pendingRecords = 0;
+				try {
+					insertStatement.clearBatch();
+				} catch (SQLException e2) {}
+				rollback();
+				throw new IOException(e.getMessage());
+			}
+		}
+	}
+
+	private void rollback() {
+		try {
+			dbConnection.rollback();
+		} catch (SQLException e) {}
 	}
 	
 	
@@ -18,63 +18,226 @@
  */
 package repicea.io.javasql;
 
+import java.security.InvalidParameterException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.Vector;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
+/**
+ * The StatementMaker class inserts rows into the tables of a database. <p>
+ * 
+ * The rows are inserted through a prepared statement, which is reused as long as the table and 
+ * the fields do not change. The parameters are bound according to the class of the values. The rows
+ * are sent to the database in batches. A single row is defined through the addVFieldAndValue method, 
+ * whereas many rows can be inserted at once in a single transaction through the 
+ * insertIntoTable(String, List, Iterable) method.
+ */
+public class StatementMaker implements AutoCloseable {
 
-public class StatementMaker {
+	/**
+	 * The default number of rows in a batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	
+	private final Connection connection;
+	private final List<String> fields;
+	private final List<Object> values;
+	private int batchSize = DEFAULT_BATCH_SIZE;
 
-	private Connection connection;
-	private Vector<String> fields;
-	private Vector<Object> values;
+	private PreparedStatement insertStatement;
+	private String insertTable;
+	private List<String> insertFields;
+	private int pendingRows;
 	
 	public StatementMaker(Connection connection) {
 		this.connection = connection;
-		fields = new Vector<String>();
-		values = new Vector<Object>();
+		fields = new ArrayList<String>();
+		values = new ArrayList<Object>();
 	}
 
+	/**
+	 * Add a field and its value to the current row.
+	 * @param field the name of the field
+	 * @param value the value
+	 */
 	public void addVFieldAndValue(String field, Object value) {
 		fields.add(field);
 		values.add(value);
 	}
 	
+	/**
+	 * Set the number of rows that are sent to the database in a single batch.
+	 * @param batchSize a strictly positive integer
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new InvalidParameterException("The batch size must be strictly positive!");
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the number of rows that are sent to the database in a single batch.
+	 * @return an integer
+	 */
+	public int getBatchSize() {return batchSize;}
+	
+	/**
+	 * Insert the current row into a table. The pending rows of the batch, if any, are 
+	 * inserted as well. The current row is then cleared.
+	 * @param table the name of the table
+	 * @throws SQLException if a database access error has occurred
+	 */
 	public void insertIntoTable(String table) throws SQLException {
-		Statement statement = null;
+		addToBatch(table);
+		executeBatch();
+	}
+	
+	/**
+	 * Add the current row to the batch of a table. The current row is then cleared. <p>
+	 * 
+	 * The batch is sent to the database once it is full, or when the table or the fields change.
+	 * The remaining rows are sent by the executeBatch or the close method.
+	 * @param table the name of the table
+	 * @throws SQLException if a database access error has occurred
+	 */
+	public void addToBatch(String table) throws SQLException {
 		try {
-			statement = connection.createStatement();
-			String valueList = "values (";
-			String cmd = "INSERT INTO ";
-			cmd += table;
-			cmd += " (";
-			for (int i = 0; i < fields.size(); i ++) {
-				cmd += fields.get(i);
-				Object value = values.get(i);
-				if (value instanceof Number) {
-					valueList += value.toString();
-				} else {
-					valueList += "'"+ value.toString() +"'";
+			prepareInsertStatement(table, fields);
+			addRow(values.toArray());
+		} finally {
+			fields.clear();
+			values.clear();
+		}
+	}
+	
+	/**
+	 * Insert many rows into a table. The rows are sent in batches within a single transaction, which
+	 * is rolled back if an error occurs.
+	 * @param table the name of the table
+	 * @param fieldNames the names of the fields
+	 * @param rows the rows, whose values are in the same order as the field names
+	 * @throws SQLException if a database access error has occurred
+	 */
+	public void insertIntoTable(String table, List<String> fieldNames, Iterable<Object[]> rows) throws SQLException {
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			prepareInsertStatement(table, fieldNames);
+			for (Object[] row : rows) {
+				if (row.length != fieldNames.size()) {
+					throw new SQLException("The number of values does not match the number of fields!");
 				}
-				if (i < fields.size() - 1) {
-					cmd += ", ";
-					valueList += ", ";
-				} else {
-					cmd += ") ";
-					valueList += ")";
-				}	
+				addRow(row);
 			}
-
-			cmd = cmd + valueList;
-			statement.execute(cmd);
+			executeBatch();
+			connection.commit();
 		} catch (SQLException e) {
+			pendingRows = 0;
+			if (insertStatement != null) {
+				insertStatement.clearBatch();
+			}
+			connection.rollback();
 			throw e;
 		} finally {
-			if (statement != null) {
-				statement.close();
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/*
+	 * Prepare the statement unless it is already prepared for the same table and the same fields.
+	 */
+	private void prepareInsertStatement(String table, List<String> fieldNames) throws SQLException {
+		if (insertStatement != null && table.equals(insertTable) && fieldNames.equals(insertFields)) {
+			return;
+		}
+		closeInsertStatement();
+		StringBuilder fieldList = new StringBuilder();
+		StringBuilder parameterList = new StringBuilder();
+		for (int i = 0; i < fieldNames.size(); i++) {
+			if (i > 0) {
+				fieldList.append(", ");
+				parameterList.append(", ");
 			}
+			fieldList.append(fieldNames.get(i));
+			parameterList.append("?");
+		}
+		insertStatement = connection.prepareStatement("INSERT INTO " + table + " (" + fieldList + ") VALUES (" + parameterList + ")");
+		insertTable = table;
+		insertFields = new ArrayList<String>(fieldNames);
+	}
+
+	private void addRow(Object[] row) throws SQLException {
+		for (int i = 0; i < row.length; i++) {
+			setParameter(insertStatement, i + 1, row[i]);
+		}
+		insertStatement.addBatch();
+		pendingRows++;
+		if (pendingRows >= batchSize) {
+			executeBatch();
+		}
+	}
+	
+	/*
+	 * Bind the value according to its class. The other classes are left to the driver.
+	 */
+	private static void setParameter(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+		if (value == null) {
+			statement.setNull(parameterIndex, Types.NULL);
+		} else if (value instanceof String) {
+			statement.setString(parameterIndex, (String) value);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			statement.setInt(parameterIndex, ((Number) value).intValue());
+		} else if (value instanceof Long) {
+			statement.setLong(parameterIndex, (Long) value);
+		} else if (value instanceof Double) {
+			statement.setDouble(parameterIndex, (Double) value);
+		} else if (value instanceof Float) {
+			statement.setFloat(parameterIndex, (Float) value);
+		} else if (value instanceof Boolean) {
+			statement.setBoolean(parameterIndex, (Boolean) value);
+		} else if (value instanceof LocalDate) {
+			statement.setDate(parameterIndex, java.sql.Date.valueOf((LocalDate) value));
+		} else if (value instanceof Date && !(value instanceof java.sql.Date)) {
+			statement.setTimestamp(parameterIndex, new Timestamp(((Date) value).getTime()));
+		} else {
+			statement.setObject(parameterIndex, value);
 		}
 	}
 	
+	/**
+	 * Send the pending rows of the batch to the database.
+	 * @throws SQLException if a database access error has occurred
+	 */
+	public void executeBatch() throws SQLException {
+		if (pendingRows > 0) {
+			pendingRows = 0;
+			insertStatement.executeBatch();
+		}
+	}
+	
+	private void closeInsertStatement() throws SQLException {
+		if (insertStatement != null) {
+			executeBatch();
+			insertStatement.close();
+			insertStatement = null;
+			insertTable = null;
+			insertFields = null;
+		}
+	}
+	
+	/**
+	 * Send the pending rows and release the prepared statement. The connection is not closed.
+	 */
+	@Override
+	public void close() throws SQLException {
+		closeInsertStatement();
+	}
+	
 }
@@ -0,0 +1,131 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.tools;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import repicea.io.GExportFieldDetails;
+import repicea.io.javadbf.DBFException;
+import repicea.io.javadbf.DBFWriter;
+
+/**
+ * The DBFColumnBuffer class accumulates the records of an export into columns and passes 
+ * them to the DBFWriter.addColumns method. <p>
+ * 
+ * The values are converted as in the REpiceaExportTool class, i.e. the numbers are converted into 
+ * doubles, the String instances are kept as is and the other values are considered as null. A value 
+ * that does not match the type of its field throws the same exception as the DBFWriter.addRecord method.
+ * @author Mathieu Fortin - October 2026
+ */
+final class DBFColumnBuffer {
+
+	private static final int DEFAULT_CAPACITY = 4096;
+	
+	private final DBFWriter writer;
+	private final int capacity;
+	private final Object[] columns;
+	private int numberOfRecords;
+	
+	DBFColumnBuffer(DBFWriter writer) throws IOException {
+		this(writer, DEFAULT_CAPACITY);
+	}
+
+	/*
+	 * For test purposes.
+	 */
+	DBFColumnBuffer(DBFWriter writer, int capacity) throws IOException {
+		this.writer = writer;
+		this.capacity = capacity;
+		int nbFields = writer.getHeader().getNumberOfFields();
+		columns = new Object[nbFields];
+		for (int j = 0; j < nbFields; j++) {
+			switch (writer.getHeader().getField(j).getDataType()) {
+			case 'F':
+			case 'N':
+				columns[j] = new double[capacity];
+				break;
+			case 'C':
+				columns[j] = new String[capacity];
+				break;
+			case 'M':
+				columns[j] = new CharSequence[capacity];
+				break;
+			case 'L':
+				columns[j] = new Boolean[capacity];
+				break;
+			case 'D':
+				columns[j] = new Date[capacity];
+				break;
+			default:
+				throw new DBFException("Unknown field type " + writer.getHeader().getField(j).getDataType());
+			}
+		}
+	}
+
+	/**
+	 * Add a record to the columns. The columns are passed to the writer once they are full.
+	 * @param fields the fields of the record
+	 * @throws IOException if the record does not match the fields of the writer or if an I/O error has occurred
+	 */
+	void add(List<GExportFieldDetails> fields) throws IOException {
+		if (fields.size() != columns.length) {
+			throw new IOException( "Invalid record. Invalid number of fields in row");
+		}
+		for (int j = 0; j < columns.length; j++) {
+			Object value = fields.get(j).getValue();
+			if (!(value instanceof Number) && !(value instanceof String)) {
+				value = null;
+			}
+			Object column = columns[j];
+			if (column instanceof double[]) {
+				if (value instanceof Number) {
+					((double[]) column)[numberOfRecords] = ((Number) value).doubleValue();
+				} else if (value == null) {
+					((double[]) column)[numberOfRecords] = Double.NaN;
+				} else {
+					throw new DBFException("Invalid value for field " + j);
+				}
+			} else if (value == null || column instanceof CharSequence[] && value instanceof String) {
+				((Object[]) column)[numberOfRecords] = value;
+			} else {
+				throw new DBFException("Invalid value for field " + j);
+			}
+		}
+		numberOfRecords++;
+		if (numberOfRecords == capacity) {
+			flush();
+		}
+	}
+	
+	/**
+	 * Pass the accumulated records to the writer.
+	 * @throws IOException if an I/O error has occurred
+	 */
+	void flush() throws IOException {
+		if (numberOfRecords > 0) {
+			int n = numberOfRecords;
+			numberOfRecords = 0;
+			writer.addColumns(n, columns);
+		}
+	}
+	
+}
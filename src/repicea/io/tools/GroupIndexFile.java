@@ -0,0 +1,166 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The GroupIndexFile class saves the group index of a data file in a sidecar file with the .gix extension
+ * appended to the name of the data file. <p>
+ * 
+ * The sidecar file is reused as long as the length, the last modification date and the fingerprint of the
+ * data file have not changed. The fingerprint is a CRC32 checksum of the first and the last bytes of the 
+ * file so that it remains cheap for large files. The sidecar file also records a key, which identifies
+ * the grouping field and the table if any. The row indices are stored as runs of contiguous rows.
+ * @author Mathieu Fortin - October 2026
+ */
+final class GroupIndexFile {
+
+	static final String EXTENSION = ".gix";
+	
+	private static final int VERSION = 1;
+	private static final int SAMPLE_SIZE = 64 * 1024;
+
+	private final File indexFile;
+	private final String key;
+	private final long length;
+	private final long lastModified;
+	private final long fingerprint;
+	
+	/**
+	 * Constructor. The signature of the data file is computed at this point.
+	 * @param dataFile the data file
+	 * @param key a String that identifies the grouping
+	 * @throws IOException if the data file cannot be read
+	 */
+	GroupIndexFile(File dataFile, String key) throws IOException {
+		indexFile = getIndexFile(dataFile);
+		this.key = key;
+		lastModified = dataFile.lastModified();
+		length = dataFile.length();
+		fingerprint = computeFingerprint(dataFile);
+	}
+	
+	/**
+	 * Provide the sidecar file of a data file.
+	 * @param dataFile the data file
+	 * @return a File instance
+	 */
+	static File getIndexFile(File dataFile) {
+		return new File(dataFile.getAbsolutePath().concat(EXTENSION));
+	}
+	
+	private static long computeFingerprint(File dataFile) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[SAMPLE_SIZE];
+		try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+			long fileLength = raf.length();
+			int n = (int) Math.min(SAMPLE_SIZE, fileLength);
+			raf.readFully(buffer, 0, n);
+			crc.update(buffer, 0, n);
+			if (fileLength > SAMPLE_SIZE) {
+				n = (int) Math.min(SAMPLE_SIZE, fileLength - SAMPLE_SIZE);
+				raf.seek(fileLength - n);
+				raf.readFully(buffer, 0, n);
+				crc.update(buffer, 0, n);
+			}
+		}
+		return crc.getValue();
+	}
+	
+	/**
+	 * Load the group index from the sidecar file.
+	 * @param groupList the list to which the groups are added in the order of their first appearance 
+	 * @param groupMap the map to which the row indices of each group are added
+	 * @return the number of records or -1 if the sidecar file does not exist or if it does not match the data file
+	 */
+	int load(List<String> groupList, Map<String, List<Integer>> groupMap) {
+		if (!indexFile.isFile()) {
+			return -1;
+		}
+		try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			if (dis.readInt() != VERSION ||
+					dis.readLong() != length ||
+					dis.readLong() != lastModified ||
+					dis.readLong() != fingerprint ||
+					!dis.readUTF().equals(key)) {
+				return -1;
+			}
+			int numberOfRecords = dis.readInt();
+			int numberOfGroups = dis.readInt();
+			for (int i = 0; i < numberOfGroups; i++) {
+				String groupName = dis.readUTF();
+				int numberOfRuns = dis.readInt();
+				RowIndexList rowIndex = new RowIndexList();
+				for (int j = 0; j < numberOfRuns; j++) {
+					rowIndex.addRun(dis.readInt(), dis.readInt());
+				}
+				groupList.add(groupName);
+				groupMap.put(groupName, rowIndex);
+			}
+			return numberOfRecords;
+		} catch (IOException | RuntimeException e) {		// then the sidecar file is corrupted
+			groupList.clear();
+			groupMap.clear();
+			return -1;
+		}
+	}
+	
+	/**
+	 * Save the group index in the sidecar file. The sidecar file is deleted if it cannot be written.
+	 * @param groupList the groups in the order of their first appearance
+	 * @param groupMap the row indices of each group, which are expected to be RowIndexList instances
+	 * @param numberOfRecords the number of records in the data file
+	 */
+	void save(List<String> groupList, Map<String, List<Integer>> groupMap, int numberOfRecords) {
+		try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+			dos.writeInt(VERSION);
+			dos.writeLong(length);
+			dos.writeLong(lastModified);
+			dos.writeLong(fingerprint);
+			dos.writeUTF(key);
+			dos.writeInt(numberOfRecords);
+			dos.writeInt(groupList.size());
+			for (String groupName : groupList) {
+				RowIndexList rowIndex = (RowIndexList) groupMap.get(groupName);
+				dos.writeUTF(groupName);
+				dos.writeInt(rowIndex.getNumberOfRuns());
+				for (int j = 0; j < rowIndex.getNumberOfRuns(); j++) {
+					dos.writeInt(rowIndex.getRunStart(j));
+					dos.writeInt(rowIndex.getRunLength(j));
+				}
+			}
+		} catch (IOException e) {		// then the index is kept in memory only
+			indexFile.delete();
+		}
+	}
+	
+}
@@ -18,18 +18,26 @@
  */
 package repicea.io.tools;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.Vector;
+import java.util.concurrent.CancellationException;
 
 import repicea.app.AbstractGenericTask;
 import repicea.io.FormatReader;
+import repicea.io.ParallelRecordReader;
 
 /**
- * This private class handles the index of a data set that contains one or many grouping. 
+ * This private class handles the index of a data set that contains one or many grouping. <p>
+ * 
+ * The indices of the rows are stored as run-length ranges of primitive integers. The groups 
+ * are looked up in a hash map while the file is scanned. The same scan provides the number of
+ * records. The index can be saved in a sidecar file and reloaded on later scans of the same file.
  * @author Mathieu Fortin - October 2011 
  */
 class GroupingRegistryReader extends AbstractGenericTask implements Serializable {
@@ -44,6 +52,12 @@ class GroupingRegistryReader extends AbstractGenericTask implements Serializable
 	
 	private Vector<String> groupList;
 	private boolean groupFieldEnabled;
+	private boolean isParallelReadingEnabled;
+	private boolean isIndexPersistenceEnabled;
+	private int numberOfRecords;
+	
+	private transient String lastStratum;
+	private transient RowIndexList lastIndex;
 
 	/**	
 	 * Script constructor. General for any model.
@@ -65,60 +79,72 @@ class GroupingRegistryReader extends AbstractGenericTask implements Serializable
 	@SuppressWarnings("rawtypes")
 	protected void doThisJob() throws Exception {
 		groupList.clear();
-		groupMap.clear();
+		groupMap = new HashMap<String, List<Integer>>();		// for fast lookups while scanning
+		numberOfRecords = 0;
 		Enum stratumEnum = importFieldManager.getStratumFieldEnum();
 		if (stratumEnum != null && importFieldManager.getField(stratumEnum).getMatchingFieldIndex() != -1) {		// means a stratum field has been selected
-			List<Integer> index = null;
 			try {
+				int indexOfStratumField = importFieldManager.getIndexOfThisField(importFieldManager.getStratumFieldEnum());
+
+				int iFieldStratum = importFieldManager.getFields().get(indexOfStratumField).getMatchingFieldIndex();
+				GroupIndexFile groupIndexFile = getGroupIndexFile(iFieldStratum);
+				if (groupIndexFile != null) {
+					int numberOfRecordsInIndex = groupIndexFile.load(groupList, groupMap);
+					if (numberOfRecordsInIndex >= 0) {
+						numberOfRecords = numberOfRecordsInIndex;
+						groupMap = new TreeMap<String, List<Integer>>(groupMap);
+						groupFieldEnabled = true;
+						setProgress(100);
+						return;
+					}
+				}
+
 				FormatReader formatReader = importFieldManager.getFormatReader();
 				if (!formatReader.isAtBeginning()) {
 					formatReader.reset();
 				}
-				double progressFactor = (double) 100d / formatReader.getRecordCount();
+				double progressFactor = (double) 100d / formatReader.getEstimatedRecordCount();
 
 				// Now, lets start reading the rows
-
-				Object[] rowObjects;
-				int indexOfStratumField = importFieldManager.getIndexOfThisField(importFieldManager.getStratumFieldEnum());
-
-				int iFieldStratum = importFieldManager.getFields().get(indexOfStratumField).getMatchingFieldIndex();
-				String strStratum = null;
-				String strStratumLast = "";
-				boolean bStratumChanged = false; 
-
-				int line = 0;
-				while( (rowObjects = formatReader.nextRecord()) != null && !isCancelled()) {
-					strStratum = ((Object) rowObjects[iFieldStratum]).toString().trim();
-					bStratumChanged = (strStratum.compareTo(strStratumLast) != 0); 
-
-					if (strStratum!=null) {
-						if (bStratumChanged) {
-							index = groupMap.get(strStratum);
-							if (index==null) {
-								index = new ArrayList<Integer>();
-								groupMap.put(strStratum, index);
-							}
+				formatReader.setProjection(new int[] {iFieldStratum});		// only the stratum field is decoded
+				lastStratum = null;
+				lastIndex = null;
+				try {
+					if (isParallelReadingEnabled && formatReader instanceof ParallelRecordReader) {
+						try {
+							((ParallelRecordReader) formatReader).readRecordsInParallel(
+									(rowObjects, line) -> rowObjects[iFieldStratum].toString().trim(),
+									(strStratum, line) -> {
+										if (isCancelled()) {
+											throw new CancellationException();
+										}
+										registerObservation(strStratum, line);
+										setProgress(Math.min(100, (int) ((line + 1) * progressFactor)));
+									},
+									true);
+						} catch (CancellationException e) {}		// the cancellation is handled below
+					} else {
+						Object[] rowObjects;
+						int line = 0;
+						while( (rowObjects = formatReader.nextRecord()) != null && !isCancelled()) {
+							registerObservation(((Object) rowObjects[iFieldStratum]).toString().trim(), line);
+							line++;
+							setProgress(Math.min(100, (int) (line * progressFactor)));
 						}
-
-						index.add(line);
-
-						if (bStratumChanged) {
-							if (!groupList.contains(strStratum)) {
-								groupList.add(strStratum);
-							}
-						}
-
-						strStratumLast = strStratum;
 					}
-					line++;
-					setProgress((int) (line * progressFactor));
+				} finally {
+					formatReader.setProjection(null);
 				}
 				// By now, we have iterated through all of the rows
 				formatReader.close();
 				if (isCancelled()) {
 					throw new InterruptedException();
 				} else {
+					groupMap = new TreeMap<String, List<Integer>>(groupMap);
 					groupFieldEnabled = true;
+					if (groupIndexFile != null) {
+						groupIndexFile.save(groupList, groupMap, numberOfRecords);
+					}
 				}
 			} catch (InterruptedException e) {
 				cleanUpBeforeThrowingException();
@@ -132,6 +158,65 @@ class GroupingRegistryReader extends AbstractGenericTask implements Serializable
 		} 
 	}
 	
+	/*
+	 * The list of the last stratum is kept since the observations of a stratum are usually contiguous.
+	 */
+	private void registerObservation(String strStratum, int line) {
+		if (!strStratum.equals(lastStratum)) {
+			lastIndex = (RowIndexList) groupMap.get(strStratum);
+			if (lastIndex == null) {
+				lastIndex = new RowIndexList();
+				groupMap.put(strStratum, lastIndex);
+				groupList.add(strStratum);
+			}
+			lastStratum = strStratum;
+		}
+		lastIndex.add(line);
+		numberOfRecords = Math.max(numberOfRecords, line + 1);
+	}
+	
+	/**
+	 * This method enables or disables the parallel reading of the strata. The records are then 
+	 * decoded on several threads if the FormatReader instance implements the ParallelRecordReader 
+	 * interface. By default, the parallel reading is disabled.
+	 * @param isParallelReadingEnabled a boolean
+	 */
+	protected void setParallelReadingEnabled(boolean isParallelReadingEnabled) {this.isParallelReadingEnabled = isParallelReadingEnabled;}
+	
+	/**
+	 * This method enables or disables the persistence of the group index. When enabled, the index
+	 * is saved in a sidecar file next to the data file and it is reloaded instead of scanning the file 
+	 * again, as long as the file has not changed. Only the files on disk are concerned. By default, the 
+	 * persistence is disabled.
+	 * @param isIndexPersistenceEnabled a boolean
+	 * @see GroupIndexFile
+	 */
+	protected void setIndexPersistenceEnabled(boolean isIndexPersistenceEnabled) {this.isIndexPersistenceEnabled = isIndexPersistenceEnabled;}
+
+	/*
+	 * Return null if the persistence is disabled or if the data are not in a file. The key includes the
+	 * grouping field and the other specifications such as the table.
+	 */
+	private GroupIndexFile getGroupIndexFile(int iFieldStratum) {
+		if (!isIndexPersistenceEnabled) {
+			return null;
+		}
+		String[] fileSpec = importFieldManager.getFileSpecifications();
+		File dataFile = new File(fileSpec[0]);
+		if (!dataFile.isFile()) {
+			return null;
+		}
+		StringBuilder key = new StringBuilder().append(iFieldStratum);
+		for (int i = 1; i < fileSpec.length; i++) {
+			key.append(";").append(fileSpec[i]);
+		}
+		try {
+			return new GroupIndexFile(dataFile, key.toString());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+	
 	private void cleanUpBeforeThrowingException() {
 		groupMap = null;
 		importFieldManager = null;
@@ -143,6 +228,12 @@ class GroupingRegistryReader extends AbstractGenericTask implements Serializable
 	 */
 	protected boolean isGroupingEnabled() {return groupFieldEnabled;}
 	
+	/**
+	 * Return the number of records found while scanning the groups.
+	 * @return an integer
+	 */
+	protected int getNumberOfRecords() {return numberOfRecords;}
+	
 	protected Vector<String> getGroupList() {
 		return groupList;
 	}
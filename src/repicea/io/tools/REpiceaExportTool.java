@@ -43,6 +43,7 @@ import repicea.io.GExportRecord;
 import repicea.io.REpiceaFileFilter;
 import repicea.io.REpiceaFileFilter.FileType;
 import repicea.io.REpiceaRecordSet;
+import repicea.io.javadbf.DBFWriter;
 import repicea.util.REpiceaTranslator;
 import repicea.util.REpiceaTranslator.TextableEnum;
 
@@ -100,6 +101,7 @@ public abstract class REpiceaExportTool implements REpiceaShowableUIWithParent,
 			GExportRecord record;
 			GExportRecord refRecord = null;
 			FormatWriter<? extends FormatHeader<? extends FormatField>> formatWritter = null;
+			DBFColumnBuffer columnBuffer = null;		// the dbf records are written by columns
 			try {
 				formatWritter = FormatWriter.createFormatWriter(REpiceaExportTool.this.isAppendFileEnabled(), file.getAbsolutePath());    //using sync mode constructor
 	
@@ -120,8 +122,17 @@ public abstract class REpiceaExportTool implements REpiceaShowableUIWithParent,
 						if (!REpiceaExportTool.this.isAppendFileEnabled()) {
 							formatWritter.setFields(aoFields);
 						}
+						
+						if (formatWritter instanceof DBFWriter) {
+							columnBuffer = new DBFColumnBuffer((DBFWriter) formatWritter);
+						}
 					}
 
+					if (columnBuffer != null) {
+						columnBuffer.add(record.getFieldList());
+						continue;
+					}
+					
 					Object rowData[] = new Object[nbFields];
 
 					List<GExportFieldDetails> vTmp = record.getFieldList();
@@ -138,6 +149,9 @@ public abstract class REpiceaExportTool implements REpiceaShowableUIWithParent,
 					formatWritter.addRecord(rowData);
 			
 				}
+				if (columnBuffer != null) {
+					columnBuffer.flush();
+				}
 			} catch (Exception e) {
 				e.printStackTrace();
 				throw e;
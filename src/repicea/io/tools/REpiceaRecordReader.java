@@ -26,6 +26,7 @@ import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.UnknownFormatConversionException;
 import java.util.concurrent.CancellationException;
 
@@ -36,6 +37,9 @@ import repicea.gui.genericwindows.REpiceaProgressBarDialog;
 import repicea.gui.genericwindows.REpiceaProgressBarDialog.REpiceaProgressBarDialogParameters;
 import repicea.gui.genericwindows.REpiceaSimpleListDialog;
 import repicea.io.FormatReader;
+import repicea.io.NumericFieldParser;
+import repicea.io.ParallelRecordReader;
+import repicea.io.RandomAccessRecordReader;
 import repicea.io.tools.ImportFieldElement.FieldType;
 import repicea.util.REpiceaTranslator;
 import repicea.util.REpiceaTranslator.TextableEnum;
@@ -52,6 +56,7 @@ public abstract class REpiceaRecordReader implements Serializable {
 	protected class InternalTask extends AbstractGenericTask {
 
 		final int groupId;
+		private int lineCounter;
 		
 		protected InternalTask(int groupId) {
 			this.groupId = groupId;
@@ -63,7 +68,7 @@ public abstract class REpiceaRecordReader implements Serializable {
 			if (getName() != null && !getName().isEmpty()) {
 				Thread.currentThread().setName(getName());
 			}
-			int lineCounter = 0;
+			lineCounter = 0;
 
 			List<ImportFieldElement> importFieldElements = importFieldManager.getFields();
 			List<Integer> rowIndex = groupingRegistryReader.getObservationIndicesForThisGroup(groupId);
@@ -72,60 +77,61 @@ public abstract class REpiceaRecordReader implements Serializable {
 
 			FormatReader<?> reader = null;
 			try {
-				reader = importFieldManager.getFormatReader();
+				FormatReader<?> sharedReader = importFieldManager.getFormatReader();
+				RandomAccessRecordReader randomAccessReader = null;
+				if (rowIndex != null && sharedReader instanceof RandomAccessRecordReader && ((RandomAccessRecordReader) sharedReader).isRandomAccessSupported()) {
+					reader = ((RandomAccessRecordReader) sharedReader).openNewReader();	// a separate channel so that several groups can be read concurrently
+					randomAccessReader = (RandomAccessRecordReader) reader;
+				} else {
+					reader = sharedReader;
+				}
+				reader.setProjection(getMatchingFieldIndices(importFieldElements));
+				if (rowIndex == null && isParallelReadingEnabled && reader instanceof ParallelRecordReader) {
+					readAllRecordsInParallel((ParallelRecordReader) reader, importFieldElements, 100d / reader.getEstimatedRecordCount());
+					return;
+				}
 				if (!reader.isAtBeginning()) {
 					reader.reset();
 				}
 				oArray = new Object[importFieldElements.size()];
 
-				if (rowIndex==null) {							// if the index is null a false index that contains all the observations is created
-					rowIndex = new ArrayList<Integer>();
-					for (int i = 0; i < reader.getRecordCount(); i++) {
-						rowIndex.add(i);
-					}
+				double factor;
+				PrimitiveIterator.OfInt lineIterator;
+				if (rowIndex == null) {		// if the index is null then all the observations are read until the end of the file
+					lineIterator = null;
+					factor = 100d / reader.getEstimatedRecordCount();
+				} else {
+					lineIterator = RowIndexList.intIterator(rowIndex);
+					factor = 100d / rowIndex.size();
 				}
 				
-				double factor = 100d / rowIndex.size();
-				
 				// Now, lets start reading the rows
+				int lineNumber;
 				int numberOfLinesToSkip;
 				int numberLinesRead = 0;
 				Object[] rowObjects = null;
-				for (Integer lineNumber : rowIndex) {
+				while (lineIterator == null || lineIterator.hasNext()) {
 					if (isCancelled()) {
 						throw new CancellationException();
 					}
+					lineNumber = lineIterator == null ? lineCounter : lineIterator.nextInt();
 					numberOfLinesToSkip = lineNumber - lineCounter;
-					rowObjects = reader.nextRecord(numberOfLinesToSkip);
+					if (randomAccessReader != null) {
+						rowObjects = randomAccessReader.readRecord(lineNumber);
+					} else {
+						rowObjects = reader.nextRecord(numberOfLinesToSkip);
+					}
 					lineCounter = lineNumber + 1;  					// 1 is added to have the real reference line 1 is really line 1
 
+					if (rowObjects == null && lineIterator == null) {	// end of file
+						break;
+					}
 					if (rowObjects!=null) {
-						for (int j = 0; j < importFieldElements.size(); j++) {
-							ImportFieldElement impFieldElem = importFieldElements.get(j);
-							int iFieldIndex = impFieldElem.getMatchingFieldIndex();
-							if (!impFieldElem.isOptional) {		// if the field is not optional
-								if (rowObjects[iFieldIndex] == null) {
-									throw new NullPointerException("A null value has been found at line " + lineNumber + " - field " + impFieldElem.getFieldName());
-								} else {
-									oArray[j] = rowObjects[iFieldIndex];
-								}
-							} else {				// the field is then optional
-								if (iFieldIndex < 0) { // the field has not been matched
-									oArray[j] = null;
-								} else {
-									Object obj = rowObjects[iFieldIndex]; // no need to check if it is null in the next line: it is going to be set as null anyway in the else clause
-									if (obj instanceof String && obj.toString().isEmpty()) {	// the field contains an empty string
-										oArray[j] = null;
-									} else {
-										oArray[j] = rowObjects[iFieldIndex];
-									}
-								}
-							}
-						}
+						setFieldValues(rowObjects, oArray, lineNumber, importFieldElements);
 						checkInputFieldsFormat(oArray);
 						readLineRecord(oArray, lineCounter);
 						numberLinesRead++;
-						firePropertyChange(REpiceaProgressBarDialog.PROGRESS, 0, (int) (numberLinesRead * factor));
+						firePropertyChange(REpiceaProgressBarDialog.PROGRESS, 0, Math.min(100, (int) (numberLinesRead * factor)));
 					}
 				}
 
@@ -146,11 +152,71 @@ public abstract class REpiceaRecordReader implements Serializable {
 				throw new IOException(message);
 			} finally {
 				if (reader != null) {
+					reader.setProjection(null);		// the reader is shared with the grouping registry
 					reader.close();
 				}
 			}
 		}
 		
+		/*
+		 * Only the fields that match an import field element need to be decoded.
+		 */
+		private int[] getMatchingFieldIndices(List<ImportFieldElement> importFieldElements) {
+			int[] fieldIndices = new int[importFieldElements.size()];
+			for (int j = 0; j < importFieldElements.size(); j++) {
+				fieldIndices[j] = importFieldElements.get(j).getMatchingFieldIndex();
+			}
+			return fieldIndices;
+		}
+
+		private void setFieldValues(Object[] rowObjects, Object[] oArray, int lineNumber, List<ImportFieldElement> importFieldElements) {
+			for (int j = 0; j < importFieldElements.size(); j++) {
+				ImportFieldElement impFieldElem = importFieldElements.get(j);
+				int iFieldIndex = impFieldElem.getMatchingFieldIndex();
+				if (!impFieldElem.isOptional) {		// if the field is not optional
+					if (rowObjects[iFieldIndex] == null) {
+						throw new NullPointerException("A null value has been found at line " + lineNumber + " - field " + impFieldElem.getFieldName());
+					} else {
+						oArray[j] = rowObjects[iFieldIndex];
+					}
+				} else {				// the field is then optional
+					if (iFieldIndex < 0) { // the field has not been matched
+						oArray[j] = null;
+					} else {
+						Object obj = rowObjects[iFieldIndex]; // no need to check if it is null in the next line: it is going to be set as null anyway in the else clause
+						if (obj instanceof String && obj.toString().isEmpty()) {	// the field contains an empty string
+							oArray[j] = null;
+						} else {
+							oArray[j] = rowObjects[iFieldIndex];
+						}
+					}
+				}
+			}
+		}
+
+		/*
+		 * The records are parsed and converted on several threads but the readLineRecord method is called
+		 * on this thread in the order of the file.
+		 */
+		private void readAllRecordsInParallel(ParallelRecordReader reader, List<ImportFieldElement> importFieldElements, double factor) throws Exception {
+			reader.readRecordsInParallel((rowObjects, recordIndex) -> {
+					Object[] oArray = new Object[importFieldElements.size()];
+					setFieldValues(rowObjects, oArray, recordIndex, importFieldElements);
+					checkInputFieldsFormat(oArray);
+					return oArray;
+				}, 
+				(oArray, recordIndex) -> {
+					if (isCancelled()) {
+						throw new CancellationException();
+					}
+					lineCounter = recordIndex + 1;
+					readLineRecord(oArray, lineCounter);
+					lineCounter++;		// in case the conversion of the next record fails
+					firePropertyChange(REpiceaProgressBarDialog.PROGRESS, 0, Math.min(100, (int) ((recordIndex + 1) * factor)));
+				}, 
+				true);
+		}
+		
 	}
 	
 	public static class VariableValueException extends Exception {
@@ -212,6 +278,8 @@ public abstract class REpiceaRecordReader implements Serializable {
 	private GroupingRegistryReader groupingRegistryReader;
 	
 	private boolean isPopUpWindowEnabled;
+	private boolean isParallelReadingEnabled;
+	private boolean isGroupIndexPersistenceEnabled;
 	private UseMode guiMode;
 	
 	private transient Window windowOwner;
@@ -224,10 +292,14 @@ public abstract class REpiceaRecordReader implements Serializable {
 	}
 
 	/**
-	 * Provide the number of record in a file or a stream. 
+	 * Provide the number of record in a file or a stream. If the records have been grouped, 
+	 * the number is that found while scanning the groups.
 	 * @return an integer
 	 */
 	public int getTotalNbRecords() {
+		if (groupingRegistryReader != null && groupingRegistryReader.isGroupingEnabled()) {
+			return groupingRegistryReader.getNumberOfRecords();
+		}
 		return importFieldManager.getFormatReader().getRecordCount();
 	}
 	
@@ -256,6 +328,8 @@ public abstract class REpiceaRecordReader implements Serializable {
 		}
 
 		groupingRegistryReader = new GroupingRegistryReader(importFieldManager);
+		groupingRegistryReader.setParallelReadingEnabled(isParallelReadingEnabled);
+		groupingRegistryReader.setIndexPersistenceEnabled(isGroupIndexPersistenceEnabled);
 		
 		String title = REpiceaTranslator.getString(UIControlManager.InformationMessageTitle.Progress);
 		String message = REpiceaTranslator.getString(MessageID.ProgressMessage);
@@ -314,6 +388,8 @@ public abstract class REpiceaRecordReader implements Serializable {
 			throw new Exception();
 		}
 		groupingRegistryReader = new GroupingRegistryReader(importFieldManager);
+		groupingRegistryReader.setParallelReadingEnabled(isParallelReadingEnabled);
+		groupingRegistryReader.setIndexPersistenceEnabled(isGroupIndexPersistenceEnabled);
 		groupingRegistryReader.run();
 		if (!groupingRegistryReader.isCorrectlyTerminated()) {
 			throw groupingRegistryReader.getFailureReason();
@@ -326,6 +402,30 @@ public abstract class REpiceaRecordReader implements Serializable {
 	 */
 	protected void setPopUpWindowEnabled(boolean isPopUpWindowEnabled) {this.isPopUpWindowEnabled = isPopUpWindowEnabled;}
 
+	/**
+	 * This method enables or disables the parallel reading of the records. <p>
+	 * 
+	 * When enabled and all the records are read, the records are parsed and converted on several threads
+	 * if the FormatReader instance implements the ParallelRecordReader interface. The readLineRecord 
+	 * method is still called on a single thread in the order of the file. The checkInputFieldsFormat 
+	 * method must then be thread safe. If this method is called before the initialization, the strata are
+	 * also read in parallel. By default, the parallel reading is disabled.
+	 * @param isParallelReadingEnabled a boolean
+	 */
+	public void setParallelReadingEnabled(boolean isParallelReadingEnabled) {this.isParallelReadingEnabled = isParallelReadingEnabled;}
+
+	/**
+	 * This method enables or disables the persistence of the group index. <p>
+	 * 
+	 * When enabled, the index of the groups is saved in a sidecar file with the .gix extension next to the 
+	 * data file. The later initializations with the same file and the same group field load this index instead
+	 * of scanning the file again, as long as the size, the last modification date and the fingerprint of the
+	 * file have not changed. This method must be called before the initialization. By default, the persistence
+	 * is disabled.
+	 * @param isGroupIndexPersistenceEnabled a boolean
+	 */
+	public void setGroupIndexPersistenceEnabled(boolean isGroupIndexPersistenceEnabled) {this.isGroupIndexPersistenceEnabled = isGroupIndexPersistenceEnabled;}
+
 	/**
 	 * This method reads all the records of the dataset.
 	 * @throws Exception if an error has occurred
@@ -336,7 +436,11 @@ public abstract class REpiceaRecordReader implements Serializable {
 
 	/**
 	 * This method reads the records that correspond to the group ID. If the group ID is not found,
-	 * the method read all the records by default.
+	 * the method read all the records by default. <p>
+	 * 
+	 * If the FormatReader instance implements the RandomAccessRecordReader interface, the records 
+	 * of the group are fetched directly from another reader on the same file. Several groups can then 
+	 * be read concurrently provided the readLineRecord method is thread safe.
 	 * @param groupId a integer that corresponds to the group ID
 	 * @throws Exception if an error has occurred
 	 */
@@ -421,21 +525,23 @@ public abstract class REpiceaRecordReader implements Serializable {
 				if (!ft.isAlreadyInTheAppropriateFormat(oArray[i])) { // if the object class is not the good one then we parse
 					switch(oVecImport.get(i).getFieldType()) {
 					case Double:							// type = float
-						if (oArray[i].toString().isEmpty() || oArray[i].toString().trim().equals(".") || oArray[i].toString().trim().toUpperCase().equals("NA")) {
+						if (NumericFieldParser.isMissing(asCharSequence(oArray[i]))) {
 							oArray[i] = null;
 						} else {
-							oArray[i] = Double.parseDouble(oArray[i].toString().replace(",", "."));
+							oArray[i] = NumericFieldParser.parseDouble(asCharSequence(oArray[i]));
 						}
 						break;
 					case Integer:
-						if (oArray[i].toString().isEmpty() || oArray[i].toString().trim().equals(".") || oArray[i].toString().trim().toUpperCase().equals("NA")) {
+						if (oArray[i] instanceof Number) {
+							oArray[i] = ((Number) oArray[i]).intValue();
+						} else if (NumericFieldParser.isMissing(asCharSequence(oArray[i]))) {
 							oArray[i] = null;
 						} else {
-							oArray[i] = (Integer) ((Double) Double.parseDouble(oArray[i].toString().replace(",","."))).intValue();
+							oArray[i] = NumericFieldParser.parseInt(asCharSequence(oArray[i]));
 						}
 						break;
 					case String:												// type = character
-						if (oArray[i].toString().isEmpty() || oArray[i].toString().trim().equals(".") || oArray[i].toString().trim().toUpperCase().equals("NA")) {
+						if (NumericFieldParser.isMissing(asCharSequence(oArray[i]))) {
 							oArray[i] = "";
 						} else {
 							oArray[i] = (oArray[i].toString()).trim();
@@ -449,6 +555,10 @@ public abstract class REpiceaRecordReader implements Serializable {
 		}
 	}
 
+	private static CharSequence asCharSequence(Object value) {
+		return value instanceof CharSequence ? (CharSequence) value : value.toString();
+	}
+
 	/**
 	 * If the number of strata is larger than 1, this method provides a dialog with a list
 	 * that allows to select a particular stratum.
@@ -0,0 +1,189 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.tools;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.RandomAccess;
+
+/**
+ * The RowIndexList class stores the indices of the rows of a group as run-length ranges. <p>
+ * 
+ * The rows of a group are usually contiguous so that a group of thousands of rows takes a few 
+ * integers only. The indices are primitive integers that are boxed only if they are requested 
+ * through the List interface. The list can only be appended.
+ * @author Mathieu Fortin - October 2026
+ */
+final class RowIndexList extends AbstractList<Integer> implements RandomAccess, Serializable {
+
+	private static final long serialVersionUID = 20261018L;
+
+	private int[] runStarts = new int[2];
+	private int[] runEnds = new int[2];		// the number of rows up to the end of each run
+	private int numberOfRuns;
+	private int size;
+	
+	/**
+	 * Append a row index. A new run is started unless the index immediately follows the last one.
+	 * @param rowIndex the index of the row
+	 */
+	void add(int rowIndex) {
+		if (numberOfRuns > 0 && rowIndex == getLast() + 1) {
+			runEnds[numberOfRuns - 1]++;
+		} else {
+			if (numberOfRuns == runStarts.length) {
+				int newCapacity = numberOfRuns * 2;
+				int[] newStarts = new int[newCapacity];
+				int[] newEnds = new int[newCapacity];
+				System.arraycopy(runStarts, 0, newStarts, 0, numberOfRuns);
+				System.arraycopy(runEnds, 0, newEnds, 0, numberOfRuns);
+				runStarts = newStarts;
+				runEnds = newEnds;
+			}
+			runStarts[numberOfRuns] = rowIndex;
+			runEnds[numberOfRuns] = size + 1;
+			numberOfRuns++;
+		}
+		size++;
+	}
+	
+	private int getLast() {
+		int lastRun = numberOfRuns - 1;
+		return runStarts[lastRun] + runEnds[lastRun] - getRunOffset(lastRun) - 1;
+	}
+	
+	/*
+	 * Return the number of rows before this run.
+	 */
+	private int getRunOffset(int run) {
+		return run == 0 ? 0 : runEnds[run - 1];
+	}
+
+	@Override
+	public boolean add(Integer rowIndex) {
+		add(rowIndex.intValue());
+		return true;
+	}
+	
+	/**
+	 * Return a row index as a primitive integer.
+	 * @param index the position in the list
+	 * @return an integer
+	 */
+	int getInt(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int low = 0;
+		int high = numberOfRuns - 1;
+		while (low < high) {		// find the first run that ends after the index
+			int mid = (low + high) >>> 1;
+			if (runEnds[mid] <= index) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return runStarts[low] + index - getRunOffset(low);
+	}
+	
+	@Override
+	public Integer get(int index) {
+		return getInt(index);
+	}
+
+	@Override
+	public int size() {return size;}
+	
+	/**
+	 * Return the number of runs of contiguous rows.
+	 * @return an integer
+	 */
+	int getNumberOfRuns() {return numberOfRuns;}
+
+	/**
+	 * Return the first row index of a run.
+	 * @param run the index of the run
+	 * @return an integer
+	 */
+	int getRunStart(int run) {return runStarts[run];}
+
+	/**
+	 * Return the number of rows in a run.
+	 * @param run the index of the run
+	 * @return an integer
+	 */
+	int getRunLength(int run) {return runEnds[run] - getRunOffset(run);}
+
+	/**
+	 * Append a run of contiguous row indices.
+	 * @param start the first row index
+	 * @param length the number of rows, which must be strictly positive
+	 */
+	void addRun(int start, int length) {
+		add(start);
+		runEnds[numberOfRuns - 1] += length - 1;
+		size += length - 1;
+	}
+	
+	/**
+	 * Iterate over the row indices without boxing them.
+	 */
+	@Override
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			private int run;
+			private int position;
+			
+			@Override
+			public boolean hasNext() {
+				return position < size;
+			}
+
+			@Override
+			public int nextInt() {
+				if (position >= size) {
+					throw new NoSuchElementException();
+				}
+				if (position == runEnds[run]) {
+					run++;
+				}
+				return runStarts[run] + position++ - getRunOffset(run);
+			}
+		};
+	}
+	
+	/**
+	 * Provide an iterator over primitive integers for any list of row indices.
+	 * @param rowIndices a List of Integer instances
+	 * @return a PrimitiveIterator.OfInt instance
+	 */
+	static PrimitiveIterator.OfInt intIterator(List<Integer> rowIndices) {
+		if (rowIndices instanceof RowIndexList) {
+			return ((RowIndexList) rowIndices).iterator();
+		} else {
+			return rowIndices.stream().mapToInt(Integer::intValue).iterator();
+		}
+	}
+	
+}
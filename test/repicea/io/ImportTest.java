@@ -18,17 +18,29 @@
  */
 package repicea.io;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.Ignore;
 import org.junit.Test;
 
 import repicea.io.javacsv.CSVReader;
+import repicea.io.javacsv.MappedCSVReader;
+import repicea.io.javadbf.DBFField;
 import repicea.io.javadbf.DBFReader;
+import repicea.io.javadbf.DBFWriter;
 import repicea.io.javasql.SQLReader;
 import repicea.lang.REpiceaSystem;
 import repicea.util.ObjectUtility;
@@ -319,6 +331,34 @@ public class ImportTest {
 		
 	}
 
+	/**
+	 * This test checks that the records of a CSV file are only counted when needed 
+	 * and that the count is retrieved from the reading when the end of file is reached.
+	 * @throws IOException
+	 */
+	@Test
+	public void CSVReaderLazyRecordCountTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.csv";
+
+		CSVReader reader = new CSVReader(inputFilename);
+		int estimatedCount = reader.getEstimatedRecordCount();
+		assertTrue("Estimated number of records within 10%", Math.abs(estimatedCount - 3647) < 365);
+		int nbRecords = 0;
+		while (reader.nextRecord() != null) {
+			nbRecords++;
+		}
+		assertEquals("Number of records read", 3647, nbRecords);
+		assertEquals("Number of records after reading", 3647, reader.getRecordCount());
+		reader.reset();
+		assertEquals("Number of records after resetting", 3647, reader.getRecordCount());
+		reader.close();
+		
+		CSVReader reader2 = new CSVReader(inputFilename);
+		assertEquals("Number of records before reading", 3647, reader2.getRecordCount());
+		reader2.close();
+	}
+
 	@Test
 	public void DBFReaderResetTest() throws IOException {
 		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
@@ -375,4 +415,343 @@ public class ImportTest {
 		
 	}
 	
+	/**
+	 * This test checks that the cursor provides the same values as the records.
+	 * @throws IOException
+	 */
+	@Test
+	public void CSVReaderCursorTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.csv";
+		CompareCursorWithRecords(new CSVReader(inputFilename), new CSVReader(inputFilename), 3647);
+	}
+
+	/**
+	 * This test checks that the cursor provides the same values as the records.
+	 * @throws IOException
+	 */
+	@Test
+	public void DBFReaderCursorTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.DBF";
+		CompareCursorWithRecords(new DBFReader(inputFilename), new DBFReader(inputFilename), 3647);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static void CompareCursorWithRecords(FormatReader cursorReader, FormatReader recordReader, int expectedNumberOfRecords) throws IOException {
+		int nbRecords = 0;
+		Object[] record;
+		while ((record = recordReader.nextRecord()) != null) {
+			assertTrue("Cursor advanced", cursorReader.advance());
+			for (int j = 0; j < recordReader.getFieldCount(); j++) {
+				Object value = j < record.length ? record[j] : null;
+				String message = "Comparing record " + nbRecords + "; field no " + j;
+				if (value == null || "".equals(value)) {
+					assertTrue(message, cursorReader.isNull(j));
+					assertTrue(message, Double.isNaN(cursorReader.getDouble(j)));
+				} else {
+					assertEquals(message, value.toString(), cursorReader.getString(j));
+					if (value instanceof Float) {
+						assertEquals(message, ((Float) value).floatValue(), (float) cursorReader.getDouble(j), 0d);
+					} else if (value instanceof Number) {
+						assertEquals(message, ((Number) value).doubleValue(), cursorReader.getDouble(j), 0d);
+						assertEquals(message, ((Number) value).intValue(), cursorReader.getInt(j));
+					} else if (value.toString().trim().matches("-?\\d+(\\.\\d*)?")) {
+						assertEquals(message, Double.parseDouble(value.toString()), cursorReader.getDouble(j), 0d);
+					}
+				}
+			}
+			nbRecords++;
+		}
+		assertTrue("Cursor at the end", !cursorReader.advance());
+		assertEquals("Number of records", expectedNumberOfRecords, nbRecords);
+		cursorReader.close();
+		recordReader.close();
+	}
+	
+	/**
+	 * This test reads gzip-compressed copies of the CSV and DBF files and checks that the records are the 
+	 * same as those of the original files.
+	 * @throws IOException
+	 */
+	@Test
+	public void CompressedFilesReadTheSameTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		for (String filename : new String[] {"TEST6152.csv", "TEST6152.DBF"}) {
+			String compressedFilename = REpiceaSystem.getJavaIOTmpDir() + filename + ".gz";
+			GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(compressedFilename));
+			Files.copy(Paths.get(filePath + filename), out);
+			out.close();
+			
+			FormatReader<?> reader = FormatReader.createFormatReader(filePath + filename);
+			FormatReader<?> compressedReader = FormatReader.createFormatReader(compressedFilename);
+			assertEquals("Reader class", reader.getClass(), compressedReader.getClass());
+			assertEquals("Number of records", reader.getRecordCount(), compressedReader.getRecordCount());
+			Object[] read1 = reader.nextRecord();
+			Object[] read2 = compressedReader.nextRecord(); 
+			while (read1 != null) {
+				CompareTwoRecords(read1, read2, reader.getFieldCount());
+				read1 = reader.nextRecord(100);
+				read2 = compressedReader.nextRecord(100);
+			}
+			assertTrue("End of compressed file", read2 == null);
+			reader.close();
+			compressedReader.close();
+		}
+	}
+	
+	/**
+	 * This test sets a projection on the readers and checks that the projected fields are the same as 
+	 * those of the full records while the other fields are null.
+	 * @throws IOException
+	 */
+	@Test
+	public void ProjectionTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String csvFilename = filePath + "TEST6152.csv";
+		String dbfFilename = filePath + "TEST6152.DBF";
+		CompareProjectionWithRecords(new CSVReader(csvFilename), new CSVReader(csvFilename));
+		CompareProjectionWithRecords(new MappedCSVReader(csvFilename), new CSVReader(csvFilename));
+		CompareProjectionWithRecords(new DBFReader(dbfFilename), new DBFReader(dbfFilename));
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static void CompareProjectionWithRecords(FormatReader projectedReader, FormatReader recordReader) throws IOException {
+		int[] projection = new int[] {4, 1, -1};
+		projectedReader.setProjection(projection);
+		assertTrue("Field 1 projected", projectedReader.isProjected(1));
+		assertTrue("Field 0 not projected", !projectedReader.isProjected(0));
+		int nbRecords = 0;
+		Object[] record;
+		while ((record = recordReader.nextRecord()) != null) {
+			Object[] projectedRecord = projectedReader.nextRecord();
+			for (int j = 0; j < record.length; j++) {
+				String message = "Comparing record " + nbRecords + "; field no " + j;
+				if (j == 1 || j == 4) {
+					assertEquals(message, record[j], projectedRecord[j]);
+				} else {
+					assertTrue(message, projectedRecord[j] == null);
+				}
+			}
+			nbRecords++;
+		}
+		assertTrue("End of projected file", projectedReader.nextRecord() == null);
+		projectedReader.reset();
+		assertTrue("Cursor advanced", projectedReader.advance());
+		assertTrue("Unprojected field is null", projectedReader.isNull(0));
+		assertTrue("Unprojected field is null", projectedReader.getString(0) == null);
+		projectedReader.setProjection(null);
+		projectedReader.reset();
+		assertTrue("Cursor advanced", projectedReader.advance());
+		assertTrue("Field is not null", !projectedReader.isNull(0));
+		projectedReader.close();
+		recordReader.close();
+	}
+	
+	/**
+	 * This test fetches the records of the DBF file in a random order and checks that they 
+	 * are the same as those read sequentially. 
+	 * @throws IOException
+	 */
+	@Test
+	public void DBFReadRecordTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.DBF";
+		List<Object[]> records = ReadAllRecords(new DBFReader(inputFilename));
+		CompareReadRecordWithRecords(new DBFReader(inputFilename), records);
+	}
+
+	/**
+	 * This test flags some records of a copy of the DBF file as deleted and checks that the 
+	 * rows are the same whether they are read sequentially or fetched at random.
+	 * @throws IOException
+	 */
+	@Test
+	public void DBFReadRecordWithDeletedRecordsTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.DBF";
+		List<Object[]> records = ReadAllRecords(new DBFReader(inputFilename));
+		
+		String copyFilename = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_deleted.DBF";
+		byte[] bytes = Files.readAllBytes(Paths.get(inputFilename));
+		int headerLength = (bytes[8] & 0xFF) | (bytes[9] & 0xFF) << 8;
+		int recordLength = (bytes[10] & 0xFF) | (bytes[11] & 0xFF) << 8;
+		int[] deletedRecords = new int[] {2000, 500, 0};		// in descending order for the removal
+		for (int recordIndex : deletedRecords) {
+			bytes[headerLength + recordIndex * recordLength] = '*';
+			records.remove(recordIndex);
+		}
+		Files.write(Paths.get(copyFilename), bytes);
+		
+		List<Object[]> rows = ReadAllRecords(new DBFReader(copyFilename));
+		assertEquals("Number of rows", records.size(), rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			CompareTwoRecords(records.get(i), rows.get(i), records.get(i).length);
+		}
+		CompareReadRecordWithRecords(new DBFReader(copyFilename), records);
+	}
+
+	/**
+	 * This test reads different sets of records concurrently through several readers on the same file.
+	 * @throws Exception
+	 */
+	@Test
+	public void DBFConcurrentReadRecordTest() throws Exception {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.DBF";
+		List<Object[]> records = ReadAllRecords(new DBFReader(inputFilename));
+		DBFReader sharedReader = new DBFReader(inputFilename);
+		int numberOfThreads = 4;
+		List<Thread> threads = new ArrayList<Thread>();
+		List<Throwable> failures = new ArrayList<Throwable>();
+		for (int t = 0; t < numberOfThreads; t++) {
+			final int firstRecord = t;
+			Thread thread = new Thread(() -> {
+				try {
+					FormatReader<?> reader = sharedReader.openNewReader();
+					for (int i = firstRecord; i < records.size(); i += numberOfThreads) {
+						Object[] record = ((RandomAccessRecordReader) reader).readRecord(i);
+						CompareTwoRecords(records.get(i), record, record.length);
+					}
+					reader.close();
+				} catch (Throwable e) {
+					synchronized (failures) {
+						failures.add(e);
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		sharedReader.close();
+		assertTrue("No failure", failures.isEmpty());
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static List<Object[]> ReadAllRecords(FormatReader reader) throws IOException {
+		List<Object[]> records = new ArrayList<Object[]>();
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			records.add(record);
+		}
+		reader.close();
+		return records;
+	}
+	
+	private static void CompareReadRecordWithRecords(DBFReader reader, List<Object[]> records) throws IOException {
+		assertTrue("Random access supported", reader.isRandomAccessSupported());
+		Random random = new Random(20261018L);
+		for (int k = 0; k < 500; k++) {
+			int i = random.nextInt(records.size());
+			Object[] record = reader.readRecord(i);
+			CompareTwoRecords(records.get(i), record, record.length);
+			if (i + 100 < records.size()) {		// the sequential reading goes on from the fetched record 
+				record = reader.nextRecord(99);
+				CompareTwoRecords(records.get(i + 100), record, record.length);
+			}
+		}
+		assertTrue("Beyond the last record", reader.readRecord(records.size()) == null);
+		Object[] record = reader.readRecord(records.size() - 1);
+		CompareTwoRecords(records.get(records.size() - 1), record, record.length);
+		assertTrue("End of file", reader.nextRecord() == null);
+		reader.close();
+	}
+	
+	/**
+	 * This test writes the records of the DBF file in two sessions, the second one appending the records 
+	 * to the file, and checks that the copy is the same as the original file.
+	 * @throws IOException
+	 */
+	@Test
+	public void DBFWriterAppendTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.DBF";
+		String outputFilename = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_append.dbf";
+		List<Object[]> records = ReadAllRecords(new DBFReader(inputFilename));
+		DBFReader reader = new DBFReader(inputFilename);
+		
+		DBFWriter writer = new DBFWriter(new File(outputFilename), false);
+		writer.setFields(new ArrayList<FormatField>(reader.getHeader().getFieldList()));
+		for (int i = 0; i < 1000; i++) {
+			writer.addRecord(records.get(i));
+		}
+		writer.close();
+		writer = new DBFWriter(new File(outputFilename), true);
+		for (int i = 1000; i < records.size(); i++) {
+			writer.addRecord(records.get(i));
+		}
+		writer.close();
+		reader.close();
+		
+		byte[] bytes = Files.readAllBytes(Paths.get(outputFilename));
+		int headerLength = (bytes[8] & 0xFF) | (bytes[9] & 0xFF) << 8;
+		int recordLength = (bytes[10] & 0xFF) | (bytes[11] & 0xFF) << 8;
+		assertEquals("File length", headerLength + records.size() * recordLength + 1, bytes.length);
+		assertEquals("End of data", 0x1A, bytes[bytes.length - 1]);
+		
+		List<Object[]> copiedRecords = ReadAllRecords(new DBFReader(outputFilename));
+		assertEquals("Number of records", records.size(), copiedRecords.size());
+		for (int i = 0; i < records.size(); i++) {
+			CompareTwoRecords(records.get(i), copiedRecords.get(i), records.get(i).length);
+		}
+	}
+	
+	/**
+	 * This test checks that the records added by columns are the same as those added one by one.
+	 * @throws IOException
+	 */
+	@Test
+	public void DBFWriterAddColumnsTest() throws IOException {
+		String filePath = ObjectUtility.getPackagePath(ImportTest.class);
+		String inputFilename = filePath + "TEST6152.DBF";
+		String recordFilename = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_records.dbf";
+		String columnFilename = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_columns.dbf";
+		DBFReader reader = new DBFReader(inputFilename);
+		List<Object[]> records = ReadAllRecords(new DBFReader(inputFilename));
+		int nbFields = reader.getFieldCount();
+		
+		DBFWriter writer = new DBFWriter(new File(recordFilename), false);
+		writer.setFields(new ArrayList<FormatField>(reader.getHeader().getFieldList()));
+		for (Object[] record : records) {
+			writer.addRecord(record);
+		}
+		writer.close();
+		
+		Object[] columns = new Object[nbFields];
+		for (int j = 0; j < nbFields; j++) {
+			if (reader.getHeader().getField(j).getDataType() == DBFField.FIELD_TYPE_N) {
+				double[] column = new double[records.size()];
+				for (int i = 0; i < records.size(); i++) {
+					column[i] = records.get(i)[j] == null ? Double.NaN : (Double) records.get(i)[j];
+				}
+				columns[j] = column;
+			} else {
+				String[] column = new String[records.size()];
+				for (int i = 0; i < records.size(); i++) {
+					column[i] = (String) records.get(i)[j];
+				}
+				columns[j] = column;
+			}
+		}
+		writer = new DBFWriter(new File(columnFilename), false);
+		writer.setFields(new ArrayList<FormatField>(reader.getHeader().getFieldList()));
+		writer.addColumns(1000, columns);		// the columns can be passed in several calls
+		Object[] remainingColumns = new Object[nbFields];
+		for (int j = 0; j < nbFields; j++) {
+			int length = Array.getLength(columns[j]) - 1000;
+			remainingColumns[j] = Array.newInstance(columns[j].getClass().getComponentType(), length);
+			System.arraycopy(columns[j], 1000, remainingColumns[j], 0, length);
+		}
+		writer.addColumns(records.size() - 1000, remainingColumns);
+		writer.close();
+		reader.close();
+
+		assertArrayEquals("Files written by records and by columns", 
+				Files.readAllBytes(Paths.get(recordFilename)), 
+				Files.readAllBytes(Paths.get(columnFilename)));
+	}
+	
 }
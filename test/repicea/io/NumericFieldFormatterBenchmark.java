@@ -0,0 +1,133 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import repicea.io.javadbf.DBFField;
+import repicea.io.javadbf.DBFReader;
+import repicea.io.javadbf.Utils;
+import repicea.util.ObjectUtility;
+
+/**
+ * A JMH benchmark that compares the NumericFieldFormatter class with the former formatting of the 
+ * numeric fields in the DBFWriter class, i.e. a DecimalFormat instance followed by the padding of the 
+ * String instance. <p>
+ * 
+ * The values and the formats are those of the numeric fields of the TEST6152.DBF file. The correctness 
+ * of the formatter is checked in the NumericFieldFormatterTest class.
+ * @author Mathieu Fortin - October 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class NumericFieldFormatterBenchmark {
+
+	private double[] values;
+	private int[] fieldIndices;
+	private int[] offsets;
+	private DecimalFormat[] decimalFormats;
+	private NumericFieldFormatter[] formatters;
+	private byte[] record;
+	
+	@Setup
+	public void setup() throws IOException {
+		String filename = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.DBF";
+		DBFReader reader = new DBFReader(filename);
+		int numberOfFields = reader.getFieldCount();
+		decimalFormats = new DecimalFormat[numberOfFields];
+		formatters = new NumericFieldFormatter[numberOfFields];
+		int[] fieldOffsets = new int[numberOfFields];
+		int recordLength = 0;
+		for (int j = 0; j < numberOfFields; j++) {
+			DBFField field = reader.getHeader().getField(j);
+			fieldOffsets[j] = recordLength;
+			recordLength += field.getFieldLength();
+			if (field.getDataType() == DBFField.FIELD_TYPE_N || field.getDataType() == DBFField.FIELD_TYPE_F) {
+				decimalFormats[j] = NumericFieldFormatter.createDecimalFormat(field.getFieldLength(), field.getDecimalCount());
+				formatters[j] = new NumericFieldFormatter(field.getFieldLength(), field.getDecimalCount());
+			}
+		}
+		record = new byte[recordLength];
+		List<double[]> numericFields = new ArrayList<double[]>();
+		Object[] r;
+		while ((r = reader.nextRecord()) != null) {
+			for (int j = 0; j < numberOfFields; j++) {
+				if (formatters[j] != null && r[j] instanceof Double) {
+					numericFields.add(new double[] {(Double) r[j], j});
+				}
+			}
+		}
+		reader.close();
+		values = new double[numericFields.size()];
+		fieldIndices = new int[numericFields.size()];
+		offsets = new int[numericFields.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = numericFields.get(i)[0];
+			fieldIndices[i] = (int) numericFields.get(i)[1];
+			offsets[i] = fieldOffsets[fieldIndices[i]];
+		}
+	}
+	
+	@Benchmark
+	public void formerFormatting(Blackhole blackhole) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			int j = fieldIndices[i];
+			byte[] bytes = Utils.textPadding(decimalFormats[j].format(values[i]), "8859_1", formatters[j].getWidth(), Utils.ALIGN_RIGHT);
+			System.arraycopy(bytes, 0, record, offsets[i], bytes.length);
+		}
+		blackhole.consume(record);
+	}
+
+	@Benchmark
+	public void formatterFormatting(Blackhole blackhole) {
+		for (int i = 0; i < values.length; i++) {
+			formatters[fieldIndices[i]].format(values[i], record, offsets[i]);
+		}
+		blackhole.consume(record);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NumericFieldFormatterBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+}
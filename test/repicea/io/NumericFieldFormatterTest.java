@@ -0,0 +1,96 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import repicea.io.javadbf.Utils;
+
+public class NumericFieldFormatterTest {
+
+	private static final double[] NUMBERS = new double[] {0d, -0d, 0.5, -0.5, 1.5, 2.5, 3.5, -2.5, 0.125, 0.135, 1.005, -0.001, -0.4, 
+			12.345, -12.345, 0.1, 0.30000000000000004, 3.14159265358979, 99999.995, 123456789.125, 1e15, 1e20, -1e20, 
+			Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE};
+	
+	private static final int[][] FORMATS = new int[][] {{10, 2}, {10, 0}, {5, 3}, {3, 1}, {1, 0}, {19, 5}, {20, 15}, {30, 18}};
+	
+	/*
+	 * The former approach in the DBFWriter class.
+	 */
+	private static String formerFormat(double value, int width, int decimals) throws Exception {
+		return new String(Utils.doubleFormating(value, "8859_1", width, decimals), StandardCharsets.ISO_8859_1);
+	}
+	
+	private static String format(NumericFieldFormatter formatter, double value) {
+		byte[] dest = new byte[formatter.getWidth() + 2];
+		dest[0] = 'x';
+		dest[dest.length - 1] = 'x';
+		formatter.format(value, dest, 1);
+		assertEquals("The bytes around the field have been changed!", 'x', dest[0]);
+		assertEquals("The bytes around the field have been changed!", 'x', dest[dest.length - 1]);
+		return new String(dest, 1, formatter.getWidth(), StandardCharsets.ISO_8859_1);
+	}
+	
+	@Test
+	public void formatSameAsFormerApproachTest() throws Exception {
+		for (int[] f : FORMATS) {
+			NumericFieldFormatter formatter = new NumericFieldFormatter(f[0], f[1]);
+			for (double value : NUMBERS) {
+				assertEquals(value + " with format " + f[0] + "." + f[1], formerFormat(value, f[0], f[1]), format(formatter, value));
+			}
+		}
+	}
+
+	@Test
+	public void formatRandomValuesTest() throws Exception {
+		Random random = new Random(20261018L);
+		for (int[] f : FORMATS) {
+			NumericFieldFormatter formatter = new NumericFieldFormatter(f[0], f[1]);
+			for (int i = 0; i < 20000; i++) {
+				double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(14) - 3);
+				if (random.nextBoolean()) {	// values with ties
+					value = Math.round(value * 1000) / 1000d + 0.0005;
+				}
+				assertEquals(value + " with format " + f[0] + "." + f[1], formerFormat(value, f[0], f[1]), format(formatter, value));
+			}
+		}
+	}
+
+	@Test
+	public void formatLongSameAsDoubleTest() throws Exception {
+		long[] values = new long[] {0L, 1L, -1L, 12L, -123456L, 9007199254740993L, Long.MAX_VALUE, Long.MIN_VALUE};
+		for (int[] f : FORMATS) {
+			NumericFieldFormatter formatter = new NumericFieldFormatter(f[0], f[1]);
+			for (long value : values) {
+				byte[] dest = new byte[f[0]];
+				formatter.format(value, dest, 0);
+				String expected = NumericFieldFormatter.createDecimalFormat(f[0], f[1]).format(value);
+				expected = expected.length() > f[0] ? expected.substring(0, f[0]) : String.format("%" + f[0] + "s", expected);
+				assertEquals(value + " with format " + f[0] + "." + f[1], expected, new String(dest, StandardCharsets.ISO_8859_1));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import repicea.io.javacsv.CSVReader;
+import repicea.util.ObjectUtility;
+
+/**
+ * A JMH benchmark that compares the NumericFieldParser class with the former parsing of the 
+ * numeric fields in the REpiceaRecordReader.checkInputFieldsFormat method. <p>
+ * 
+ * The fields are those of the TEST6152.csv file. The correctness of the parser is checked in the 
+ * NumericFieldParserTest class.
+ * @author Mathieu Fortin - October 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class NumericFieldParserBenchmark {
+
+	private String[] fields;
+	
+	@Setup
+	public void setup() throws IOException {
+		String filename = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+		CSVReader reader = new CSVReader(filename);
+		List<String> numericFields = new ArrayList<String>();
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			for (Object value : record) {
+				String str = value.toString();
+				if (!str.isEmpty() && (Character.isDigit(str.charAt(0)) || str.charAt(0) == '-')) {
+					numericFields.add(str);
+				}
+			}
+		}
+		reader.close();
+		fields = numericFields.toArray(new String[numericFields.size()]);
+	}
+	
+	@Benchmark
+	public void formerParseDouble(Blackhole blackhole) {
+		for (String field : fields) {
+			if (field.isEmpty() || field.trim().equals(".") || field.trim().toUpperCase().equals("NA")) {
+				blackhole.consume(Double.NaN);
+			} else {
+				blackhole.consume(Double.parseDouble(field.replace(",", ".")));
+			}
+		}
+	}
+
+	@Benchmark
+	public void parserParseDouble(Blackhole blackhole) {
+		for (String field : fields) {
+			if (NumericFieldParser.isMissing(field)) {
+				blackhole.consume(Double.NaN);
+			} else {
+				blackhole.consume(NumericFieldParser.parseDouble(field));
+			}
+		}
+	}
+
+	@Benchmark
+	public void formerParseInt(Blackhole blackhole) {
+		for (String field : fields) {
+			if (field.isEmpty() || field.trim().equals(".") || field.trim().toUpperCase().equals("NA")) {
+				blackhole.consume(0);
+			} else {
+				blackhole.consume(((Double) Double.parseDouble(field.replace(",", "."))).intValue());
+			}
+		}
+	}
+
+	@Benchmark
+	public void parserParseInt(Blackhole blackhole) {
+		for (String field : fields) {
+			if (NumericFieldParser.isMissing(field)) {
+				blackhole.consume(0);
+			} else {
+				blackhole.consume(NumericFieldParser.parseInt(field));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NumericFieldParserBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NumericFieldParserTest {
+
+	private static final String[] NUMBERS = new String[] {"0", "-0", "12", "+12", "-12.345", "12,345", " 12.5 ", "12.", ".5", 
+			"0.1", "3.14159265358979", "123456789012345678", "9007199254740993", "1e3", "-2.5E-3", "0.30000000000000004", 
+			"2.9999999999999999999", "-2.9999999999999999999", "2147483647.9", "2147483648", "-2147483649", "99999999999.5"};
+	
+	private static final String[] NOT_NUMBERS = new String[] {"abc", "1.2.3", "1,2,3", "-", "12a", "   "};
+
+	/*
+	 * The former approach in the REpiceaRecordReader.checkInputFieldsFormat method.
+	 */
+	private static double formerParseDouble(String str) {
+		return Double.parseDouble(str.replace(",", "."));
+	}
+	
+	@Test
+	public void parseDoubleSameAsFormerApproachTest() {
+		for (String str : NUMBERS) {
+			double expected = formerParseDouble(str);
+			assertEquals(str, expected, NumericFieldParser.parseDouble(str), 0d);
+			byte[] bytes = ("x" + str + "x").getBytes(StandardCharsets.US_ASCII);
+			assertEquals(str, expected, NumericFieldParser.parseDouble(bytes, 1, bytes.length - 1), 0d);
+		}
+	}
+
+	@Test
+	public void parseIntSameAsFormerApproachTest() {
+		for (String str : NUMBERS) {
+			int expected = (int) formerParseDouble(str);
+			assertEquals(str, expected, NumericFieldParser.parseInt(str));
+			byte[] bytes = ("x" + str + "x").getBytes(StandardCharsets.US_ASCII);
+			assertEquals(str, expected, NumericFieldParser.parseInt(bytes, 1, bytes.length - 1));
+		}
+	}
+
+	@Test
+	public void parseRandomDecimalsTest() {
+		Random random = new Random(20261018L);
+		for (int i = 0; i < 100000; i++) {
+			String str = Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12)));
+			if (random.nextBoolean() && str.length() > 12) {
+				str = str.substring(0, 12);
+			}
+			assertEquals(str, formerParseDouble(str), NumericFieldParser.parseDouble(str), 0d);
+			assertEquals(str, (int) formerParseDouble(str), NumericFieldParser.parseInt(str));
+		}
+	}
+
+	@Test
+	public void parseRandomFloatsTest() {
+		Random random = new Random(20261019L);
+		for (int i = 0; i < 100000; i++) {
+			String str = Float.toString((float) ((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8))));
+			if (random.nextBoolean() && str.length() > 8) {
+				str = str.substring(0, 8);
+			}
+			byte[] bytes = str.getBytes(StandardCharsets.US_ASCII);
+			assertEquals(str, Float.parseFloat(str), NumericFieldParser.parseFloat(bytes, 0, bytes.length), 0f);
+		}
+	}
+
+	@Test
+	public void notNumbersTest() {
+		for (String str : NOT_NUMBERS) {
+			try {
+				NumericFieldParser.parseDouble(str);
+				throw new AssertionError("A NumberFormatException should have been thrown for " + str);
+			} catch (NumberFormatException e) {}
+			try {
+				NumericFieldParser.parseInt(str);
+				throw new AssertionError("A NumberFormatException should have been thrown for " + str);
+			} catch (NumberFormatException e) {}
+		}
+	}
+	
+	@Test
+	public void missingValuesTest() {
+		for (String str : new String[] {"", ".", " . ", "NA", "na", " Na "}) {
+			assertTrue(str, NumericFieldParser.isMissing(str));
+			byte[] bytes = str.getBytes(StandardCharsets.US_ASCII);
+			assertTrue(str, NumericFieldParser.isMissing(bytes, 0, bytes.length));
+		}
+		for (String str : new String[] {"   ", "0", "N", "NAN", ".."}) {
+			assertFalse(str, NumericFieldParser.isMissing(str));
+			byte[] bytes = str.getBytes(StandardCharsets.US_ASCII);
+			assertFalse(str, NumericFieldParser.isMissing(bytes, 0, bytes.length));
+		}
+	}
+	
+}
@@ -36,5 +36,13 @@ public class REpiceaFileFilterTest {
 		Assert.assertTrue("File is not accepted", !REpiceaFileFilter.XLSX.accept(new File(wrongFilename)));
 	}
 	
+	@Test
+	public void testCompressedFilename() {
+		Assert.assertEquals("Compressed CSV file", REpiceaFileFilter.FileType.CSV, REpiceaFileFilter.getFileType("inventory.csv.gz"));
+		Assert.assertEquals("Compressed DBF file", REpiceaFileFilter.FileType.DBF, REpiceaFileFilter.getFileType("INVENTORY.DBF.GZ"));
+		Assert.assertTrue("Compressed file", REpiceaFileFilter.isGzipCompressed("inventory.csv.gz"));
+		Assert.assertTrue("Uncompressed file", !REpiceaFileFilter.isGzipCompressed("inventory.csv"));
+		Assert.assertEquals("Compressed file without type", REpiceaFileFilter.FileType.UNKNOWN, REpiceaFileFilter.getFileType("inventory.gz"));
+	}
 	
 }
@@ -0,0 +1,156 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import repicea.io.FileUtility;
+import repicea.io.ImportTest;
+import repicea.lang.REpiceaSystem;
+import repicea.util.ObjectUtility;
+
+public class CSVParallelScannerTest {
+
+	/**
+	 * This test checks that the records read in parallel are the same as those read sequentially, 
+	 * in the ordered and the unordered modes.
+	 * @throws Exception
+	 */
+	@Test
+	public void parallelAndSequentialReadingProvideTheSameRecordsTest() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_scanner.csv";
+		if (!FileUtility.copy(sourcePath, targetPath)) {
+			throw new IOException("Unable to copy the CSV file to tmp directory!");
+		}
+		CSVReader reader = new CSVReader(targetPath);
+		List<Object[]> expectedRecords = new ArrayList<Object[]>();
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			expectedRecords.add(record);
+		}
+		reader.reset();
+		
+		List<Object[]> orderedRecords = new ArrayList<Object[]>();
+		AtomicInteger expectedIndex = new AtomicInteger();
+		reader.readRecordsInParallel((r, recordIndex) -> r, 
+				(r, recordIndex) -> {
+					assertEquals("Record index", expectedIndex.getAndIncrement(), (int) recordIndex);
+					orderedRecords.add(r);
+				}, 
+				true, 
+				1000);
+		assertEquals("Number of records in ordered mode", expectedRecords.size(), orderedRecords.size());
+		for (int i = 0; i < expectedRecords.size(); i++) {
+			assertArrayEquals("Comparing records in ordered mode", expectedRecords.get(i), orderedRecords.get(i));
+		}
+		
+		ConcurrentHashMap<Integer, Object[]> unorderedRecords = new ConcurrentHashMap<Integer, Object[]>();
+		reader.readRecordsInParallel((r, recordIndex) -> r, (r, recordIndex) -> unorderedRecords.put(recordIndex, r), false, 1000);
+		assertEquals("Number of records in unordered mode", expectedRecords.size(), unorderedRecords.size());
+		for (int i = 0; i < expectedRecords.size(); i++) {
+			assertArrayEquals("Comparing records in unordered mode", expectedRecords.get(i), unorderedRecords.get(i));
+		}
+		
+		assertArrayEquals("Reader position is not affected", expectedRecords.get(0), reader.nextRecord());
+		reader.close();
+		assertFalse("No record index file", CSVRecordIndex.getIndexFile(targetPath).exists());
+	}
+
+	/**
+	 * This test checks that an exception thrown by the converter is rethrown once the previous records have been consumed.
+	 * @throws Exception
+	 */
+	@Test
+	public void converterExceptionIsRethrownInOrderTest() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_scanner2.csv";
+		if (!FileUtility.copy(sourcePath, targetPath)) {
+			throw new IOException("Unable to copy the CSV file to tmp directory!");
+		}
+		CSVReader reader = new CSVReader(targetPath);
+		AtomicInteger numberOfConsumedRecords = new AtomicInteger();
+		try {
+			reader.readRecordsInParallel((r, recordIndex) -> {
+						if (recordIndex == 3000) {
+							throw new IllegalStateException("Record " + recordIndex);
+						}
+						return r;
+					}, 
+					(r, recordIndex) -> numberOfConsumedRecords.incrementAndGet(), 
+					true, 
+					1000);
+			throw new AssertionError("An exception should have been thrown!");
+		} catch (IllegalStateException e) {
+			assertEquals("Exception message", "Record 3000", e.getMessage());
+		}
+		assertEquals("Number of consumed records", 3000, numberOfConsumedRecords.get());
+		reader.close();
+	}
+
+	/**
+	 * This test checks that the byte ranges are realigned on the records when the quoted fields 
+	 * contain delimiters and line breaks.
+	 * @throws Exception
+	 */
+	@Test
+	public void quotedLineBreaksAcrossByteRangesTest() throws Exception {
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "quotedLineBreaks_scanner.csv";
+		FileWriter writer = new FileWriter(targetPath);
+		writer.write("id,comment,value\r\n");
+		for (int i = 0; i < 500; i++) {
+			writer.write(i + ",\"line " + i + "\n" + i + ",\"\"quoted\"\"\r\n" + i + "\"," + (i * 0.5) + "\r\n");
+		}
+		writer.close();
+		
+		CSVReader reader = new CSVReader(targetPath);
+		List<Object[]> expectedRecords = new ArrayList<Object[]>();
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			expectedRecords.add(record);
+		}
+		assertEquals("Number of records read sequentially", 500, expectedRecords.size());
+		reader.reset();
+
+		for (int bytesPerChunk : new int[] {7, 16, 31, 64}) {
+			List<Object[]> parallelRecords = new ArrayList<Object[]>();
+			reader.readRecordsInParallel((r, recordIndex) -> r, (r, recordIndex) -> parallelRecords.add(r), true, bytesPerChunk);
+			assertEquals("Number of records with chunks of " + bytesPerChunk + " bytes", expectedRecords.size(), parallelRecords.size());
+			for (int i = 0; i < expectedRecords.size(); i++) {
+				assertArrayEquals("Comparing records with chunks of " + bytesPerChunk + " bytes", expectedRecords.get(i), parallelRecords.get(i));
+			}
+		}
+		reader.close();
+		new File(targetPath).delete();
+	}
+	
+}
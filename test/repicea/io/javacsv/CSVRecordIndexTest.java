@@ -0,0 +1,87 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import repicea.io.FileUtility;
+import repicea.io.ImportTest;
+import repicea.lang.REpiceaSystem;
+import repicea.util.ObjectUtility;
+
+public class CSVRecordIndexTest {
+
+	/**
+	 * This test checks that the records reached through the record index are the same as those 
+	 * reached by reading the skipped records. It also checks that the sidecar file is reused.
+	 * @throws IOException
+	 */
+	@Test
+	public void CSVReaderWithRecordIndexReadTheSameTest() throws IOException {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_index.csv";
+		if (!FileUtility.copy(sourcePath, targetPath)) {
+			throw new IOException("Unable to copy the CSV file to tmp directory!");
+		}
+		File indexFile = CSVRecordIndex.getIndexFile(targetPath);
+		indexFile.delete();
+		
+		CSVReader reader = new CSVReader(targetPath);
+		List<Object[]> expectedRecords = new ArrayList<Object[]>();
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			expectedRecords.add(record);
+		}
+		reader.close();
+
+		CSVReader.setRecordIndexEnabled(true);
+		try {
+			int[] lineNumbers = new int[] {0, 1, 100, 101, 1500, 3000, 3646};
+			for (int k = 0; k < 2; k++) {		// the second time, the sidecar file is loaded
+				reader = new CSVReader(targetPath);
+				int lineCounter = 0;
+				for (int lineNumber : lineNumbers) {
+					assertArrayEquals("Comparing record " + lineNumber, expectedRecords.get(lineNumber), reader.nextRecord(lineNumber - lineCounter));
+					lineCounter = lineNumber + 1;
+				}
+				assertNull("End of file", reader.nextRecord());
+				assertEquals("Number of records", expectedRecords.size(), reader.getRecordCount());
+				assertTrue("Index file exists", indexFile.exists());
+				reader.reset();
+				assertNull("Skipping beyond the end of file", reader.nextRecord(10000));
+				reader.close();
+			}
+		} finally {
+			CSVReader.setRecordIndexEnabled(false);
+			indexFile.delete();
+		}
+	}
+
+}
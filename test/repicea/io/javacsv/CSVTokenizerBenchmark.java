@@ -0,0 +1,98 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import repicea.io.ImportTest;
+import repicea.util.ObjectUtility;
+
+/**
+ * A JMH benchmark that compares the CSVTokenizer class with the former splitting of the lines
+ * through the ObjectUtility.splitLine method. <p>
+ * 
+ * The correctness of the tokenizer is checked in the CSVTokenizerTest class.
+ * @author Mathieu Fortin - October 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class CSVTokenizerBenchmark {
+
+	private String content;
+	
+	@Setup
+	public void setup() throws IOException {
+		String filename = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+		content = new String(Files.readAllBytes(Paths.get(filename)), Charset.defaultCharset());
+	}
+	
+	@Benchmark
+	public void splitLine(Blackhole blackhole) throws IOException {
+		BufferedReader reader = new BufferedReader(new StringReader(content));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			List<String> fields = ObjectUtility.splitLine(line, ";");
+			for (String field : fields) {
+				blackhole.consume(field);
+			}
+		}
+	}
+
+	@Benchmark
+	public void csvTokenizer(Blackhole blackhole) throws IOException {
+		CSVTokenizer tokenizer = new CSVTokenizer(new StringReader(content), ";");
+		while (tokenizer.nextRecord()) {
+			for (int i = 0; i < tokenizer.getNumberOfFields(); i++) {
+				blackhole.consume(tokenizer.getField(i));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CSVTokenizerBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+}
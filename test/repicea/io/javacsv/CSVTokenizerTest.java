@@ -0,0 +1,97 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import repicea.util.ObjectUtility;
+
+/**
+ * Test the splitting of the CSV records by the CSVTokenizer class. The simple cases are
+ * checked against the ObjectUtility.splitLine method.
+ * @author Mathieu Fortin - October 2026
+ */
+public class CSVTokenizerTest {
+
+	private static void checkAgainstSplitLine(String lineRead) throws IOException {
+		assertEquals("Comparing with ObjectUtility.splitLine", ObjectUtility.splitLine(lineRead, ","), CSVTokenizer.splitLine(lineRead, ","));
+	}
+	
+	@Test
+	public void simpleStringTest() throws IOException {
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e"), CSVTokenizer.splitLine("a,b,c,d,e", ","));
+		checkAgainstSplitLine("a,b,c,d,e");
+	}
+
+	@Test
+	public void simpleTestWithTwoBlanks() throws IOException {
+		assertEquals(Arrays.asList("a", "", "", "d", "e"), CSVTokenizer.splitLine("a,,,d,e", ","));
+		checkAgainstSplitLine("a,,,d,e");
+	}
+
+	@Test
+	public void quotedFieldsTest() throws IOException {
+		assertEquals(Arrays.asList("a", "", "", "d,\"e"), CSVTokenizer.splitLine("a,,,\"d,\"e\"", ","));
+		for (String lineRead : new String[] {"a,,,\"d,\"e\"", "\"a,\",,d,e", "\"a,\",,d,", ",,,\"a,\",", ",,,\"a,\""}) {
+			checkAgainstSplitLine(lineRead);
+		}
+	}
+
+	@Test
+	public void escapedQuotesTest() throws IOException {
+		String lineRead = "\"a\"\"b\",\"\",\"c\"\"\"";
+		assertEquals(Arrays.asList("a\"b", "", "c\""), CSVTokenizer.splitLine(lineRead, ","));
+	}
+
+	@Test
+	public void multiCharacterDelimiterTest() throws IOException {
+		String lineRead = "a::b:c::\"d::e\"::";
+		assertEquals(Arrays.asList("a", "b:c", "d::e", ""), CSVTokenizer.splitLine(lineRead, "::"));
+	}
+
+	@Test
+	public void embeddedNewLinesAndEmptyLinesTest() throws IOException {
+		CSVTokenizer tokenizer = new CSVTokenizer(new StringReader("a,\"b\r\nc\"\r\n\nd\re"), ",");
+		assertTrue(tokenizer.nextRecord());
+		assertEquals(2, tokenizer.getNumberOfFields());
+		assertEquals("a", tokenizer.getField(0));
+		assertEquals("b\r\nc", tokenizer.getField(1));
+		assertTrue(tokenizer.skipRecord());
+		assertTrue(tokenizer.nextRecord());
+		assertEquals("d", tokenizer.getField(0));
+		assertTrue(tokenizer.nextRecord());
+		assertEquals("e", tokenizer.getField(0));
+		assertFalse(tokenizer.nextRecord());
+	}
+
+	@Test(expected = IOException.class)
+	public void unclosedQuoteTest() throws IOException {
+		CSVTokenizer.splitLine("a,\"b", ",");
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import repicea.io.FormatReader;
+import repicea.lang.REpiceaSystem;
+
+public class CharsetDetectionTest {
+
+	private static final String CONTENT = "Esp\u00E8ce;Nombre\n\u00C9rable \u00E0 sucre;12\nH\u00EAtre;3\n";
+
+	private static String writeFile(String filename, byte[] bom, String content, Charset charset) throws IOException {
+		String path = REpiceaSystem.getJavaIOTmpDir() + filename;
+		FileOutputStream out = new FileOutputStream(path);
+		out.write(bom);
+		out.write(content.getBytes(charset));
+		out.close();
+		return path;
+	}
+	
+	private static String readAll(Reader reader, int maxCharsPerRead) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[maxCharsPerRead];
+		int read;
+		while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+			sb.append(buffer, 0, read);
+		}
+		reader.close();
+		return sb.toString();
+	}
+	
+	@Test
+	public void detectionTest() {
+		byte[] bytes = new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a'};
+		assertEquals("UTF-8 byte order mark", StandardCharsets.UTF_8, CharsetDetector.detect(bytes, bytes.length));
+		bytes = new byte[] {(byte) 0xFF, (byte) 0xFE, 'a', 0};
+		assertEquals("UTF-16 byte order mark", StandardCharsets.UTF_16, CharsetDetector.detect(bytes, bytes.length));
+		bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+		assertEquals("UTF-8 sequences", StandardCharsets.UTF_8, CharsetDetector.detect(bytes, bytes.length));
+		assertEquals("UTF-8 sequence truncated at the end of the prefix", StandardCharsets.UTF_8, CharsetDetector.detect(bytes, 4));
+		bytes = CONTENT.getBytes(StandardCharsets.ISO_8859_1);
+		assertEquals("Invalid UTF-8 sequences", StandardCharsets.ISO_8859_1, CharsetDetector.detect(bytes, bytes.length));
+		bytes = "a;b\n1;2\n".getBytes(StandardCharsets.US_ASCII);
+		Charset expected = MappedCSVReader.isCharsetSupported(Charset.defaultCharset()) ? Charset.defaultCharset() : StandardCharsets.UTF_8;
+		assertEquals("ASCII only", expected, CharsetDetector.detect(bytes, bytes.length));
+	}
+
+	/**
+	 * This test checks that the ByteDecodingReader class provides the same characters as the InputStreamReader class,
+	 * including the replacement of malformed input. 
+	 * @throws IOException
+	 */
+	@Test
+	public void byteDecodingReaderAndInputStreamReaderReadTheSameTest() throws IOException {
+		Random random = new Random(20261018L);
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 300000) {
+			int type = random.nextInt(10);
+			if (type < 6) {
+				sb.append((char) ('a' + random.nextInt(26)));
+			} else if (type < 8) {
+				sb.append((char) (0xC0 + random.nextInt(64)));
+			} else if (type < 9) {
+				sb.append((char) (0x4E00 + random.nextInt(1000)));
+			} else {
+				sb.appendCodePoint(0x1F600 + random.nextInt(50));
+			}
+		}
+		String text = sb.toString();
+		for (Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, Charset.forName("windows-1252")}) {
+			byte[] bytes = text.getBytes(charset);
+			String expected = readAll(new InputStreamReader(new ByteArrayInputStream(bytes), charset), 8192);
+			assertEquals(charset.name(), expected, readAll(new ByteDecodingReader(new ByteArrayInputStream(bytes), charset), 8192));
+			assertEquals(charset.name(), expected, readAll(new ByteDecodingReader(new ByteArrayInputStream(bytes), charset), 7));
+		}
+		byte[] randomBytes = new byte[200000];
+		random.nextBytes(randomBytes);
+		String expected = readAll(new InputStreamReader(new ByteArrayInputStream(randomBytes), StandardCharsets.UTF_8), 8192);
+		assertEquals("Malformed input", expected, readAll(new ByteDecodingReader(new ByteArrayInputStream(randomBytes), StandardCharsets.UTF_8), 8192));
+	}
+	
+	@Test
+	public void CSVReaderDetectsTheCharsetTest() throws IOException {
+		Object[][] expectedRecords = new Object[][] {{"\u00C9rable \u00E0 sucre", "12"}, {"H\u00EAtre", "3"}};
+		byte[] utf8ByteOrderMark = new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+		String[] filenames = new String[] {writeFile("charsetLatin1.csv", new byte[0], CONTENT, StandardCharsets.ISO_8859_1),
+				writeFile("charsetUTF8.csv", new byte[0], CONTENT, StandardCharsets.UTF_8),
+				writeFile("charsetUTF8BOM.csv", utf8ByteOrderMark, CONTENT, StandardCharsets.UTF_8),
+				writeFile("charsetUTF16.csv", new byte[0], CONTENT, StandardCharsets.UTF_16)};
+		for (String filename : filenames) {
+			CSVReader reader = new CSVReader(filename);
+			assertEquals(filename, "Esp\u00E8ce", reader.getHeader().getField(0).getName());
+			for (Object[] expectedRecord : expectedRecords) {
+				assertArrayEquals(filename, expectedRecord, reader.nextRecord());
+			}
+			reader.close();
+			if (MappedCSVReader.isCharsetSupported(CharsetDetector.detect(filename))) {
+				FormatReader.setMemoryMappedCSVEnabled(true);
+				FormatReader<?> mappedReader;
+				try {
+					mappedReader = FormatReader.createFormatReader(filename);
+				} finally {
+					FormatReader.setMemoryMappedCSVEnabled(false);
+				}
+				assertEquals(filename, MappedCSVReader.class, mappedReader.getClass());
+				assertEquals(filename, "Esp\u00E8ce", mappedReader.getHeader().getField(0).getName());
+				for (Object[] expectedRecord : expectedRecords) {
+					assertArrayEquals(filename, expectedRecord, mappedReader.nextRecord());
+				}
+				mappedReader.close();
+			}
+		}
+	}
+	
+	/**
+	 * This test checks that the records appended to a file are encoded as the existing records.
+	 * @throws IOException
+	 */
+	@Test
+	public void CSVWriterAppendsWithTheCharsetOfTheFileTest() throws IOException {
+		String filename = writeFile("charsetAppend.csv", new byte[0], CONTENT, StandardCharsets.ISO_8859_1);
+		CSVWriter writer = new CSVWriter(new File(filename), true);
+		assertEquals("Detected charset", StandardCharsets.ISO_8859_1, writer.getCharset());
+		assertEquals("Field name", "Esp\u00E8ce", writer.getHeader().getField(0).getName());
+		writer.addRecord(new Object[] {"Fr\u00EAne", "5"});
+		writer.close();
+		
+		CSVReader reader = new CSVReader(filename);
+		assertEquals("Charset after appending", StandardCharsets.ISO_8859_1, reader.getCharset());
+		reader.nextRecord(1);
+		assertArrayEquals("Appended record", new Object[] {"Fr\u00EAne", "5"}, reader.nextRecord());
+		reader.close();
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javacsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import repicea.io.FormatReader;
+import repicea.io.ImportTest;
+import repicea.lang.REpiceaSystem;
+import repicea.util.ObjectUtility;
+
+public class MappedCSVReaderTest {
+
+	/**
+	 * This test checks that the MappedCSVReader class returns the same records as the CSVReader class. A 
+	 * small mapping window is used in the second reading so that the records overlap the windows.
+	 * @throws IOException
+	 */
+	@Test
+	public void MappedCSVReaderAndCSVReaderReadTheSameTest() throws IOException {
+		String inputFilename = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+
+		CSVReader csvReader = new CSVReader(inputFilename);
+		List<Object[]> expectedRecords = new ArrayList<Object[]>();
+		Object[] record;
+		while ((record = csvReader.nextRecord()) != null) {
+			expectedRecords.add(record);
+		}
+		csvReader.close();
+
+		FormatReader.setMemoryMappedCSVEnabled(true);
+		MappedCSVReader mappedReader;
+		try {
+			mappedReader = (MappedCSVReader) FormatReader.createFormatReader(inputFilename);
+		} finally {
+			FormatReader.setMemoryMappedCSVEnabled(false);
+		}
+		assertEquals("Number of fields", csvReader.getFieldCount(), mappedReader.getFieldCount());
+		assertEquals("Number of records", expectedRecords.size(), mappedReader.getRecordCount());
+		int i = 0;
+		while ((record = mappedReader.nextRecord()) != null) {
+			assertArrayEquals("Comparing records", expectedRecords.get(i++), record);
+		}
+		assertEquals("Number of records read", expectedRecords.size(), i);
+		mappedReader.close();
+
+		mappedReader = new MappedCSVReader(inputFilename, null, 4096);
+		i = 0;
+		while ((record = mappedReader.nextRecord(i % 3 == 0 ? 1 : 0)) != null) {
+			if (i % 3 == 0) {
+				i++;
+			}
+			assertArrayEquals("Comparing records with a small window", expectedRecords.get(i++), record);
+		}
+		assertEquals("Number of records with a small window", expectedRecords.size(), mappedReader.getRecordCount());
+		mappedReader.reset();
+		assertArrayEquals("Comparing first record after reset", expectedRecords.get(0), mappedReader.nextRecord());
+		mappedReader.close();
+	}
+
+	/**
+	 * This test checks the quoted fields, the empty fields and the different line terminators.
+	 * @throws IOException
+	 */
+	@Test
+	public void MappedCSVReaderQuotedFieldsTest() throws IOException {
+		String filename = REpiceaSystem.getJavaIOTmpDir() + "mappedCSVReaderTest.csv";
+		FileOutputStream fos = new FileOutputStream(filename);
+		fos.write("Field1;Field2;Field3\r\n\"a;b\";1.5;\r\n;\"c\"\"d\";x\r\"e\nf\";;\"g\"\n".getBytes(StandardCharsets.ISO_8859_1));
+		fos.close();
+		MappedCSVReader reader = new MappedCSVReader(filename, StandardCharsets.ISO_8859_1);
+		assertEquals("Number of fields", 3, reader.getFieldCount());
+		assertArrayEquals(new Object[] {"a;b", "1.5", ""}, reader.nextRecord());
+		assertArrayEquals(new Object[] {"", "c\"d", "x"}, reader.nextRecord());
+		assertArrayEquals(new Object[] {"e\nf", "", "g"}, reader.nextRecord());
+		assertNull(reader.nextRecord());
+		assertEquals("Number of records", 3, reader.getRecordCount());
+		reader.close();
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import repicea.io.FormatField;
+import repicea.lang.REpiceaSystem;
+
+public class DBFDateCodecTest {
+
+	private static byte[] toBytes(String str) {
+		return str.getBytes(StandardCharsets.US_ASCII);
+	}
+	
+	@Test
+	public void epochDaysSameAsLocalDateTest() {
+		for (int epochDay = (int) LocalDate.of(1, 1, 1).toEpochDay(); epochDay <= LocalDate.of(9999, 12, 31).toEpochDay(); epochDay += 7) {
+			LocalDate date = LocalDate.ofEpochDay(epochDay);
+			String digits = String.format("%04d%02d%02d", date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+			assertEquals(digits, epochDay, DBFDateCodec.decodeEpochDay(toBytes("x" + digits), 1));
+			byte[] dest = toBytes("x        x");
+			DBFDateCodec.encodeEpochDay(epochDay, dest, 1);
+			assertEquals(digits, "x" + digits + "x", new String(dest, StandardCharsets.US_ASCII));
+		}
+	}
+
+	/*
+	 * The former decoding in the DBFReader class.
+	 */
+	private static Date formerDecoding(String digits) {
+		return new GregorianCalendar(Integer.parseInt(digits.substring(0, 4)), 
+				Integer.parseInt(digits.substring(4, 6)) - 1, 
+				Integer.parseInt(digits.substring(6, 8))).getTime();
+	}
+	
+	@Test
+	public void decodingSameAsFormerApproachTest() {
+		Random random = new Random(20261018L);
+		for (int i = 0; i < 100000; i++) {
+			String digits = String.format("%04d%02d%02d", 1600 + random.nextInt(8000), random.nextInt(i % 2 == 0 ? 13 : 100), random.nextInt(i % 2 == 0 ? 32 : 100));
+			assertEquals(digits, formerDecoding(digits), DBFDateCodec.toDate(DBFDateCodec.decodeEpochDay(toBytes(digits), 0)));
+		}
+		assertEquals("Blank date", DBFDateCodec.MISSING, DBFDateCodec.decodeEpochDay(toBytes("        "), 0));
+		assertEquals("Invalid date", DBFDateCodec.MISSING, DBFDateCodec.decodeEpochDay(toBytes("2026-10-"), 0));
+	}
+
+	@Test
+	public void encodingSameAsFormerApproachTest() {
+		Random random = new Random(20261018L);
+		for (int i = 0; i < 100000; i++) {
+			Date date = new Date(LocalDate.of(1600, 1, 1).toEpochDay() * 86400000L + (long) (random.nextDouble() * 8000 * 365.25 * 86400000L));
+			GregorianCalendar calendar = new GregorianCalendar();
+			calendar.setTime(date);
+			String expected = String.format("%04d%02d%02d", calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
+			byte[] dest = new byte[8];
+			DBFDateCodec.encodeEpochDay(DBFDateCodec.toEpochDay(date), dest, 0);
+			assertEquals(date.toString(), expected, new String(dest, StandardCharsets.US_ASCII));
+		}
+	}
+	
+	/**
+	 * This test writes dates from Date and LocalDate instances and from epoch days and reads 
+	 * them back in the three date types.
+	 * @throws Exception
+	 */
+	@Test
+	public void writeAndReadDatesTest() throws Exception {
+		String filename = REpiceaSystem.getJavaIOTmpDir() + "dateTest.dbf";
+		DBFWriter writer = new DBFWriter(new File(filename), false);
+		List<FormatField> fields = new ArrayList<FormatField>();
+		DBFField field = new DBFField();
+		field.setName("MEASDATE");
+		field.setDataType(DBFField.FIELD_TYPE_D);
+		fields.add(field);
+		writer.setFields(fields);
+		LocalDate[] dates = new LocalDate[] {LocalDate.of(2026, 10, 18), null, LocalDate.of(1999, 2, 28), LocalDate.of(2000, 2, 29), LocalDate.of(1969, 12, 31)};
+		writer.addRecord(new Object[] {dates[0]});
+		writer.addRecord(new Object[] {null});
+		writer.addRecord(new Object[] {DBFDateCodec.toDate((int) dates[2].toEpochDay())});
+		writer.addColumns(2, new int[] {(int) dates[3].toEpochDay(), (int) dates[4].toEpochDay()});
+		writer.close();
+		
+		for (DBFReader.DateType dateType : DBFReader.DateType.values()) {
+			DBFReader reader = new DBFReader(filename);
+			reader.setDateType(dateType);
+			for (int i = 0; i < dates.length; i++) {
+				Object value = reader.nextRecord()[0];
+				if (dates[i] == null) {
+					assertEquals("Record " + i, null, value);
+				} else {
+					switch (dateType) {
+					case DATE:
+						assertEquals("Record " + i, DBFDateCodec.toDate((int) dates[i].toEpochDay()), value);
+						break;
+					case LOCAL_DATE:
+						assertEquals("Record " + i, dates[i], value);
+						break;
+					case EPOCH_DAY:
+						assertEquals("Record " + i, (int) dates[i].toEpochDay(), value);
+						break;
+					}
+				}
+			}
+			reader.close();
+		}
+		
+		DBFReader reader = new DBFReader(filename);
+		reader.setDateType(DBFReader.DateType.EPOCH_DAY);
+		for (int i = 0; i < dates.length; i++) {
+			assertTrue(reader.advance(0));
+			if (dates[i] == null) {
+				assertTrue("Record " + i, reader.isNull(0));
+				assertEquals("Record " + i, DBFDateCodec.MISSING, reader.getEpochDay(0));
+			} else {
+				assertEquals("Record " + i, (int) dates[i].toEpochDay(), reader.getEpochDay(0));
+				assertEquals("Record " + i, (int) dates[i].toEpochDay(), reader.getInt(0));
+			}
+		}
+		reader.close();
+	}
+	
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import repicea.io.FormatField;
+import repicea.lang.REpiceaSystem;
+
+public class DBFMemoTest {
+
+	private static final Charset LATIN1 = StandardCharsets.ISO_8859_1;
+	
+	private static String createLongText() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 150; i++) {
+			sb.append("Sapin baumier ").append(i).append(" \u00e9pinette\r\n");
+		}
+		return sb.toString();
+	}
+	
+	private static DBFWriter createWriter(String filename, boolean append) throws Exception {
+		DBFWriter writer = new DBFWriter(new File(filename), append);
+		if (!append) {
+			List<FormatField> fields = new ArrayList<FormatField>();
+			DBFField field = new DBFField();
+			field.setName("ID");
+			field.setDataType(DBFField.FIELD_TYPE_C);
+			field.setFieldLength(5);
+			fields.add(field);
+			field = new DBFField();
+			field.setName("NOTE");
+			field.setDataType(DBFField.FIELD_TYPE_M);
+			fields.add(field);
+			writer.setFields(fields);
+		}
+		return writer;
+	}
+	
+	/**
+	 * This test writes memos through the DBFWriter class, appends other memos and checks 
+	 * that the DBFReader class reads them only when they are requested.
+	 * @throws Exception
+	 */
+	@Test
+	public void writeAndReadMemosTest() throws Exception {
+		String filename = REpiceaSystem.getJavaIOTmpDir() + "memoTest.dbf";
+		String[] memos = new String[] {"short memo", null, "", createLongText(), "two\r\nlines", "last"};
+		DBFWriter writer = createWriter(filename, false);
+		for (int i = 0; i < 3; i++) {
+			writer.addRecord(new Object[] {"" + i, memos[i]});
+		}
+		writer.close();
+		writer = createWriter(filename, true);
+		for (int i = 3; i < memos.length; i++) {
+			writer.addRecord(new Object[] {"" + i, memos[i]});
+		}
+		writer.close();
+		
+		assertTrue("Memo file", new File(REpiceaSystem.getJavaIOTmpDir() + "memoTest.dbt").exists());
+		assertEquals("Signature", DBFHeader.SIG_DBASE_III_WITH_MEMO, Files.readAllBytes(new File(filename).toPath())[0]);
+		
+		DBFReader reader = new DBFReader(filename);
+		List<DBFMemo> readMemos = new ArrayList<DBFMemo>();
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			readMemos.add((DBFMemo) record[1]);
+		}
+		reader.close();
+		assertEquals("Number of records", memos.length, readMemos.size());
+		for (int i = 0; i < memos.length; i++) {
+			if (memos[i] == null || memos[i].isEmpty()) {
+				assertNull("Empty memo " + i, readMemos.get(i));
+			} else {
+				assertFalse("Memo " + i + " should not be loaded yet", readMemos.get(i).isLoaded());
+				assertEquals("Memo " + i, memos[i], readMemos.get(i).get());		// the reader is closed at this point
+				assertTrue("Memo " + i + " should be loaded", readMemos.get(i).isLoaded());
+			}
+		}
+		
+		reader = new DBFReader(filename);
+		assertEquals("Random access to a memo", memos[3], reader.readRecord(3)[1].toString());
+		reader.close();
+	}
+
+	private static File writeMemoFile(String name, ByteBuffer content) throws Exception {
+		File file = new File(REpiceaSystem.getJavaIOTmpDir() + name);
+		Files.write(file.toPath(), content.array());
+		return file;
+	}
+	
+	/**
+	 * This test reads and appends memos in a FoxPro memo file.
+	 * @throws Exception
+	 */
+	@Test
+	public void foxProMemoFileTest() throws Exception {
+		byte[] text = "FoxPro memo \u00e9".getBytes(LATIN1);
+		ByteBuffer content = ByteBuffer.allocate(512 + 64).order(ByteOrder.BIG_ENDIAN);
+		content.putInt(0, 9);				// next free block
+		content.putShort(6, (short) 64);	// block size
+		content.putInt(512, 1);				// text memo
+		content.putInt(516, text.length);
+		content.position(520);
+		content.put(text);
+		File file = writeMemoFile("memoTest.fpt", content);
+
+		DBFMemoFile memoFile = DBFMemoFile.open(file);
+		assertEquals("Format", DBFMemoFile.MemoFormat.FOXPRO, memoFile.getFormat());
+		assertEquals("Existing memo", "FoxPro memo \u00e9", memoFile.read(8, LATIN1));
+		memoFile.close();
+		
+		memoFile = DBFMemoFile.openForAppending(file, (byte) 0x30);
+		int block = memoFile.write(createLongText(), LATIN1);
+		assertEquals("New block", 9, block);
+		memoFile.close();
+		
+		memoFile = DBFMemoFile.open(file);
+		assertEquals("Existing memo", "FoxPro memo \u00e9", memoFile.read(8, LATIN1));
+		assertEquals("Appended memo", createLongText(), memoFile.read(block, LATIN1));
+		memoFile.close();
+		ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		assertEquals("Next free block", 9 + (createLongText().length() + 8 + 63) / 64, header.getInt(0));
+	}
+	
+	/**
+	 * This test reads and appends memos in a dBASE IV memo file.
+	 * @throws Exception
+	 */
+	@Test
+	public void dBaseIVMemoFileTest() throws Exception {
+		byte[] text = "dBASE IV memo".getBytes(LATIN1);
+		ByteBuffer content = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+		content.putInt(0, 2);				// next free block
+		content.putShort(20, (short) 512);	// block size
+		content.put(512, (byte) 0xFF).put(513, (byte) 0xFF).put(514, (byte) 0x08).put(515, (byte) 0x00);
+		content.putInt(516, text.length + 8);
+		content.position(520);
+		content.put(text);
+		File file = writeMemoFile("memoTest4.dbt", content);
+
+		DBFMemoFile memoFile = DBFMemoFile.openForAppending(file, (byte) 0x8B);
+		assertEquals("Format", DBFMemoFile.MemoFormat.DBASE_IV, memoFile.getFormat());
+		assertEquals("Existing memo", "dBASE IV memo", memoFile.read(1, LATIN1));
+		int block = memoFile.write("appended", LATIN1);
+		assertEquals("New block", 2, block);
+		assertEquals("Appended memo", "appended", memoFile.read(block, LATIN1));
+		memoFile.close();
+		assertEquals("Memo read after closing", "appended", memoFile.read(block, LATIN1));
+	}
+	
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javadbf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import repicea.io.ImportTest;
+import repicea.lang.REpiceaSystem;
+import repicea.util.ObjectUtility;
+
+public class DBFParallelScannerTest {
+
+	/**
+	 * This test checks that the rows read in parallel are the same as those read sequentially, 
+	 * in the ordered and the unordered modes. Some records of the file are flagged as deleted.
+	 * @throws Exception
+	 */
+	@Test
+	public void parallelAndSequentialReadingProvideTheSameRecordsTest() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.DBF";
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_scanner.DBF";
+		byte[] bytes = Files.readAllBytes(Paths.get(sourcePath));
+		int headerLength = (bytes[8] & 0xFF) | (bytes[9] & 0xFF) << 8;
+		int recordLength = (bytes[10] & 0xFF) | (bytes[11] & 0xFF) << 8;
+		for (int recordIndex : new int[] {0, 99, 100, 101, 3000}) {
+			bytes[headerLength + recordIndex * recordLength] = '*';
+		}
+		Files.write(Paths.get(targetPath), bytes);
+		
+		DBFReader reader = new DBFReader(targetPath);
+		List<Object[]> expectedRecords = new ArrayList<Object[]>();
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			expectedRecords.add(record);
+		}
+		assertEquals("Number of rows", 3647 - 5, expectedRecords.size());
+		reader.reset();
+		
+		List<Object[]> orderedRecords = new ArrayList<Object[]>();
+		AtomicInteger expectedIndex = new AtomicInteger();
+		reader.readRecordsInParallel((r, recordIndex) -> r, 
+				(r, recordIndex) -> {
+					assertEquals("Record index", expectedIndex.getAndIncrement(), (int) recordIndex);
+					orderedRecords.add(r);
+				}, 
+				true, 
+				100);
+		assertEquals("Number of records in ordered mode", expectedRecords.size(), orderedRecords.size());
+		for (int i = 0; i < expectedRecords.size(); i++) {
+			assertArrayEquals("Comparing records in ordered mode", expectedRecords.get(i), orderedRecords.get(i));
+		}
+		
+		ConcurrentHashMap<Integer, Object[]> unorderedRecords = new ConcurrentHashMap<Integer, Object[]>();
+		reader.readRecordsInParallel((r, recordIndex) -> r, (r, recordIndex) -> unorderedRecords.put(recordIndex, r), false, 100);
+		assertEquals("Number of records in unordered mode", expectedRecords.size(), unorderedRecords.size());
+		for (int i = 0; i < expectedRecords.size(); i++) {
+			assertArrayEquals("Comparing records in unordered mode", expectedRecords.get(i), unorderedRecords.get(i));
+		}
+		
+		assertArrayEquals("Reader position is not affected", expectedRecords.get(0), reader.nextRecord());
+		reader.close();
+	}
+
+	/**
+	 * This test checks that the rows after the end-of-data marker are ignored.
+	 * @throws Exception
+	 */
+	@Test
+	public void endOfDataMarkerIsHonouredTest() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.DBF";
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_scanner2.DBF";
+		byte[] bytes = Files.readAllBytes(Paths.get(sourcePath));
+		int headerLength = (bytes[8] & 0xFF) | (bytes[9] & 0xFF) << 8;
+		int recordLength = (bytes[10] & 0xFF) | (bytes[11] & 0xFF) << 8;
+		bytes[headerLength + 1000 * recordLength] = 0x1A;
+		Files.write(Paths.get(targetPath), bytes);
+		
+		DBFReader reader = new DBFReader(targetPath);
+		AtomicInteger numberOfRows = new AtomicInteger();
+		reader.readRecordsInParallel((r, recordIndex) -> r, (r, recordIndex) -> numberOfRows.incrementAndGet(), false, 100);
+		assertEquals("Number of rows", 1000, numberOfRows.get());
+		reader.close();
+	}
+	
+}
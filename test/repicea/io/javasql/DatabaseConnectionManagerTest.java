@@ -0,0 +1,84 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javasql;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test the keep-alive period of the DatabaseConnectionManager class against an in-memory HSQLDB database.
+ * @author Mathieu Fortin - October 2026
+ */
+public class DatabaseConnectionManagerTest {
+
+	@After
+	public void restoreKeepAlive() {
+		DatabaseConnectionManager.setKeepAlive(DatabaseConnectionManager.DEFAULT_KEEP_ALIVE_MILLIS);
+	}
+	
+	@Test
+	public void connectionIsReusedWithinKeepAliveAndEvictedAfterTest() throws Exception {
+		String url = "jdbc:hsqldb:mem:repiceaKeepAliveTest1";
+		DatabaseConnectionManager.setKeepAlive(500);
+		Object firstUser = new Object();
+		DatabaseConnectionManager.registerConnectionUser(firstUser, url);
+		Connection firstConnection = DatabaseConnectionManager.getUserConnection(firstUser);
+		DatabaseConnectionManager.removeUser(firstUser);
+		assertFalse("Connection is kept alive", firstConnection.isClosed());
+		
+		Object secondUser = new Object();
+		DatabaseConnectionManager.registerConnectionUser(secondUser, url);
+		assertSame("Connection is reused within the keep-alive period", firstConnection, DatabaseConnectionManager.getUserConnection(secondUser));
+		DatabaseConnectionManager.removeUser(secondUser);
+		
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!firstConnection.isClosed() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertTrue("Connection is closed after the keep-alive period", firstConnection.isClosed());
+		
+		Object thirdUser = new Object();
+		DatabaseConnectionManager.registerConnectionUser(thirdUser, url);
+		Connection newConnection = DatabaseConnectionManager.getUserConnection(thirdUser);
+		assertNotSame("A new connection is made after the eviction", firstConnection, newConnection);
+		assertFalse("New connection is open", newConnection.isClosed());
+		DatabaseConnectionManager.removeUser(thirdUser);
+	}
+
+	@Test
+	public void connectionIsClosedImmediatelyWithoutKeepAliveTest() throws Exception {
+		String url = "jdbc:hsqldb:mem:repiceaKeepAliveTest2";
+		DatabaseConnectionManager.setKeepAlive(0);
+		Object user = new Object();
+		DatabaseConnectionManager.registerConnectionUser(user, url);
+		Connection connection = DatabaseConnectionManager.getUserConnection(user);
+		assertFalse("Connection is open", connection.isClosed());
+		DatabaseConnectionManager.removeUser(user);
+		assertTrue("Connection is closed as soon as it has no user", connection.isClosed());
+	}
+	
+}
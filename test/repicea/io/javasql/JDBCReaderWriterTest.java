@@ -0,0 +1,188 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.javasql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import repicea.io.FormatField;
+import repicea.io.FormatReader;
+import repicea.io.FormatWriter;
+
+/**
+ * Test the SQLReader and SQLWriter classes against an in-process HSQLDB database, which
+ * is available through the UCanAccess dependency.
+ * @author Mathieu Fortin - October 2026
+ */
+public class JDBCReaderWriterTest {
+
+	private static final int NUMBER_OF_RECORDS = 100;
+
+	private static Object[] createRecord(int i) {
+		return new Object[] {i, i % 3 == 0 ? "O'Brien" : "Sp" + i, i * 1.5};
+	}
+	
+	private static void writeTable(String url, String table) throws Exception {
+		SQLWriter writer = (SQLWriter) FormatWriter.createFormatWriter(false, url, table);
+		writer.setBatchSize(7);
+		List<FormatField> fields = new ArrayList<FormatField>();
+		fields.add(new SQLField("ID", "INTEGER", 10));
+		fields.add(new SQLField("SPECIES", "VARCHAR", 10));
+		fields.add(new SQLField("DBH", "DOUBLE", 10));
+		writer.setFields(fields);
+		for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+			writer.addRecord(createRecord(i));
+		}
+		writer.close();
+	}
+	
+	@Test
+	public void writeAndReadHSQLDBTest() throws Exception {
+		String url = "jdbc:hsqldb:mem:repiceaJDBCTest1";
+		writeTable(url, "PLOTS");
+		FormatReader<?> reader = FormatReader.createFormatReader(url, "PLOTS");
+		assertTrue("Reader is a SQLReader", reader instanceof SQLReader);
+		assertEquals("Number of records", NUMBER_OF_RECORDS, reader.getRecordCount());
+		Object[] record;
+		int i = 0;
+		while ((record = reader.nextRecord()) != null) {
+			Object[] expected = createRecord(i);
+			assertEquals("ID", expected[0], ((Number) record[0]).intValue());
+			assertEquals("Species", expected[1], record[1]);
+			assertEquals("DBH", (Double) expected[2], ((Number) record[2]).doubleValue(), 1E-12);
+			i++;
+		}
+		assertEquals("Number of records read", NUMBER_OF_RECORDS, i);
+		
+		reader.reset();
+		reader.setProjection(new int[] {1});
+		record = reader.nextRecord();
+		assertNull("Unprojected field", record[0]);
+		assertEquals("Projected field", createRecord(0)[1], record[1]);
+		reader.close();
+	}
+
+	@Test
+	public void whereClauseSkipAndResetHSQLDBTest() throws Exception {
+		String url = "jdbc:hsqldb:mem:repiceaJDBCTest2";
+		writeTable(url, "TREES");
+		SQLReader reader = new SQLReader(url, "TREES");
+		reader.setWhereClause("ID >= 50");
+		assertEquals("Number of records", 50, reader.getRecordCount());
+		Object[] record = reader.nextRecord(9);
+		assertEquals("ID after skipping", 59, ((Number) record[0]).intValue());
+		assertNull("Beyond the last record", reader.nextRecord(100));
+		reader.reset();
+		record = reader.nextRecord();
+		assertEquals("ID after reset", 50, ((Number) record[0]).intValue());
+		
+		reader.setScrollableCursorEnabled(true);
+		reader.reset();
+		record = reader.nextRecord(9);
+		assertEquals("ID after skipping with a scrollable cursor", 59, ((Number) record[0]).intValue());
+		reader.reset();
+		record = reader.nextRecord();
+		assertEquals("ID after rewinding the scrollable cursor", 50, ((Number) record[0]).intValue());
+		reader.close();
+	}
+
+	@Test
+	public void advanceAndPrimitiveGettersHSQLDBTest() throws Exception {
+		String url = "jdbc:hsqldb:mem:repiceaJDBCTest4";
+		writeTable(url, "CURSOR");
+		SQLReader reader = new SQLReader(url, "CURSOR");
+		int i = 0;
+		while (reader.advance()) {
+			Object[] expected = createRecord(i);
+			assertEquals("ID", expected[0], reader.getInt(0));
+			assertEquals("Species", expected[1], reader.getString(1));
+			assertEquals("DBH", (Double) expected[2], reader.getDouble(2), 1E-12);
+			assertEquals("ID as a double", ((Integer) expected[0]).doubleValue(), reader.getDouble(0), 1E-12);
+			assertTrue("Field beyond the last one", reader.isNull(3));
+			assertNull("String beyond the last field", reader.getString(3));
+			i++;
+		}
+		assertEquals("Number of records read through the cursor", NUMBER_OF_RECORDS, i);
+		reader.close();
+		
+		Connection connection = DriverManager.getConnection(url);
+		Statement statement = connection.createStatement();
+		statement.execute("CREATE TABLE MEASURES (ID INTEGER, HEIGHT VARCHAR(10))");
+		statement.execute("INSERT INTO MEASURES VALUES (1, '1,5')");
+		statement.execute("INSERT INTO MEASURES VALUES (2, 'NA')");
+		statement.execute("INSERT INTO MEASURES VALUES (3, '')");
+		statement.execute("INSERT INTO MEASURES VALUES (NULL, '2')");
+		statement.close();
+		connection.close();
+		
+		reader = new SQLReader(url, "MEASURES");
+		assertTrue(reader.advance());
+		assertEquals("Comma decimal", 1.5, reader.getDouble(1), 1E-12);
+		assertTrue(reader.advance());
+		assertTrue("NA is missing", Double.isNaN(reader.getDouble(1)));
+		assertTrue(reader.advance());
+		assertTrue("Empty string is missing", Double.isNaN(reader.getDouble(1)));
+		assertTrue(reader.advance());
+		assertEquals("Null integer", 0, reader.getInt(0));
+		assertEquals("Integer in a character field", 2, reader.getInt(1));
+		assertTrue("End of table", !reader.advance());
+		reader.close();
+	}
+
+	@Test
+	public void statementMakerHSQLDBTest() throws Exception {
+		String url = "jdbc:hsqldb:mem:repiceaJDBCTest3";
+		Connection connection = DriverManager.getConnection(url);
+		Statement statement = connection.createStatement();
+		statement.execute("CREATE TABLE SPECIES (ID INTEGER, NAME VARCHAR(10), DBH DOUBLE)");
+		statement.close();
+		
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int i = 0; i < 25; i++) {
+			rows.add(createRecord(i));
+		}
+		StatementMaker maker = new StatementMaker(connection);
+		maker.setBatchSize(10);
+		maker.insertIntoTable("SPECIES", Arrays.asList("ID", "NAME", "DBH"), rows);
+		maker.addVFieldAndValue("ID", 25);
+		maker.addVFieldAndValue("NAME", null);
+		maker.addVFieldAndValue("DBH", 10d);
+		maker.insertIntoTable("SPECIES");
+		maker.close();
+		connection.close();
+		
+		SQLReader reader = new SQLReader(url, "SPECIES");
+		assertEquals("Number of records", 26, reader.getRecordCount());
+		Object[] record = reader.nextRecord(3);
+		assertEquals("Species with a quote", "O'Brien", record[1]);
+		reader.close();
+	}
+	
+}
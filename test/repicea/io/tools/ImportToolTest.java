@@ -2,6 +2,7 @@ package repicea.io.tools;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
@@ -89,7 +90,108 @@ public class ImportToolTest {
 		Assert.assertEquals("Testing nb records read", 3647 * 2, recordReader.nbRecordsRead);
 	}
 
+
+	/*
+	 * Read all the records of the csv file with the parallel reading enabled.
+	 */
+	@Test
+	public void testParallelReading() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_parallel.csv";
+		if (!FileUtility.copy(sourcePath, targetPath)) {
+			throw new IOException("Unable to copy the CSV file to tmp directory!");
+		}
+		String testIfe = ObjectUtility.getPackagePath(RecordReaderImpl.class) + "test.ife";
+		
+		RecordReaderImpl recordReader = new RecordReaderImpl();
+		ImportFieldManager ifm = ImportFieldManager.createImportFieldManager(testIfe, targetPath);
+		recordReader.initInScriptMode(ifm);
+		recordReader.setParallelReadingEnabled(true);
+		recordReader.readAllRecords();
+		Assert.assertEquals("Testing nb records read", 3647, recordReader.nbRecordsRead);
+	}
+
 	
+	/*
+	 * Read the strata and the records of the dbf file with the parallel reading enabled.
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testParallelReadingWithDBF() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.DBF";
+		String testIfe = ObjectUtility.getPackagePath(RecordReaderImpl.class) + "test.ife";
+		String results = ObjectUtility.getPackagePath(RecordReaderImpl.class) + "result1.xml";
+		
+		RecordReaderImpl recordReader = new RecordReaderImpl();
+		recordReader.setParallelReadingEnabled(true);
+		ImportFieldManager ifm = ImportFieldManager.createImportFieldManager(testIfe, sourcePath);
+		recordReader.initInScriptMode(ifm);
+		List<String> strataList = recordReader.getGroupList();
+		XmlDeserializer deserializer = new XmlDeserializer(results);
+		List<String>  refStrataList = (List<String>) deserializer.readObject();
+		assertEquals("Testing for number of elements", refStrataList.size(), strataList.size());
+		for (int i = 0; i < strataList.size(); i++) {
+			assertEquals("Testing for group name at index " + ((Integer) i).toString(), 
+					refStrataList.get(i),
+					strataList.get(i));
+		}
+		recordReader.readAllRecords();
+		Assert.assertEquals("Testing nb records read", 3647, recordReader.nbRecordsRead);
+	}
+
+	@Test
+	public void testGroupIndicesWithDBF() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.DBF";
+		String testIfe = ObjectUtility.getPackagePath(RecordReaderImpl.class) + "test.ife";
+		
+		RecordReaderImpl recordReader = new RecordReaderImpl();
+		ImportFieldManager ifm = ImportFieldManager.createImportFieldManager(testIfe, sourcePath);
+		recordReader.initInScriptMode(ifm);
+		assertEquals("Testing total nb records", 3647, recordReader.getTotalNbRecords());
+		boolean[] isIndexed = new boolean[3647];
+		int nbIndices = 0;
+		for (int groupId = 0; groupId < recordReader.getGroupList().size(); groupId++) {
+			List<Integer> rowIndex = recordReader.getObservationIndicesForThisGroup(groupId);
+			assertEquals("Testing the map", rowIndex, recordReader.getGroupMap().get(recordReader.getGroupName(groupId)));
+			int formerIndex = -1;
+			for (int index : rowIndex) {
+				Assert.assertTrue("Testing increasing indices", index > formerIndex);
+				Assert.assertFalse("Testing unique indices", isIndexed[index]);
+				isIndexed[index] = true;
+				formerIndex = index;
+				nbIndices++;
+			}
+		}
+		assertEquals("Testing nb indices", 3647, nbIndices);
+	}
+
+	@Test
+	public void testGroupIndexPersistenceWithCSV() throws Exception {
+		String sourcePath = ObjectUtility.getPackagePath(ImportTest.class) + "TEST6152.csv";
+		String targetPath = REpiceaSystem.getJavaIOTmpDir() + "TEST6152_gix.csv";
+		if (!FileUtility.copy(sourcePath, targetPath)) {
+			throw new IOException("Unable to copy the csv file to tmp directory!");
+		}
+		File indexFile = GroupIndexFile.getIndexFile(new File(targetPath));
+		indexFile.delete();
+		String testIfe = ObjectUtility.getPackagePath(RecordReaderImpl.class) + "test.ife";
+
+		RecordReaderImpl scanningReader = new RecordReaderImpl();
+		scanningReader.setGroupIndexPersistenceEnabled(true);
+		scanningReader.initInScriptMode(ImportFieldManager.createImportFieldManager(testIfe, targetPath));
+		Assert.assertTrue("Testing the sidecar file has been written", indexFile.isFile());
+
+		RecordReaderImpl loadingReader = new RecordReaderImpl();
+		loadingReader.setGroupIndexPersistenceEnabled(true);
+		loadingReader.initInScriptMode(ImportFieldManager.createImportFieldManager(testIfe, targetPath));
+		assertEquals("Testing group list", scanningReader.getGroupList(), loadingReader.getGroupList());
+		assertEquals("Testing group map", scanningReader.getGroupMap(), loadingReader.getGroupMap());
+		assertEquals("Testing total nb records", 3647, loadingReader.getTotalNbRecords());
+		loadingReader.readAllRecords();
+		Assert.assertEquals("Testing nb records read", 3647, loadingReader.nbRecordsRead);
+		indexFile.delete();
+	}
+
 	/*
 	 * Rerun the same test than above but using the csv file instance + it tests 
 	 * the resetting of the CSVReader within the ImportFieldManager instance
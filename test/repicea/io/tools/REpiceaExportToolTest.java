@@ -7,6 +7,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import repicea.io.REpiceaRecordSet;
+import repicea.io.javadbf.DBFReader;
+import repicea.lang.REpiceaSystem;
 import repicea.util.ObjectUtility;
 
 public class REpiceaExportToolTest {
@@ -96,6 +98,34 @@ public class REpiceaExportToolTest {
 		}
 	}
 
+	/**
+	 * This test exports the records to a dbf file, whose records are written by columns.
+	 * @throws Exception
+	 */
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void simpleExportToDBFTest() throws Exception {
+		REpiceaExportToolImpl exportTool = new REpiceaExportToolImpl();
+		String filename = REpiceaSystem.getJavaIOTmpDir() + "testExport.dbf";
+		exportTool.setFilename(filename);
+		List<Enum> options = new ArrayList<Enum>();
+		options.add(REpiceaExportToolImpl.ExportOptions.TheOnlyOne);
+		exportTool.setSelectedOptions(options);
+		exportTool.exportRecordSets();
+		
+		DBFReader reader = new DBFReader(filename);
+		Assert.assertEquals("Number of records", 200000, reader.getRecordCount());
+		int nbRecords = 0;
+		Object[] record;
+		while ((record = reader.nextRecord()) != null) {
+			Assert.assertEquals("Personne", "Mathieu", record[0].toString().trim());
+			Assert.assertEquals("Age", 25d, (Double) record[1], 0d);
+			nbRecords++;
+		}
+		reader.close();
+		Assert.assertEquals("Number of records read", 200000, nbRecords);
+	}
+
 	public static void main(String[] args) {
 		REpiceaExportToolImpl exportTool = new REpiceaExportToolImpl();
 		try {
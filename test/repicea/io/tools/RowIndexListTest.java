@@ -0,0 +1,64 @@
+/*
+ * This file is part of the repicea library.
+ *
+ * Copyright (C) 2026 His Majesty the King in Right of Canada
+ * Author: Mathieu Fortin, Canadian Forest Service
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed with the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * Please see the license at http://www.gnu.org/copyleft/lesser.html.
+ */
+package repicea.io.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import org.junit.Test;
+
+public class RowIndexListTest {
+
+	@Test
+	public void runLengthStorageTest() {
+		RowIndexList list = new RowIndexList();
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			if (i % 100 < 60) {		// ten runs of 60 rows
+				list.add(i);
+				expected.add(i);
+			}
+		}
+		list.add(5);		// a row that does not follow the last one
+		expected.add(5);
+		assertEquals("Testing the number of runs", 11, list.getNumberOfRuns());
+		assertEquals("Testing the size", expected.size(), list.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals("Testing index " + i, expected.get(i).intValue(), list.getInt(i));
+		}
+		PrimitiveIterator.OfInt iterator = list.iterator();
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals("Testing iterator at " + i, expected.get(i).intValue(), iterator.nextInt());
+		}
+		assertEquals("Testing no more element", false, iterator.hasNext());
+		assertEquals("Testing equality with ArrayList", expected, list);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void outOfBoundsTest() {
+		RowIndexList list = new RowIndexList();
+		list.add(3);
+		list.get(1);
+	}
+	
+}